@@ -0,0 +1,169 @@
+package com.workoutgensvc.core;
+
+import com.workoutgensvc.core.balancer.BalancerSettings;
+import com.workoutgensvc.core.balancer.Chat2ApiEndpoints;
+import com.workoutgensvc.core.cache.AIResponseCache;
+import com.workoutgensvc.core.cache.AIResponseCacheSettings;
+import com.workoutgensvc.core.cache.enums.EvictionPolicy;
+import com.workoutgensvc.core.client.Chat2ApiTransport;
+import com.workoutgensvc.core.client.Chat2ApiTransportSettings;
+import com.workoutgensvc.core.resilience.ResilienceSettings;
+import com.workoutgensvc.core.resilience.UpstreamGuard;
+import com.workoutgensvc.core.retry.RetryPolicy;
+import com.workoutgensvc.core.retry.RetrySettings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Slf4j
+@Configuration
+public class AIClientConfig {
+    @Value("${chat2api.http.transport:pooled}")
+    private String transport;
+    @Value("${chat2api.http.connect-timeout:10s}")
+    private Duration connectTimeout;
+    @Value("${chat2api.http.read-timeout:60s}")
+    private Duration readTimeout;
+    @Value("${chat2api.http.connection-request-timeout:5s}")
+    private Duration connectionRequestTimeout;
+    @Value("${chat2api.http.max-connections-per-route:20}")
+    private int maxConnectionsPerRoute;
+    @Value("${chat2api.http.max-connections-total:50}")
+    private int maxConnectionsTotal;
+    @Value("${chat2api.http.idle-eviction:30s}")
+    private Duration idleEviction;
+    @Value("${chat2api.http.keep-alive:60s}")
+    private Duration keepAlive;
+    @Value("${chat2api.http.time-to-live:5m}")
+    private Duration timeToLive;
+
+    @Bean(destroyMethod = "close")
+    public Chat2ApiTransport chat2apiTransport(ObjectProvider<MeterRegistry> meterRegistry) {
+        Chat2ApiTransport chat2apiTransport = Chat2ApiTransport.create(Chat2ApiTransportSettings.builder()
+                .type(Chat2ApiTransport.Type.valueOf(transport.trim().toUpperCase()))
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .connectionRequestTimeout(connectionRequestTimeout)
+                .maxConnectionsPerRoute(maxConnectionsPerRoute)
+                .maxConnectionsTotal(maxConnectionsTotal)
+                .idleEviction(idleEviction)
+                .keepAlive(keepAlive)
+                .timeToLive(timeToLive)
+                .build());
+
+        meterRegistry.ifAvailable(chat2apiTransport::bindMetrics);
+        log.info("Using {} transport for Chat2API", chat2apiTransport.getType());
+
+        return chat2apiTransport;
+    }
+
+    @Bean
+    public UrlValidationCache urlValidationCache(
+            @Value("${ai.media-validation.cache.max-entries:10000}") int maxEntries,
+            @Value("${ai.media-validation.cache.valid-ttl:6h}") Duration validTtl,
+            @Value("${ai.media-validation.cache.invalid-ttl:10m}") Duration invalidTtl,
+            @Value("${ai.media-validation.cache.host-suspension:2m}") Duration hostSuspension) {
+        return new UrlValidationCache(maxEntries, validTtl, invalidTtl, hostSuspension);
+    }
+
+    @Bean(destroyMethod = "close")
+    public AIResponseCache aiResponseCache(
+            MeterRegistry meterRegistry,
+            @Value("${ai.response-cache.enabled:true}") boolean enabled,
+            @Value("${ai.response-cache.max-entries:500}") int maxEntries,
+            @Value("${ai.response-cache.eviction-policy:lru}") String evictionPolicy,
+            @Value("${ai.response-cache.ttl:0s}") Duration ttl,
+            @Value("${ai.response-cache.file:}") String file) {
+        return new AIResponseCache(AIResponseCacheSettings.builder()
+                .enabled(enabled)
+                .maxEntries(maxEntries)
+                .evictionPolicy(EvictionPolicy.valueOf(evictionPolicy.trim().toUpperCase()))
+                .ttl(ttl)
+                .persistencePath(file.isBlank() ? null : Path.of(file.trim()))
+                .build(), meterRegistry);
+    }
+
+    @Bean
+    public UpstreamGuard upstreamGuard(
+            MeterRegistry meterRegistry,
+            @Value("${ai.resilience.enabled:true}") boolean enabled,
+            @Value("${ai.resilience.circuit.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${ai.resilience.circuit.sliding-window-size:20}") int slidingWindowSize,
+            @Value("${ai.resilience.circuit.minimum-calls:10}") int minimumCalls,
+            @Value("${ai.resilience.circuit.open-duration:30s}") Duration openDuration,
+            @Value("${ai.resilience.circuit.half-open-calls:2}") int halfOpenCalls,
+            @Value("${ai.resilience.bulkhead.max-concurrent:16}") int maxConcurrent,
+            @Value("${ai.resilience.bulkhead.max-wait:2s}") Duration maxWait,
+            @Value("${ai.resilience.limit.initial:8}") int initialLimit,
+            @Value("${ai.resilience.limit.min:1}") int minLimit,
+            @Value("${ai.resilience.limit.latency-tolerance:2.0}") double latencyTolerance,
+            @Value("${ai.resilience.limit.backoff-ratio:0.75}") double backoffRatio,
+            @Value("${ai.resilience.limit.max-wait:1s}") Duration limitMaxWait) {
+        return new UpstreamGuard(ResilienceSettings.builder()
+                .enabled(enabled)
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumCalls(minimumCalls)
+                .openDuration(openDuration)
+                .halfOpenCalls(halfOpenCalls)
+                .maxConcurrent(maxConcurrent)
+                .maxWait(maxWait)
+                .initialLimit(initialLimit)
+                .minLimit(minLimit)
+                .latencyTolerance(latencyTolerance)
+                .backoffRatio(backoffRatio)
+                .limitMaxWait(limitMaxWait)
+                .build(), meterRegistry);
+    }
+
+    @Bean
+    public RetryPolicy retryPolicy(
+            MeterRegistry meterRegistry,
+            @Value("${ai.retry.max-attempts:3}") int maxAttempts,
+            @Value("${ai.retry.initial-backoff:250ms}") Duration initialBackoff,
+            @Value("${ai.retry.max-backoff:4s}") Duration maxBackoff,
+            @Value("${ai.retry.multiplier:2.0}") double multiplier,
+            @Value("${ai.retry.budget:60s}") Duration budget) {
+        return new RetryPolicy(RetrySettings.builder()
+                .maxAttempts(maxAttempts)
+                .initialBackoff(initialBackoff)
+                .maxBackoff(maxBackoff)
+                .multiplier(multiplier)
+                .budget(budget)
+                .build(), meterRegistry);
+    }
+
+    @Bean
+    public Chat2ApiEndpoints chat2apiEndpoints(
+            MeterRegistry meterRegistry,
+            @Value("${chat2api.base-url:http://localhost:5005}") String baseUrls,
+            @Value("${chat2api.balancer.ejection-failures:3}") int ejectionFailures,
+            @Value("${chat2api.balancer.ejection-duration:30s}") Duration ejectionDuration,
+            @Value("${chat2api.balancer.latency-decay:0.3}") double latencyDecay,
+            @Value("${chat2api.health.path:/}") String healthPath,
+            @Value("${chat2api.health.timeout:2s}") Duration healthTimeout) {
+        return new Chat2ApiEndpoints(Chat2ApiEndpoints.parse(baseUrls), BalancerSettings.builder()
+                .ejectionFailures(ejectionFailures)
+                .ejectionDuration(ejectionDuration)
+                .latencyDecay(latencyDecay)
+                .healthPath(healthPath)
+                .healthTimeout(healthTimeout)
+                .build(), meterRegistry);
+    }
+
+    @Bean
+    public RestTemplate chat2apiRestTemplate(Chat2ApiTransport chat2apiTransport, ObjectProvider<ObservationRegistry> observationRegistry) {
+        RestTemplate restTemplate = chat2apiTransport.restTemplate();
+        // Each HTTP exchange with chat2api becomes a client span, and the trace context is sent along
+        observationRegistry.ifAvailable(restTemplate::setObservationRegistry);
+        return restTemplate;
+    }
+}
@@ -0,0 +1,89 @@
+package com.workoutgensvc.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Slf4j
+@Configuration
+public class AIExecutorConfig {
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+    @Value("${ai.executor.core-size:8}")
+    private int coreSize;
+    @Value("${ai.executor.max-size:32}")
+    private int maxSize;
+    @Value("${ai.executor.queue-capacity:100}")
+    private int queueCapacity;
+    @Value("${ai.executor.virtual-concurrency-limit:1000}")
+    private int virtualConcurrencyLimit;
+    @Value("${ai.jobs.workers:8}")
+    private int jobWorkers;
+    @Value("${ai.jobs.queue-capacity:200}")
+    private int jobQueueCapacity;
+
+    /**
+     * Executor for blocking AI work that is not queued as a job (SSE streams, media URL probes).
+     * In virtual-thread mode every task gets its own virtual thread, capped by a concurrency limit.
+     * Tasks run in the submitting request's trace context, as do the jobs below.
+     */
+    @Bean
+    public AsyncTaskExecutor aiTaskExecutor() {
+        if (virtualThreadsEnabled()) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ai-vt-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(virtualConcurrencyLimit);
+            executor.setRejectTasksWhenLimitReached(true);
+            executor.setTaskTerminationTimeout(30_000);
+            executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ai-");
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor aiJobExecutor() {
+        // Fixed-size pool: generation jobs are throttled by the queue, not by spawning more threads
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ai-job-");
+        executor.setCorePoolSize(jobWorkers);
+        executor.setMaxPoolSize(jobWorkers);
+        executor.setQueueCapacity(jobQueueCapacity);
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        if (virtualThreadsEnabled()) {
+            // Workers still bound how many jobs run at once, but block on I/O without holding a carrier thread
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("ai-job-vt-").getVirtualThreadFactory());
+        }
+        return executor;
+    }
+
+    private boolean virtualThreadsEnabled() {
+        if (!virtualThreadsRequested) {
+            return false;
+        }
+        if (!JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads, using platform threads",
+                    JavaVersion.getJavaVersion());
+            return false;
+        }
+        return true;
+    }
+}
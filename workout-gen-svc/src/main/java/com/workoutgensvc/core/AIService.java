@@ -3,119 +3,249 @@ package com.workoutgensvc.core;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
+import com.workoutgensvc.core.balancer.Chat2ApiEndpoints;
+import com.workoutgensvc.core.cache.AIResponseCache;
+import com.workoutgensvc.core.client.UpstreamException;
+import com.workoutgensvc.core.metrics.GenerationMetrics;
+import com.workoutgensvc.core.metrics.enums.Pipeline;
+import com.workoutgensvc.core.metrics.enums.Stage;
+import com.workoutgensvc.core.resilience.AIRejectedException;
+import com.workoutgensvc.core.resilience.UpstreamGuard;
+import com.workoutgensvc.core.retry.AIGenerationException;
+import com.workoutgensvc.core.retry.RetryPolicy;
+import com.workoutgensvc.core.retry.enums.FailureCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
 public class AIService {
+    private static final int MAX_TOKENS = 2000;
+    private static final double TEMPERATURE = 0.7;
+
     private final String model;
-    private final String chat2apiBaseUrl;
+    private final Chat2ApiEndpoints endpoints;
     private final String chat2apiAccessToken;
     private final RestTemplate restTemplate;
+    private final MediaUrlValidator mediaUrlValidator;
+    private final Duration mediaValidationDeadline;
+    private final AIResponseCache responseCache;
+    private final UpstreamGuard upstreamGuard;
+    private final RetryPolicy retryPolicy;
+    private final GenerationMetrics generationMetrics;
+    private final ObservationRegistry observationRegistry;
+    private final Counter coalescedRequests;
     private final Gson gson;
+    // Upstream calls currently running, by cache key; identical concurrent requests wait on these
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
 
-    public AIService(@Value("${openai.api.model:gpt-3.5-turbo}") String model, @Value("${chat2api.base-url:http://localhost:5005}") String chat2apiBaseUrl, @Value("${chat2api.access-token:}") String chat2apiAccessToken) {
+    public AIService(@Value("${openai.api.model:gpt-3.5-turbo}") String model, Chat2ApiEndpoints endpoints, @Value("${chat2api.access-token:}") String chat2apiAccessToken, @Qualifier("chat2apiRestTemplate") RestTemplate restTemplate, MediaUrlValidator mediaUrlValidator, @Value("${ai.media-validation.deadline:6s}") Duration mediaValidationDeadline, AIResponseCache responseCache, UpstreamGuard upstreamGuard, RetryPolicy retryPolicy, GenerationMetrics generationMetrics, MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
         this.model = model;
-        this.chat2apiBaseUrl = chat2apiBaseUrl;
+        this.endpoints = endpoints;
         this.chat2apiAccessToken = chat2apiAccessToken;
-
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(10000);
-        factory.setReadTimeout(60000);
-
-        this.restTemplate = new RestTemplate(factory);
+        this.restTemplate = restTemplate;
+        this.mediaUrlValidator = mediaUrlValidator;
+        this.mediaValidationDeadline = mediaValidationDeadline;
+        this.responseCache = responseCache;
+        this.upstreamGuard = upstreamGuard;
+        this.retryPolicy = retryPolicy;
+        this.generationMetrics = generationMetrics;
+        this.observationRegistry = observationRegistry;
+        this.coalescedRequests = Counter.builder("ai.requests.coalesced")
+                .description("Requests that joined an identical in-flight upstream call instead of making their own")
+                .register(meterRegistry);
+        Gauge.builder("ai.requests.in-flight", inFlight, Map::size)
+                .description("Distinct upstream calls currently running")
+                .register(meterRegistry);
         this.gson = new Gson();
     }
 
     public boolean isValidUrl(String url) {
-        if (url == null || url.trim().isEmpty()) {
-            return false;
-        }
+        return mediaUrlValidator.isValid(url);
+    }
 
-        try {
-            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
-            connection.setRequestMethod("HEAD");
-            connection.setConnectTimeout(5000);
-            connection.setReadTimeout(5000);
-            connection.setInstanceFollowRedirects(true);
-            connection.setRequestProperty("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36");
-
-            int responseCode = connection.getResponseCode();
-
-            // Accept 2xx (success) and 3xx (redirect) status codes
-            if (200 <= responseCode && responseCode < 400) {
-                // For media URLs, check content type if possible
-                String contentType = connection.getContentType();
-                if (contentType != null) {
-                    String lowerContentType = contentType.toLowerCase();
-                    // Basic validation for common media types
-                    if (url.contains(".jpg") || url.contains(".jpeg") || url.contains(".png") || url.contains(".gif") || url.contains(".webp")) {
-                        return lowerContentType.contains("image/");
-                    } else if (url.contains(".mp4") || url.contains(".avi") || url.contains(".mov") || url.contains(".webm")) {
-                        return lowerContentType.contains("video/");
+    /**
+     * Returns the completion for the prompt, from the response cache when possible. With
+     * {@code noCache} the lookup is skipped, but the fresh response still replaces the cached one.
+     * Observed as {@code ai.generation}, with one {@code ai.upstream.call} per attempt. The upstream
+     * guard judges the call's latency against others of the same {@code pipeline}.
+     */
+    public String generateResponse(Pipeline pipeline, String prompt, boolean noCache) {
+        Observation observation = generationObservation(prompt, false);
+        return observation.observe(() -> {
+            String cacheKey = cacheKey(prompt);
+            if (!noCache) {
+                Optional<String> cached = responseCache.get(cacheKey);
+                if (cached.isPresent()) {
+                    return responded(observation.lowCardinalityKeyValue("ai.cache", "hit"), cached.get());
+                }
+            }
+
+            // Coalesced callers wait on the leader's retries rather than retrying on their own
+            AtomicInteger attempt = new AtomicInteger();
+            return responded(observation, singleFlight(cacheKey, () -> retryPolicy.call("chat completion",
+                    () -> callUpstream(pipeline, attempt.incrementAndGet(), () -> generateResponseViaChat2Api(prompt)))));
+        });
+    }
+
+    /**
+     * Streaming variant of {@link #generateResponse}. Not retried: tokens may already have reached the
+     * client when the stream fails.
+     */
+    public String streamResponse(Pipeline pipeline, String prompt, boolean noCache, Consumer<String> onToken) {
+        Observation observation = generationObservation(prompt, true);
+        return observation.observe(() -> {
+            String cacheKey = cacheKey(prompt);
+            if (!noCache) {
+                Optional<String> cached = responseCache.get(cacheKey);
+                if (cached.isPresent()) {
+                    onToken.accept(cached.get());
+                    return responded(observation.lowCardinalityKeyValue("ai.cache", "hit"), cached.get());
+                }
+            }
+
+            boolean[] leader = new boolean[1];
+            String response = singleFlight(cacheKey, () -> {
+                leader[0] = true;
+                return callUpstream(pipeline, 1, () -> streamResponseViaChat2Api(prompt, onToken));
+            });
+
+            // Followers never saw the tokens, so they get the whole completion in one piece
+            if (!leader[0]) {
+                onToken.accept(response);
+            }
+            return responded(observation, response);
+        });
+    }
+
+    private Observation generationObservation(String prompt, boolean stream) {
+        // Every low cardinality key is set up front: they become meter tags, which must not vary per call
+        return Observation.createNotStarted("ai.generation", observationRegistry)
+                .lowCardinalityKeyValue("ai.model", model)
+                .lowCardinalityKeyValue("ai.stream", String.valueOf(stream))
+                .lowCardinalityKeyValue("ai.cache", "miss")
+                .highCardinalityKeyValue("ai.prompt.length", String.valueOf(prompt.length()));
+    }
+
+    private static String responded(Observation observation, String response) {
+        observation.highCardinalityKeyValue("ai.response.length", String.valueOf(response == null ? 0 : response.length()));
+        return response;
+    }
+
+    private String callUpstream(Pipeline pipeline, int attempt, Supplier<String> upstreamCall) {
+        return Observation.createNotStarted("ai.upstream.call", observationRegistry)
+                .lowCardinalityKeyValue("ai.model", model)
+                .highCardinalityKeyValue("ai.retry.attempt", String.valueOf(attempt))
+                .observe(() -> {
+                    try {
+                        return upstreamGuard.call(pipeline, upstreamCall);
+                    } catch (AIRejectedException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw unavailable(e);
                     }
+                });
+    }
+
+    private String generate(Pipeline pipeline, Supplier<String> promptBuilder, boolean noCache) {
+        String prompt = generationMetrics.time(pipeline, Stage.PROMPT, promptBuilder);
+        generationMetrics.recordPrompt(pipeline, prompt);
+        String response = generationMetrics.time(pipeline, Stage.UPSTREAM, () -> generateResponse(pipeline, prompt, noCache));
+        generationMetrics.recordResponse(pipeline, response);
+        return response;
+    }
+
+    private String stream(Pipeline pipeline, Supplier<String> promptBuilder, boolean noCache, Consumer<String> onToken) {
+        String prompt = generationMetrics.time(pipeline, Stage.PROMPT, promptBuilder);
+        generationMetrics.recordPrompt(pipeline, prompt);
+        String response = generationMetrics.time(pipeline, Stage.UPSTREAM, () -> streamResponse(pipeline, prompt, noCache, onToken));
+        generationMetrics.recordResponse(pipeline, response);
+        return response;
+    }
+
+    /**
+     * Runs the upstream call unless an identical one is already in flight, in which case this caller
+     * waits for that call and gets its result or its failure. The response is cached before the
+     * flight is released, so a request arriving just after still avoids the LLM.
+     */
+    private String singleFlight(String cacheKey, Supplier<String> upstreamCall) {
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(cacheKey, flight);
+        if (existing != null) {
+            coalescedRequests.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
                 }
-                return true; // Accept if we can't determine content type but got a valid response
+                throw e;
             }
+        }
 
-            return false;
-        } catch (Exception e) {
-            log.debug("URL validation failed for {}: {}", url, e.getMessage());
-            return false;
+        try {
+            String response = upstreamCall.get();
+            responseCache.put(cacheKey, response);
+            flight.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, flight);
         }
     }
 
-    public String generateResponse(String prompt) {
-        try {
-            return generateResponseViaChat2Api(prompt);
-        } catch (Exception e) {
-            log.error("Chat2API request failed: {}", e.getMessage());
+    private String cacheKey(String prompt) {
+        return AIResponseCache.key(model, prompt, MAX_TOKENS, TEMPERATURE);
+    }
 
-            if (e.getMessage().contains("Connection refused") || e.getMessage().contains("Connection timed out")) {
-                throw new RuntimeException("Chat2API server is not running!");
-            }
+    private AIUnavailableException unavailable(Exception e) {
+        log.error("Chat2API request failed: {}", e.getMessage());
 
-            throw new RuntimeException("AI service unavailable: " + e.getMessage(), e);
+        if (e.getMessage().contains("Connection refused") || e.getMessage().contains("Connection timed out")) {
+            return new AIUnavailableException("Chat2API server is not running!", e);
         }
+
+        return new AIUnavailableException("AI service unavailable: " + e.getMessage(), e);
     }
 
     private String generateResponseViaChat2Api(String prompt) {
         try {
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", model);
-            requestBody.put("messages", List.of(Map.of("role", "user", "content", prompt)));
-            requestBody.put("max_tokens", 2000);
-            requestBody.put("temperature", 0.7);
-            requestBody.put("stream", false);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            if (chat2apiAccessToken != null && !chat2apiAccessToken.trim().isEmpty()) {
-                headers.setBearerAuth(chat2apiAccessToken);
-                log.debug("Using Chat2API with Authorization header.");
-            } else {
-                log.debug("Using Chat2API without Authorization header.");
-            }
+            HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(buildRequestBody(prompt, false), buildHeaders());
 
-            HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(requestBody, headers);
-
-            String url = chat2apiBaseUrl + "/v1/chat/completions";
             long startTime = System.currentTimeMillis();
-            ResponseEntity<String> response = restTemplate.postForEntity(url, requestEntity, String.class);
+            ResponseEntity<String> response = endpoints.call(baseUrl -> exchange(baseUrl, () -> restTemplate.postForEntity(baseUrl + "/v1/chat/completions", requestEntity, String.class)));
             long endTime = System.currentTimeMillis();
 
             log.debug("Request completed in {} ms", (endTime - startTime));
@@ -125,34 +255,146 @@ public class AIService {
                 throw new RuntimeException("Chat2API request failed with status: " + response.getStatusCode());
             }
 
-            String responseJson = response.getBody();
-            JsonObject rootObject = JsonParser.parseString(responseJson).getAsJsonObject();
+            return extractContent(response.getBody());
 
-            if (rootObject.has("choices") && rootObject.get("choices").isJsonArray()) {
-                JsonArray choices = rootObject.get("choices").getAsJsonArray();
+        } catch (Exception e) {
+            log.error("Chat2API request failed: {}", e.getMessage(), e);
+            throw new RuntimeException("Chat2API service unavailable: " + e.getMessage(), e);
+        }
+    }
 
-                if (!choices.isEmpty()) {
-                    JsonObject firstChoice = choices.get(0).getAsJsonObject();
+    private String streamResponseViaChat2Api(String prompt, Consumer<String> onToken) {
+        try {
+            HttpHeaders headers = buildHeaders();
+            headers.setAccept(List.of(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_JSON));
+            HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(buildRequestBody(prompt, true), headers);
 
-                    if (firstChoice.has("message") && firstChoice.get("message").isJsonObject()) {
-                        JsonObject messageObject = firstChoice.get("message").getAsJsonObject();
+            long startTime = System.currentTimeMillis();
+            // A failed read of the event stream reaches exchange() as a ResourceAccessException, while an
+            // exception thrown by onToken, such as a client that went away, passes through unchanged
+            String content = endpoints.call(baseUrl -> exchange(baseUrl, () -> restTemplate.execute(baseUrl + "/v1/chat/completions", HttpMethod.POST, restTemplate.httpEntityCallback(requestEntity), response -> {
+                if (response.getStatusCode() != HttpStatus.OK) {
+                    throw new RuntimeException("Chat2API request failed with status: " + response.getStatusCode());
+                }
 
-                        if (messageObject.has("content")) {
-                            return messageObject.get("content").getAsString();
-                        }
-                    }
+                MediaType contentType = response.getHeaders().getContentType();
+                if (contentType != null && !MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)) {
+                    // Upstream ignored "stream": true and answered with a regular completion
+                    String fullContent = extractContent(new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8));
+                    onToken.accept(fullContent);
+                    return fullContent;
                 }
-            }
-            throw new RuntimeException("Invalid response format from chat2api");
+
+                return readEventStream(response.getBody(), onToken);
+            })));
+            long endTime = System.currentTimeMillis();
+
+            log.debug("Streamed request completed in {} ms", (endTime - startTime));
+            return content;
 
         } catch (Exception e) {
-            log.error("Chat2API request failed: {}", e.getMessage(), e);
+            log.error("Chat2API streaming request failed: {}", e.getMessage(), e);
             throw new RuntimeException("Chat2API service unavailable: " + e.getMessage(), e);
         }
     }
 
-    public String generateExercise(String muscleGroup, String difficulty, String equipment) {
-        String prompt = String.format(
+    /**
+     * Runs one HTTP exchange with a chat2api instance, reporting its transport and status failures as
+     * an {@link UpstreamException} so the balancer and the guard can tell them from everything else.
+     */
+    private static <T> T exchange(String baseUrl, Supplier<T> exchange) {
+        try {
+            return exchange.get();
+        } catch (RestClientException e) {
+            throw new UpstreamException(baseUrl, e);
+        }
+    }
+
+    private Map<String, Object> buildRequestBody(String prompt, boolean stream) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("messages", List.of(Map.of("role", "user", "content", prompt)));
+        requestBody.put("max_tokens", MAX_TOKENS);
+        requestBody.put("temperature", TEMPERATURE);
+        requestBody.put("stream", stream);
+        return requestBody;
+    }
+
+    private HttpHeaders buildHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        if (chat2apiAccessToken != null && !chat2apiAccessToken.trim().isEmpty()) {
+            headers.setBearerAuth(chat2apiAccessToken);
+            log.debug("Using Chat2API with Authorization header.");
+        } else {
+            log.debug("Using Chat2API without Authorization header.");
+        }
+
+        return headers;
+    }
+
+    private String extractContent(String responseJson) {
+        JsonObject rootObject = JsonParser.parseString(responseJson).getAsJsonObject();
+
+        if (rootObject.has("choices") && rootObject.get("choices").isJsonArray()) {
+            JsonArray choices = rootObject.get("choices").getAsJsonArray();
+
+            if (!choices.isEmpty()) {
+                JsonObject firstChoice = choices.get(0).getAsJsonObject();
+
+                if (firstChoice.has("message") && firstChoice.get("message").isJsonObject()) {
+                    JsonObject messageObject = firstChoice.get("message").getAsJsonObject();
+
+                    if (messageObject.has("content")) {
+                        return messageObject.get("content").getAsString();
+                    }
+                }
+            }
+        }
+        throw new RuntimeException("Invalid response format from chat2api");
+    }
+
+    private String readEventStream(InputStream body, Consumer<String> onToken) throws IOException {
+        StringBuilder content = new StringBuilder();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.startsWith("data:")) {
+                continue;
+            }
+
+            String data = line.substring("data:".length()).trim();
+            if (data.equals("[DONE]")) {
+                break;
+            }
+            if (data.isEmpty()) {
+                continue;
+            }
+
+            JsonObject chunk = JsonParser.parseString(data).getAsJsonObject();
+            if (!chunk.has("choices") || chunk.getAsJsonArray("choices").isEmpty()) {
+                continue;
+            }
+
+            JsonObject delta = chunk.getAsJsonArray("choices").get(0).getAsJsonObject().getAsJsonObject("delta");
+            if (delta != null && delta.has("content") && !delta.get("content").isJsonNull()) {
+                String token = delta.get("content").getAsString();
+                content.append(token);
+                onToken.accept(token);
+            }
+        }
+
+        return content.toString();
+    }
+
+    public String generateExercise(String muscleGroup, String difficulty, String equipment, boolean noCache) {
+        return generate(Pipeline.EXERCISE, () -> exercisePrompt(muscleGroup, difficulty, equipment), noCache);
+    }
+
+    static String exercisePrompt(String muscleGroup, String difficulty, String equipment) {
+        return String.format(
                 "You are an expert fitness coach and exercise database generator.\n" +
                         "\n" +
                         "Generate ONE exercise that targets the muscle group: \"%s\".\n" +
@@ -190,52 +432,78 @@ public class AIService {
                         "}"
                 , muscleGroup, difficulty, equipment
         );
-
-        return generateResponse(prompt);
     }
 
-    public String generateValidExercise(String muscleGroup, String difficulty, String equipment, int maxRetries) {
-        int attempts = 0;
-
-        while (attempts < maxRetries) {
+    /**
+     * Generates an exercise and checks the answer: it must be JSON, name the exercise and its type, and
+     * link at least one image or video that resolves. Rejected answers are dropped from the cache and
+     * generated again, up to {@code maxAttempts} in all. Throws {@link AIGenerationException} when no
+     * attempt produced a usable exercise.
+     */
+    public String generateValidExercise(String muscleGroup, String difficulty, String equipment, int maxAttempts, boolean noCache) {
+        // A response that fails validation is dropped from the cache, otherwise every retry would get it back
+        String cacheKey = cacheKey(exercisePrompt(muscleGroup, difficulty, equipment));
+
+        return retryPolicy.call("exercise generation", RetryPolicy.ANSWER_FAILURES, maxAttempts, () -> {
+            String exerciseJson = generateExercise(muscleGroup, difficulty, equipment, noCache);
             try {
-                String exerciseJson = generateExercise(muscleGroup, difficulty, equipment);
-                JsonObject exercise = JsonParser.parseString(exerciseJson).getAsJsonObject();
-
-                boolean hasValidUrl = false;
+                validateExercise(exerciseJson);
+                return exerciseJson;
+            } catch (AIGenerationException e) {
+                responseCache.invalidate(cacheKey);
+                throw e;
+            }
+        });
+    }
 
-                if (exercise.has("imageUrl") && !exercise.get("imageUrl").isJsonNull()) {
-                    String imageUrl = exercise.get("imageUrl").getAsString();
-                    if (isValidUrl(imageUrl)) {
-                        hasValidUrl = true;
-                    }
-                }
+    /**
+     * Like {@link #generateValidExercise} but empty, rather than failing, when no attempt produced a
+     * usable exercise or chat2api could not be reached.
+     */
+    public Optional<String> tryGenerateValidExercise(String muscleGroup, String difficulty, String equipment, int maxAttempts, boolean noCache) {
+        try {
+            return Optional.of(generateValidExercise(muscleGroup, difficulty, equipment, maxAttempts, noCache));
+        } catch (AIGenerationException | AIUnavailableException e) {
+            return Optional.empty();
+        }
+    }
 
-                if (exercise.has("videoUrl") && !exercise.get("videoUrl").isJsonNull()) {
-                    String videoUrl = exercise.get("videoUrl").getAsString();
-                    if (isValidUrl(videoUrl)) {
-                        hasValidUrl = true;
-                    }
-                }
+    private void validateExercise(String exerciseJson) {
+        JsonObject exercise;
+        try {
+            exercise = JsonParser.parseString(exerciseJson.replaceAll("```", "").replace("json\n", "")).getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new AIGenerationException(FailureCause.INVALID_JSON, "Exercise answer is not a JSON object", e);
+        }
 
-                if (hasValidUrl) {
-                    return exerciseJson;
-                } else {
-                    attempts++;
-                }
+        for (String field : List.of("name", "type")) {
+            if (!exercise.has(field) || !exercise.get(field).isJsonPrimitive() || exercise.get(field).getAsString().isBlank()) {
+                throw new AIGenerationException(FailureCause.SCHEMA_FAILURE, "Exercise answer has no " + field);
+            }
+        }
 
-            } catch (Exception e) {
-                attempts++;
+        List<String> mediaUrls = new ArrayList<>();
+        for (String field : List.of("imageUrl", "videoUrl")) {
+            if (exercise.has(field) && exercise.get(field).isJsonPrimitive()) {
+                mediaUrls.add(exercise.get(field).getAsString());
             }
         }
+        // Both links are probed in parallel under one deadline; the first valid one wins
+        if (!mediaUrlValidator.anyValid(mediaUrls, mediaValidationDeadline)) {
+            throw new AIGenerationException(FailureCause.INVALID_MEDIA, "Exercise answer links no reachable image or video");
+        }
+    }
+
+    public String generateWorkout(String type, String duration, String fitnessLevel, String goals, String existingExercises, boolean noCache) {
+        return generate(Pipeline.WORKOUT, () -> workoutPrompt(type, duration, fitnessLevel, goals, existingExercises), noCache);
+    }
 
-        // If we couldn't get a valid exercise after all retries, return the last attempt
-        log.error("Failed to generate exercise with valid URLs after {} attempts", maxRetries);
-        return generateExercise(muscleGroup, difficulty, equipment);
+    public String streamWorkout(String type, String duration, String fitnessLevel, String goals, String existingExercises, boolean noCache, Consumer<String> onToken) {
+        return stream(Pipeline.WORKOUT, () -> workoutPrompt(type, duration, fitnessLevel, goals, existingExercises), noCache, onToken);
     }
 
-    public String generateWorkout(String type, String duration, String fitnessLevel, String goals, String existingExercises) {
-        String prompt = String.format(
+    static String workoutPrompt(String type, String duration, String fitnessLevel, String goals, String existingExercises) {
+        return String.format(
                 "You are an expert fitness coach and workout planner.\n" +
                         "\n" +
                         "Create a complete workout with the following specifications:\n" +
@@ -256,7 +524,6 @@ public class AIService {
                         "\"weight\" must be a non-negative number (0 if bodyweight or no weight).\n" +
                         "\"duration\" for each exercise must be in seconds, and the sum of all exercise durations must exactly equal the total workout duration in seconds (%s minutes * 60).\n" +
                         "Adjust reps, sets, or rest periods if necessary to meet this total duration.\n" +
-                        "\"burnedCalories\" must be a realistic positive number.\n" +
                         "No fields should be null or missing.\n" +
                         "No explanations. Only return JSON.\n" +
                         "\n" +
@@ -270,19 +537,24 @@ public class AIService {
                         "      \"number\": 1,\n" +
                         "      \"reps\": 12,\n" +
                         "      \"weight\": 25.5,\n" +
-                        "      \"duration\": 45,\n" +
-                        "      \"burnedCalories\": 85.5\n" +
+                        "      \"duration\": 45\n" +
                         "    }\n" +
                         "  ]\n" +
                         "}\n",
                 type, duration, fitnessLevel, goals, existingExercises, duration
         );
+    }
 
-        return generateResponse(prompt);
+    public String generatePlan(String duration, String frequency, String goals, String experience, String existingWorkouts, boolean noCache) {
+        return generate(Pipeline.PLAN, () -> planPrompt(duration, frequency, goals, experience, existingWorkouts), noCache);
     }
 
-    public String generatePlan(String duration, String frequency, String goals, String experience, String existingWorkouts) {
-        String prompt = String.format(
+    public String streamPlan(String duration, String frequency, String goals, String experience, String existingWorkouts, boolean noCache, Consumer<String> onToken) {
+        return stream(Pipeline.PLAN, () -> planPrompt(duration, frequency, goals, experience, existingWorkouts), noCache, onToken);
+    }
+
+    static String planPrompt(String duration, String frequency, String goals, String experience, String existingWorkouts) {
+        return String.format(
                 "You are an expert fitness coach and program planner.\n\n" +
                         "Create a comprehensive %s-week workout plan with these specifications:\n" +
                         "- Training Frequency: %s days per week\n" +
@@ -318,7 +590,31 @@ public class AIService {
                         "}\n",
                 duration, frequency, goals, experience, existingWorkouts
         );
+    }
+
+    public String describePlan(String duration, String frequency, String goals, String experience, String scheduledWorkouts, boolean noCache) {
+        return generate(Pipeline.PLAN_DESCRIPTION, () -> planDescriptionPrompt(duration, frequency, goals, experience, scheduledWorkouts), noCache);
+    }
 
-        return generateResponse(prompt);
+    // Names an already scheduled plan, a far smaller completion than laying out every day
+    private String planDescriptionPrompt(String duration, String frequency, String goals, String experience, String scheduledWorkouts) {
+        return String.format(
+                "You are an expert fitness coach and program planner.\n\n" +
+                        "Name and describe a %s-week workout plan with these specifications:\n" +
+                        "- Training Frequency: %s days per week\n" +
+                        "- Goals: %s\n" +
+                        "- Experience Level: %s\n\n" +
+                        "The plan rotates these workouts:\n%s\n\n" +
+                        "REQUIREMENTS:\n" +
+                        "- You MUST return VALID JSON ONLY. No extra text.\n" +
+                        "- \"name\" must be a realistic plan name.\n" +
+                        "- \"description\" must be one or two sentences.\n\n" +
+                        "JSON SCHEMA:\n" +
+                        "{\n" +
+                        "  \"name\": \"Plan Name\",\n" +
+                        "  \"description\": \"Short overview of the plan\"\n" +
+                        "}\n",
+                duration, frequency, goals, experience, scheduledWorkouts
+        );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,16 @@
+package com.workoutgensvc.core;
+
+/**
+ * The LLM could not be reached or did not answer: chat2api is down, the request failed on the wire,
+ * or it came back with an error status. Distinguishes "no answer" from an answer that failed to parse,
+ * so callers can fall back to local generation.
+ */
+public class AIUnavailableException extends RuntimeException {
+    public AIUnavailableException(String message) {
+        super(message);
+    }
+
+    public AIUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,66 @@
+package com.workoutgensvc.core;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Per-request lookup of entities by name. Names are resolved in batches through one {@code IN}
+ * query over the normalized-name column, and each name is looked up at most once, including
+ * names that turn out not to exist.
+ */
+public class BatchNameResolver<T> {
+    private final Function<Collection<String>, Map<String, T>> lookup;
+    private final Map<String, T> resolved = new HashMap<>();
+    private final Set<String> attempted = new HashSet<>();
+
+    /**
+     * @param lookup loads the entities for a batch of normalized names, keyed by normalized name
+     */
+    public BatchNameResolver(Function<Collection<String>, Map<String, T>> lookup) {
+        this.lookup = lookup;
+    }
+
+    public static String normalize(String name) {
+        return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Resolves every name not seen before in a single lookup.
+     */
+    public void prefetch(Collection<String> names) {
+        Set<String> missing = new HashSet<>();
+        for (String name : names) {
+            String normalized = normalize(name);
+            if (normalized != null && !normalized.isEmpty() && !attempted.contains(normalized)) {
+                missing.add(normalized);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        resolved.putAll(lookup.apply(missing));
+        attempted.addAll(missing);
+    }
+
+    public Optional<T> get(String name) {
+        prefetch(List.of(name));
+        return Optional.ofNullable(resolved.get(normalize(name)));
+    }
+
+    /**
+     * Records an entity created during materialization, so later references reuse it.
+     */
+    public void put(String name, T value) {
+        String normalized = normalize(name);
+        attempted.add(normalized);
+        resolved.put(normalized, value);
+    }
+}
@@ -0,0 +1,228 @@
+package com.workoutgensvc.core;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpTimeoutException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks that media links proposed by the model point at something real. Probes are HEAD requests
+ * sent through one shared non-blocking client, so several links can be checked at once. Outcomes
+ * are cached, and hosts that recently timed out are skipped without touching the network. Each
+ * network probe is observed as {@code media.url.probe}.
+ */
+@Slf4j
+@Service
+public class MediaUrlValidator {
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36";
+
+    private final HttpClient httpClient;
+    private final Duration probeTimeout;
+    private final UrlValidationCache cache;
+    private final ObservationRegistry observationRegistry;
+
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter hostSkips;
+    private final Counter savedProbeTime;
+
+    public MediaUrlValidator(
+            @Value("${ai.media-validation.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${ai.media-validation.probe-timeout:5s}") Duration probeTimeout,
+            UrlValidationCache cache,
+            MeterRegistry meterRegistry,
+            ObservationRegistry observationRegistry) {
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.probeTimeout = probeTimeout;
+        this.cache = cache;
+        this.observationRegistry = observationRegistry;
+
+        this.cacheHits = Counter.builder("media.url.cache").tag("result", "hit")
+                .description("Media URL checks answered from the cache").register(meterRegistry);
+        this.cacheMisses = Counter.builder("media.url.cache").tag("result", "miss")
+                .description("Media URL checks that needed a network probe").register(meterRegistry);
+        this.hostSkips = Counter.builder("media.url.host.skipped")
+                .description("Probes skipped because the host recently timed out or refused connections").register(meterRegistry);
+        this.savedProbeTime = Counter.builder("media.url.probe.saved").baseUnit("seconds")
+                .description("Probe time avoided by cache hits, using the duration of the original probe").register(meterRegistry);
+        Gauge.builder("media.url.cache.size", cache, UrlValidationCache::size).register(meterRegistry);
+    }
+
+    public boolean isValid(String url) {
+        try {
+            return probe(url).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Probes all urls concurrently and returns true as soon as any of them is valid. Returns false
+     * once every probe has failed or when {@code deadline} elapses first.
+     */
+    public boolean anyValid(Collection<String> urls, Duration deadline) {
+        List<CompletableFuture<Boolean>> probes = new ArrayList<>();
+        for (String url : urls) {
+            probes.add(probe(url));
+        }
+        if (probes.isEmpty()) {
+            return false;
+        }
+
+        CompletableFuture<Boolean> anyValid = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(probes.size());
+        for (CompletableFuture<Boolean> probe : probes) {
+            probe.thenAccept(valid -> {
+                if (valid) {
+                    anyValid.complete(true);
+                } else if (remaining.decrementAndGet() == 0) {
+                    anyValid.complete(false);
+                }
+            });
+        }
+
+        try {
+            return anyValid.get(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.debug("Media URL validation hit its {} ms deadline for {}", deadline.toMillis(), urls);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        } finally {
+            // Abandon the probes that are still in flight
+            probes.forEach(probe -> probe.cancel(true));
+        }
+    }
+
+    public CompletableFuture<Boolean> probe(String url) {
+        if (url == null || url.trim().isEmpty()) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        String key = UrlValidationCache.normalize(url);
+        Optional<UrlValidationCache.Entry> cached = cache.get(key);
+        if (cached.isPresent()) {
+            cacheHits.increment();
+            savedProbeTime.increment(cached.get().probeNanos() / 1e9);
+            return CompletableFuture.completedFuture(cached.get().valid());
+        }
+        cacheMisses.increment();
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url.trim()))
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .timeout(probeTimeout)
+                    .header("User-Agent", USER_AGENT)
+                    .build();
+        } catch (IllegalArgumentException e) {
+            log.debug("URL validation failed for {}: {}", url, e.getMessage());
+            cache.put(key, false, 0);
+            return CompletableFuture.completedFuture(false);
+        }
+
+        String host = request.uri().getHost();
+        if (cache.isHostSuspended(host)) {
+            hostSkips.increment();
+            return CompletableFuture.completedFuture(false);
+        }
+
+        // Started on the caller's thread, so the span nests under the request that asked for the probe
+        Observation observation = Observation.createNotStarted("media.url.probe", observationRegistry)
+                .lowCardinalityKeyValue("outcome", "invalid")
+                .highCardinalityKeyValue("url.host", String.valueOf(host))
+                .start();
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> outcome = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    long probeNanos = System.nanoTime() - start;
+                    try {
+                        if (error != null) {
+                            log.debug("URL validation failed for {}: {}", url, error.getMessage());
+                            observation.error(error);
+                            if (isHostFailure(error)) {
+                                observation.lowCardinalityKeyValue("outcome", "unreachable");
+                                cache.suspendHost(host);
+                                // Transient network failures are not cached per URL, the host suspension covers them
+                                return false;
+                            }
+                            cache.put(key, false, probeNanos);
+                            return false;
+                        }
+
+                        cache.clearHost(host);
+                        boolean valid = isAcceptable(url, response);
+                        observation.lowCardinalityKeyValue("outcome", valid ? "valid" : "invalid")
+                                .highCardinalityKeyValue("http.status_code", String.valueOf(response.statusCode()));
+                        cache.put(key, valid, probeNanos);
+                        return valid;
+                    } finally {
+                        observation.stop();
+                    }
+                });
+
+        // Callers may cancel their copy; the probe itself still completes and fills the cache
+        return outcome.copy();
+    }
+
+    private static boolean isHostFailure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof HttpTimeoutException
+                || cause instanceof ConnectException
+                || cause instanceof UnknownHostException;
+    }
+
+    private static boolean isAcceptable(String url, HttpResponse<Void> response) {
+        int responseCode = response.statusCode();
+
+        // Accept 2xx (success) and 3xx (redirect) status codes
+        if (200 <= responseCode && responseCode < 400) {
+            // For media URLs, check content type if possible
+            String contentType = response.headers().firstValue("Content-Type").orElse(null);
+            if (contentType != null) {
+                String lowerContentType = contentType.toLowerCase();
+                // Basic validation for common media types
+                if (url.contains(".jpg") || url.contains(".jpeg") || url.contains(".png") || url.contains(".gif") || url.contains(".webp")) {
+                    return lowerContentType.contains("image/");
+                } else if (url.contains(".mp4") || url.contains(".avi") || url.contains(".mov") || url.contains(".webm")) {
+                    return lowerContentType.contains("video/");
+                }
+            }
+            return true; // Accept if we can't determine content type but got a valid response
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,102 @@
+package com.workoutgensvc.core;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory list of entity names for prompt building. Loaded once from a projection query and kept
+ * current as entities are saved, so a generation request reads a pre-rendered string instead of
+ * loading the whole table. The rendered text is rebuilt only when the version has moved.
+ */
+public class NameCatalog {
+    private final String prefix;
+    private final String emptyText;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<String> names = new LinkedHashSet<>();
+    private final StringBuilder joined = new StringBuilder();
+    private volatile long version;
+    private volatile Rendered rendered = new Rendered(-1, null);
+
+    public NameCatalog(String prefix, String emptyText) {
+        this.prefix = prefix;
+        this.emptyText = emptyText;
+    }
+
+    public void load(Collection<String> initialNames) {
+        lock.lock();
+        try {
+            names.clear();
+            joined.setLength(0);
+            initialNames.forEach(this::append);
+            version++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void add(String name) {
+        lock.lock();
+        try {
+            if (append(name)) {
+                version++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the name once the surrounding transaction commits, so a rolled-back save never shows up
+     * in prompts. Outside a transaction the name is added immediately.
+     */
+    public void addAfterCommit(String name) {
+        TransactionCallbacks.afterCommit(() -> add(name));
+    }
+
+    public String render() {
+        Rendered current = rendered;
+        if (current.version == version) {
+            return current.text;
+        }
+
+        lock.lock();
+        try {
+            if (rendered.version != version) {
+                String text = names.isEmpty() ? emptyText : prefix + joined;
+                rendered = new Rendered(version, text);
+            }
+            return rendered.text;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return names.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean append(String name) {
+        if (name == null || !names.add(name)) {
+            return false;
+        }
+        if (joined.length() > 0) {
+            joined.append(", ");
+        }
+        joined.append(name);
+        return true;
+    }
+
+    private record Rendered(long version, String text) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.workoutgensvc.core;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.Consumer;
+
+/**
+ * Incremental scanner for streamed model output. Chunks are fed as they arrive and every object
+ * element of the top-level array {@code arrayField} is handed to the consumer as soon as its
+ * closing brace is seen, without waiting for the rest of the document.
+ */
+@Slf4j
+public class StreamingJsonArrayParser {
+    private final String arrayField;
+    private final Consumer<JsonObject> onElement;
+    private final StringBuilder text = new StringBuilder();
+    private final StringBuilder string = new StringBuilder();
+
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    private String lastTopLevelString;
+    private boolean inTargetArray;
+    private int elementStart = -1;
+    private int emitted;
+
+    public StreamingJsonArrayParser(String arrayField, Consumer<JsonObject> onElement) {
+        this.arrayField = arrayField;
+        this.onElement = onElement;
+    }
+
+    public void feed(String chunk) {
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            text.append(c);
+
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                    if (depth == 1) {
+                        lastTopLevelString = string.toString();
+                    }
+                } else if (depth == 1) {
+                    string.append(c);
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '"' -> {
+                    inString = true;
+                    string.setLength(0);
+                }
+                case '{' -> {
+                    if (inTargetArray && depth == 2) {
+                        elementStart = text.length() - 1;
+                    }
+                    depth++;
+                }
+                case '[' -> {
+                    if (depth == 1 && arrayField.equals(lastTopLevelString)) {
+                        inTargetArray = true;
+                    }
+                    depth++;
+                }
+                case '}' -> {
+                    depth--;
+                    if (inTargetArray && depth == 2 && elementStart >= 0) {
+                        emit(text.substring(elementStart));
+                        elementStart = -1;
+                    }
+                }
+                case ']' -> {
+                    depth--;
+                    if (depth == 1) {
+                        inTargetArray = false;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    private void emit(String element) {
+        JsonElement parsed;
+        try {
+            parsed = JsonParser.parseString(element);
+        } catch (RuntimeException e) {
+            log.warn("Failed to parse streamed '{}' element: {}", arrayField, element, e);
+            return;
+        }
+
+        if (parsed.isJsonObject()) {
+            emitted++;
+            onElement.accept(parsed.getAsJsonObject());
+        }
+    }
+
+    public int getEmittedCount() {
+        return emitted;
+    }
+
+    public String getText() {
+        return text.toString();
+    }
+}
@@ -0,0 +1,133 @@
+package com.workoutgensvc.core;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded LRU of media URL probe outcomes. Valid and invalid results expire separately, and hosts
+ * whose last probe timed out or refused the connection are suspended for a while.
+ */
+public class UrlValidationCache {
+    public record Entry(boolean valid, long expiresAtNanos, long probeNanos) {
+    }
+
+    private final int maxEntries;
+    private final long validTtlNanos;
+    private final long invalidTtlNanos;
+    private final long hostSuspensionNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Long> suspendedHosts = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, Entry> entries;
+
+    public UrlValidationCache(int maxEntries, Duration validTtl, Duration invalidTtl, Duration hostSuspension) {
+        this.maxEntries = maxEntries;
+        this.validTtlNanos = validTtl.toNanos();
+        this.invalidTtlNanos = invalidTtl.toNanos();
+        this.hostSuspensionNanos = hostSuspension.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > UrlValidationCache.this.maxEntries;
+            }
+        };
+    }
+
+    public Optional<Entry> get(String key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (entry.expiresAtNanos() - System.nanoTime() <= 0) {
+                entries.remove(key);
+                return Optional.empty();
+            }
+            return Optional.of(entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(String key, boolean valid, long probeNanos) {
+        long ttl = valid ? validTtlNanos : invalidTtlNanos;
+        Entry entry = new Entry(valid, System.nanoTime() + ttl, probeNanos);
+
+        lock.lock();
+        try {
+            entries.put(key, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isHostSuspended(String host) {
+        if (host == null) {
+            return false;
+        }
+        Long until = suspendedHosts.get(host);
+        if (until == null) {
+            return false;
+        }
+        if (until - System.nanoTime() <= 0) {
+            suspendedHosts.remove(host, until);
+            return false;
+        }
+        return true;
+    }
+
+    public void suspendHost(String host) {
+        if (host != null) {
+            suspendedHosts.put(host, System.nanoTime() + hostSuspensionNanos);
+        }
+    }
+
+    public void clearHost(String host) {
+        if (host != null) {
+            suspendedHosts.remove(host);
+        }
+    }
+
+    /**
+     * Cache key: scheme and host lower-cased, default port and fragment dropped.
+     */
+    public static String normalize(String url) {
+        String trimmed = url.trim();
+        try {
+            URI uri = URI.create(trimmed);
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                return trimmed;
+            }
+
+            String scheme = uri.getScheme().toLowerCase();
+            int port = uri.getPort();
+            boolean defaultPort = port == -1 || (scheme.equals("http") && port == 80) || (scheme.equals("https") && port == 443);
+
+            StringBuilder normalized = new StringBuilder(scheme).append("://").append(uri.getHost().toLowerCase());
+            if (!defaultPort) {
+                normalized.append(':').append(port);
+            }
+            normalized.append(uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath());
+            if (uri.getRawQuery() != null) {
+                normalized.append('?').append(uri.getRawQuery());
+            }
+            return normalized.toString();
+        } catch (IllegalArgumentException e) {
+            return trimmed;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.workoutgensvc.core.balancer;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Builder
+@Getter
+public class BalancerSettings {
+    // Consecutive upstream failures that take an endpoint out of rotation
+    @Builder.Default
+    private int ejectionFailures = 3;
+    // Shortest time an ejected endpoint stays out; it returns on the first passing health probe after that
+    @Builder.Default
+    private Duration ejectionDuration = Duration.ofSeconds(30);
+
+    // Health probe: GET on this path; any answer below 500 counts as alive
+    @Builder.Default
+    private String healthPath = "/";
+    @Builder.Default
+    private Duration healthTimeout = Duration.ofSeconds(2);
+
+    // Weight of the newest sample in each endpoint's moving latency average
+    @Builder.Default
+    private double latencyDecay = 0.3;
+}
@@ -0,0 +1,107 @@
+package com.workoutgensvc.core.balancer;
+
+import com.workoutgensvc.core.balancer.enums.EndpointState;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One chat2api instance and what the balancer knows about it: calls in flight, a moving average of
+ * its latency, and whether it is in rotation.
+ */
+public class Chat2ApiEndpoint {
+    // Floor on the latency estimate, so an endpoint without samples still weighs its outstanding calls
+    private static final long MIN_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Getter
+    private final String baseUrl;
+    private final Timer latency;
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private double latencyEwmaNanos;
+    private int consecutiveFailures;
+    // Written under the lock, read without it by isHealthy() and getState()
+    @Getter
+    private volatile EndpointState state = EndpointState.HEALTHY;
+    private long ejectedUntil;
+
+    Chat2ApiEndpoint(String baseUrl, Timer latency) {
+        this.baseUrl = baseUrl;
+        this.latency = latency;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public synchronized double getLatencyEwmaMillis() {
+        return latencyEwmaNanos / 1_000_000;
+    }
+
+    public boolean isHealthy() {
+        return state == EndpointState.HEALTHY;
+    }
+
+    /**
+     * Expected wait for one more call: the calls queued on this endpoint, including the new one, times
+     * its average latency.
+     */
+    synchronized double score() {
+        return (outstanding.get() + 1) * Math.max(latencyEwmaNanos, MIN_LATENCY_NANOS);
+    }
+
+    void begin() {
+        outstanding.incrementAndGet();
+    }
+
+    synchronized void onSuccess(long latencyNanos, double decay) {
+        outstanding.decrementAndGet();
+        latency.record(latencyNanos, TimeUnit.NANOSECONDS);
+        latencyEwmaNanos = latencyEwmaNanos == 0 ? latencyNanos : latencyEwmaNanos + decay * (latencyNanos - latencyEwmaNanos);
+        consecutiveFailures = 0;
+    }
+
+    /**
+     * @return true if this failure ejected the endpoint
+     */
+    synchronized boolean onFailure(int ejectionFailures, long now, long ejectionNanos) {
+        outstanding.decrementAndGet();
+        consecutiveFailures++;
+        return consecutiveFailures >= ejectionFailures && eject(now, ejectionNanos);
+    }
+
+    /**
+     * A call that ended without saying anything about the endpoint's health, such as a 400.
+     */
+    void onIgnored() {
+        outstanding.decrementAndGet();
+    }
+
+    /**
+     * @return true if the endpoint was in rotation until now
+     */
+    synchronized boolean eject(long now, long ejectionNanos) {
+        boolean wasHealthy = state == EndpointState.HEALTHY;
+        if (wasHealthy) {
+            ejectedUntil = now + ejectionNanos;
+        }
+        state = EndpointState.EJECTED;
+        return wasHealthy;
+    }
+
+    /**
+     * Puts the endpoint back in rotation after a passing health probe, once its ejection has run.
+     *
+     * @return true if it was readmitted
+     */
+    synchronized boolean readmit(long now) {
+        if (state == EndpointState.HEALTHY || now - ejectedUntil < 0) {
+            return false;
+        }
+        state = EndpointState.HEALTHY;
+        consecutiveFailures = 0;
+        return true;
+    }
+}
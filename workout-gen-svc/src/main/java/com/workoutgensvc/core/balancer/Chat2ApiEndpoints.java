@@ -0,0 +1,172 @@
+package com.workoutgensvc.core.balancer;
+
+import com.workoutgensvc.core.client.UpstreamException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Spreads chat2api calls over one or more instances. Each call goes to the healthy endpoint with the
+ * lowest expected wait, its outstanding calls times its average latency, so a slow or busy instance
+ * gets less traffic; ties go round-robin. {@code ejectionFailures} upstream failures in a row take an
+ * endpoint out of rotation for at least {@code ejectionDuration}, as does a failed health probe. An
+ * ejected endpoint returns on the first passing probe after that. When every endpoint is ejected,
+ * calls are spread over all of them rather than refused, and the circuit breaker decides.
+ */
+@Slf4j
+public class Chat2ApiEndpoints {
+    private final BalancerSettings settings;
+    private final List<Chat2ApiEndpoint> endpoints = new ArrayList<>();
+    private final Map<String, Counter> ejections = new HashMap<>();
+    private final AtomicInteger nextStart = new AtomicInteger();
+    private final HttpClient healthClient;
+    private final LongSupplier clock;
+
+    public Chat2ApiEndpoints(List<String> baseUrls, BalancerSettings settings, MeterRegistry meterRegistry) {
+        this(baseUrls, settings, meterRegistry, System::nanoTime);
+    }
+
+    Chat2ApiEndpoints(List<String> baseUrls, BalancerSettings settings, MeterRegistry meterRegistry, LongSupplier clock) {
+        if (baseUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one chat2api endpoint is required");
+        }
+        this.settings = settings;
+        this.clock = clock;
+        this.healthClient = HttpClient.newBuilder()
+                .connectTimeout(settings.getHealthTimeout())
+                .build();
+
+        for (String baseUrl : baseUrls) {
+            Timer latency = Timer.builder("ai.upstream.endpoint.latency").tag("endpoint", baseUrl)
+                    .description("chat2api call latency per upstream instance")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            Chat2ApiEndpoint endpoint = new Chat2ApiEndpoint(baseUrl, latency);
+            endpoints.add(endpoint);
+
+            Gauge.builder("ai.upstream.endpoint.healthy", endpoint, e -> e.isHealthy() ? 1 : 0).tag("endpoint", baseUrl)
+                    .description("1 while the chat2api instance is in rotation, 0 while it is ejected").register(meterRegistry);
+            Gauge.builder("ai.upstream.endpoint.outstanding", endpoint, Chat2ApiEndpoint::getOutstanding).tag("endpoint", baseUrl)
+                    .description("chat2api calls in flight per upstream instance").register(meterRegistry);
+            ejections.put(baseUrl, Counter.builder("ai.upstream.endpoint.ejections").tag("endpoint", baseUrl)
+                    .description("Times the chat2api instance was taken out of rotation").register(meterRegistry));
+        }
+        log.info("Balancing Chat2API calls over {}", baseUrls);
+    }
+
+    /**
+     * Parses a comma-separated {@code chat2api.base-url}, dropping blanks and trailing slashes.
+     */
+    public static List<String> parse(String baseUrls) {
+        return Arrays.stream(baseUrls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(url -> url.endsWith("/") ? url.substring(0, url.length() - 1) : url)
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Runs {@code call} against the chosen endpoint's base URL and records how it went. Only upstream
+     * failures of the exchange, reported as an {@link UpstreamException}, count towards ejection.
+     * Other failures, such as a 4xx, an unreadable answer or an exception from the consumer of a
+     * streamed answer, do not.
+     */
+    public <T> T call(Function<String, T> call) {
+        Chat2ApiEndpoint endpoint = select();
+        endpoint.begin();
+        long start = clock.getAsLong();
+        try {
+            T result = call.apply(endpoint.getBaseUrl());
+            endpoint.onSuccess(clock.getAsLong() - start, settings.getLatencyDecay());
+            return result;
+        } catch (RuntimeException | Error e) {
+            if (!UpstreamException.isUpstreamFailure(e)) {
+                endpoint.onIgnored();
+            } else if (endpoint.onFailure(settings.getEjectionFailures(), clock.getAsLong(), settings.getEjectionDuration().toNanos())) {
+                onEjected(endpoint, settings.getEjectionFailures() + " consecutive failures");
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Probes every endpoint, ejecting those that do not answer and readmitting those whose ejection
+     * has run.
+     */
+    @Scheduled(fixedDelayString = "${chat2api.health.interval:10s}", initialDelayString = "${chat2api.health.interval:10s}")
+    public void checkHealth() {
+        for (Chat2ApiEndpoint endpoint : endpoints) {
+            String failure = probe(endpoint);
+            if (failure != null) {
+                if (endpoint.eject(clock.getAsLong(), settings.getEjectionDuration().toNanos())) {
+                    onEjected(endpoint, "health probe failed: " + failure);
+                }
+            } else if (endpoint.readmit(clock.getAsLong())) {
+                log.info("Chat2API endpoint {} passed its health probe; back in rotation", endpoint.getBaseUrl());
+            }
+        }
+    }
+
+    public List<Chat2ApiEndpoint> getEndpoints() {
+        return List.copyOf(endpoints);
+    }
+
+    Chat2ApiEndpoint select() {
+        boolean anyHealthy = endpoints.stream().anyMatch(Chat2ApiEndpoint::isHealthy);
+        int size = endpoints.size();
+        int start = Math.floorMod(nextStart.getAndIncrement(), size);
+
+        Chat2ApiEndpoint best = null;
+        double bestScore = Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Chat2ApiEndpoint endpoint = endpoints.get((start + i) % size);
+            if (anyHealthy && !endpoint.isHealthy()) {
+                continue;
+            }
+            double score = endpoint.score();
+            if (score < bestScore) {
+                best = endpoint;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private String probe(Chat2ApiEndpoint endpoint) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(endpoint.getBaseUrl() + settings.getHealthPath()))
+                    .timeout(settings.getHealthTimeout())
+                    .GET()
+                    .build();
+            int status = healthClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            return status < 500 ? null : "status " + status;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrupted";
+        } catch (Exception e) {
+            return e.getClass().getSimpleName() + (e.getMessage() == null ? "" : ": " + e.getMessage());
+        }
+    }
+
+    private void onEjected(Chat2ApiEndpoint endpoint, String reason) {
+        ejections.get(endpoint.getBaseUrl()).increment();
+        log.warn("Chat2API endpoint {} ejected ({}); out of rotation for at least {}", endpoint.getBaseUrl(), reason, settings.getEjectionDuration());
+    }
+}
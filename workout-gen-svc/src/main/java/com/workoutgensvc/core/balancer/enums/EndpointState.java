@@ -0,0 +1,8 @@
+package com.workoutgensvc.core.balancer.enums;
+
+public enum EndpointState {
+    // Takes traffic
+    HEALTHY,
+    // Taken out of rotation after repeated failures or a failed health probe
+    EJECTED
+}
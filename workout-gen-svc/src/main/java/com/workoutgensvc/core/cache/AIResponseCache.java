@@ -0,0 +1,285 @@
+package com.workoutgensvc.core.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.workoutgensvc.core.cache.enums.EvictionPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Completed chat responses keyed by a hash of everything that shapes the answer: model, prompt and
+ * sampling parameters. The form-driven endpoints have a small input space, so identical requests
+ * are common and can skip the LLM entirely.
+ */
+@Slf4j
+public class AIResponseCache implements AutoCloseable {
+    private static final Type SNAPSHOT_TYPE = new TypeToken<List<PersistedEntry>>() {
+    }.getType();
+
+    private final AIResponseCacheSettings settings;
+    private final Gson gson = new Gson();
+    private final ReentrantLock lock = new ReentrantLock();
+    // Access order doubles as the LRU queue and as the tie-breaker between equally used LFU entries
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private boolean dirty;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+
+    public AIResponseCache(AIResponseCacheSettings settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+
+        this.hits = Counter.builder("ai.response.cache").tag("result", "hit")
+                .description("Chat completions served from the response cache").register(meterRegistry);
+        this.misses = Counter.builder("ai.response.cache").tag("result", "miss")
+                .description("Chat completions that had to go to the LLM").register(meterRegistry);
+        this.sizeEvictions = Counter.builder("ai.response.cache.evictions").tag("cause", "size")
+                .description("Entries dropped to stay within the size bound").register(meterRegistry);
+        this.expiredEvictions = Counter.builder("ai.response.cache.evictions").tag("cause", "expired")
+                .description("Entries dropped because their TTL elapsed").register(meterRegistry);
+        Gauge.builder("ai.response.cache.size", this, AIResponseCache::size).register(meterRegistry);
+
+        if (settings.isEnabled()) {
+            load();
+        }
+    }
+
+    public static String key(String model, String prompt, int maxTokens, double temperature) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : List.of(model, String.valueOf(maxTokens), String.valueOf(temperature), prompt)) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+                // Separator keeps ("ab", "c") and ("a", "bc") apart
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public Optional<String> get(String key) {
+        if (!settings.isEnabled()) {
+            return Optional.empty();
+        }
+
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return Optional.empty();
+            }
+            if (entry.isExpired(System.currentTimeMillis())) {
+                entries.remove(key);
+                dirty = true;
+                expiredEvictions.increment();
+                misses.increment();
+                return Optional.empty();
+            }
+
+            entry.hits++;
+            hits.increment();
+            return Optional.of(entry.value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(String key, String value) {
+        if (!settings.isEnabled() || value == null) {
+            return;
+        }
+
+        long expiresAt = settings.getTtl().isZero() ? 0 : System.currentTimeMillis() + settings.getTtl().toMillis();
+
+        lock.lock();
+        try {
+            entries.put(key, new Entry(value, expiresAt, 0));
+            dirty = true;
+            while (entries.size() > settings.getMaxEntries()) {
+                evictOne(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(String key) {
+        lock.lock();
+        try {
+            if (entries.remove(key) != null) {
+                dirty = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops one entry other than {@code keep}. Under LFU a fresh entry has no hits yet and would
+     * otherwise always be its own victim.
+     */
+    private void evictOne(String keep) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        if (settings.getEvictionPolicy() == EvictionPolicy.LRU) {
+            iterator.next();
+            iterator.remove();
+            sizeEvictions.increment();
+            return;
+        }
+
+        String victim = null;
+        long fewestHits = Long.MAX_VALUE;
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> candidate = iterator.next();
+            if (!candidate.getKey().equals(keep) && candidate.getValue().hits < fewestHits) {
+                victim = candidate.getKey();
+                fewestHits = candidate.getValue().hits;
+            }
+        }
+        entries.remove(victim);
+        sizeEvictions.increment();
+    }
+
+    /**
+     * Writes the cache to the persistence file if anything changed since the last flush. The file is
+     * replaced atomically, so a crash mid-write leaves the previous snapshot intact.
+     */
+    @Scheduled(fixedDelayString = "${ai.response-cache.flush-interval:5m}")
+    public void flush() {
+        Path path = settings.getPersistencePath();
+        if (!settings.isEnabled() || path == null) {
+            return;
+        }
+
+        List<PersistedEntry> snapshot = new ArrayList<>();
+        lock.lock();
+        try {
+            if (!dirty) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            entries.forEach((key, entry) -> {
+                if (!entry.isExpired(now)) {
+                    snapshot.add(new PersistedEntry(key, entry.value, entry.expiresAt, entry.hits));
+                }
+            });
+            dirty = false;
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            Path absolute = path.toAbsolutePath();
+            if (absolute.getParent() != null) {
+                Files.createDirectories(absolute.getParent());
+            }
+            Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                gson.toJson(snapshot, SNAPSHOT_TYPE, writer);
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Persisted {} AI responses to {}", snapshot.size(), absolute);
+        } catch (IOException e) {
+            log.warn("Could not persist AI response cache to {}: {}", path, e.getMessage());
+            lock.lock();
+            try {
+                dirty = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private void load() {
+        Path path = settings.getPersistencePath();
+        if (path == null || !Files.isRegularFile(path)) {
+            return;
+        }
+
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            List<PersistedEntry> snapshot = gson.fromJson(reader, SNAPSHOT_TYPE);
+            if (snapshot == null) {
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            lock.lock();
+            try {
+                for (PersistedEntry persisted : snapshot) {
+                    Entry entry = new Entry(persisted.value, persisted.expiresAt, persisted.hits);
+                    if (persisted.key != null && persisted.value != null && !entry.isExpired(now)) {
+                        entries.put(persisted.key, entry);
+                    }
+                }
+                while (entries.size() > settings.getMaxEntries()) {
+                    evictOne(null);
+                }
+            } finally {
+                lock.unlock();
+            }
+            log.info("Loaded {} cached AI responses from {}", entries.size(), path);
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable AI response cache file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static final class Entry {
+        private final String value;
+        // Epoch millis, wall clock so the deadline survives a restart; 0 means no expiry
+        private final long expiresAt;
+        private long hits;
+
+        private Entry(String value, long expiresAt, long hits) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.hits = hits;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt != 0 && expiresAt <= now;
+        }
+    }
+
+    private record PersistedEntry(String key, String value, long expiresAt, long hits) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.workoutgensvc.core.cache;
+
+import com.workoutgensvc.core.cache.enums.EvictionPolicy;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Builder
+@Getter
+public class AIResponseCacheSettings {
+    @Builder.Default
+    private boolean enabled = true;
+    @Builder.Default
+    private int maxEntries = 500;
+    @Builder.Default
+    private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+    // Zero keeps entries until they are evicted for space
+    @Builder.Default
+    private Duration ttl = Duration.ZERO;
+    // Null keeps the cache in memory only
+    private Path persistencePath;
+}
@@ -0,0 +1,6 @@
+package com.workoutgensvc.core.cache.enums;
+
+public enum EvictionPolicy {
+    LRU,
+    LFU
+}
@@ -0,0 +1,133 @@
+package com.workoutgensvc.core.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class Chat2ApiTransport implements AutoCloseable {
+    public enum Type {
+        // New HttpURLConnection per call, no pooling
+        SIMPLE,
+        // Apache HttpClient 5 with a keep-alive connection pool
+        POOLED,
+        // java.net.http.HttpClient, negotiates HTTP/2 when the upstream supports it
+        JDK
+    }
+
+    @Getter
+    private final Type type;
+    @Getter
+    private final ClientHttpRequestFactory requestFactory;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+
+    private Chat2ApiTransport(Type type, ClientHttpRequestFactory requestFactory, PoolingHttpClientConnectionManager connectionManager, CloseableHttpClient httpClient) {
+        this.type = type;
+        this.requestFactory = requestFactory;
+        this.connectionManager = connectionManager;
+        this.httpClient = httpClient;
+    }
+
+    public static Chat2ApiTransport create(Chat2ApiTransportSettings settings) {
+        return switch (settings.getType()) {
+            case SIMPLE -> simple(settings);
+            case POOLED -> pooled(settings);
+            case JDK -> jdk(settings);
+        };
+    }
+
+    private static Chat2ApiTransport simple(Chat2ApiTransportSettings settings) {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(settings.getConnectTimeout());
+        factory.setReadTimeout(settings.getReadTimeout());
+
+        return new Chat2ApiTransport(Type.SIMPLE, factory, null, null);
+    }
+
+    private static Chat2ApiTransport pooled(Chat2ApiTransportSettings settings) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(settings.getConnectTimeout()))
+                .setSocketTimeout(Timeout.of(settings.getReadTimeout()))
+                .setTimeToLive(TimeValue.of(settings.getTimeToLive()))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build();
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(settings.getMaxConnectionsPerRoute())
+                .setMaxConnTotal(settings.getMaxConnectionsTotal())
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+
+        // The default keep-alive strategy honours the server's Keep-Alive header and falls back to this value
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(settings.getConnectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(settings.getReadTimeout()))
+                .setDefaultKeepAlive(settings.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(settings.getIdleEviction()))
+                .build();
+
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        factory.setConnectionRequestTimeout(settings.getConnectionRequestTimeout());
+        factory.setReadTimeout(settings.getReadTimeout());
+
+        return new Chat2ApiTransport(Type.POOLED, factory, connectionManager, httpClient);
+    }
+
+    private static Chat2ApiTransport jdk(Chat2ApiTransportSettings settings) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(settings.getConnectTimeout())
+                .build();
+
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(settings.getReadTimeout());
+
+        return new Chat2ApiTransport(Type.JDK, factory, null, null);
+    }
+
+    public RestTemplate restTemplate() {
+        return new RestTemplate(requestFactory);
+    }
+
+    public void bindMetrics(MeterRegistry meterRegistry) {
+        if (connectionManager != null) {
+            new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "chat2api").bindTo(meterRegistry);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (httpClient != null) {
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                log.debug("Could not close Chat2API http client: {}", e.getMessage());
+            }
+        }
+    }
+}
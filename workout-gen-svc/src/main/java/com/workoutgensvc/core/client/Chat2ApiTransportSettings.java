@@ -0,0 +1,32 @@
+package com.workoutgensvc.core.client;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Builder
+@Getter
+public class Chat2ApiTransportSettings {
+    @Builder.Default
+    private Chat2ApiTransport.Type type = Chat2ApiTransport.Type.POOLED;
+
+    @Builder.Default
+    private Duration connectTimeout = Duration.ofSeconds(10);
+    @Builder.Default
+    private Duration readTimeout = Duration.ofSeconds(60);
+    // Upper bound on waiting for a pooled connection, so a saturated pool fails fast instead of queueing forever
+    @Builder.Default
+    private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+
+    @Builder.Default
+    private int maxConnectionsPerRoute = 20;
+    @Builder.Default
+    private int maxConnectionsTotal = 50;
+    @Builder.Default
+    private Duration idleEviction = Duration.ofSeconds(30);
+    @Builder.Default
+    private Duration keepAlive = Duration.ofSeconds(60);
+    @Builder.Default
+    private Duration timeToLive = Duration.ofMinutes(5);
+}
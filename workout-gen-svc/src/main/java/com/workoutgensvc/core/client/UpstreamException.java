@@ -0,0 +1,28 @@
+package com.workoutgensvc.core.client;
+
+import com.workoutgensvc.core.retry.RetryPolicy;
+
+/**
+ * A failure of the HTTP exchange with a chat2api instance itself: it could not be reached, the
+ * connection broke while the answer was read, or it answered with an error status. Only these say
+ * anything about upstream health; an exception thrown by whoever consumes a streamed answer, such as
+ * a client that closed its SSE stream, does not.
+ */
+public class UpstreamException extends RuntimeException {
+    public UpstreamException(String baseUrl, Throwable cause) {
+        super("Chat2API exchange with " + baseUrl + " failed: " + cause.getMessage(), cause);
+    }
+
+    /**
+     * True if {@code failure} came from the exchange with chat2api and its cause is an upstream one:
+     * refused connections, timeouts, broken connections, 429 and 5xx. A 4xx is the request's fault.
+     */
+    public static boolean isUpstreamFailure(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof UpstreamException) {
+                return RetryPolicy.classify(t).isUpstream();
+            }
+        }
+        return false;
+    }
+}
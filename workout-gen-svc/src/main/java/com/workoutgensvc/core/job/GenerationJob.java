@@ -0,0 +1,55 @@
+package com.workoutgensvc.core.job;
+
+import com.workoutgensvc.core.job.enums.JobStatus;
+import com.workoutgensvc.core.job.enums.JobType;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+@Getter
+public class GenerationJob {
+    private final UUID id = UUID.randomUUID();
+    private final JobType type;
+    private final Instant submittedAt = Instant.now();
+
+    private volatile JobStatus status = JobStatus.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant completedAt;
+    private volatile Object result;
+    private volatile String error;
+
+    @Getter(AccessLevel.NONE)
+    private final CompletableFuture<GenerationJob> completion = new CompletableFuture<>();
+
+    GenerationJob(JobType type) {
+        this.type = type;
+    }
+
+    void start() {
+        startedAt = Instant.now();
+        status = JobStatus.RUNNING;
+    }
+
+    void succeed(Object result) {
+        this.result = result;
+        finish(JobStatus.SUCCEEDED);
+    }
+
+    void fail(String error) {
+        this.error = error;
+        finish(JobStatus.FAILED);
+    }
+
+    private void finish(JobStatus status) {
+        completedAt = Instant.now();
+        this.status = status;
+        completion.complete(this);
+    }
+
+    CompletableFuture<GenerationJob> completion() {
+        return completion;
+    }
+}
@@ -0,0 +1,120 @@
+package com.workoutgensvc.core.job;
+
+import com.workoutgensvc.core.job.enums.JobType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Slf4j
+@Service
+public class GenerationJobService {
+    private final ThreadPoolTaskExecutor aiJobExecutor;
+    private final MeterRegistry meterRegistry;
+    private final Duration retention;
+    private final Map<UUID, GenerationJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public GenerationJobService(@Qualifier("aiJobExecutor") ThreadPoolTaskExecutor aiJobExecutor, MeterRegistry meterRegistry, @Value("${ai.jobs.retention:15m}") Duration retention) {
+        this.aiJobExecutor = aiJobExecutor;
+        this.meterRegistry = meterRegistry;
+        this.retention = retention;
+
+        Gauge.builder("ai.jobs.queue.depth", aiJobExecutor, ThreadPoolTaskExecutor::getQueueSize)
+                .description("Generation jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("ai.jobs.active", aiJobExecutor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Generation jobs currently running")
+                .register(meterRegistry);
+        Gauge.builder("ai.jobs.tracked", jobs, Map::size)
+                .description("Jobs kept in memory, including finished ones awaiting retrieval")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the task on the bounded job executor and returns immediately. Throws
+     * {@link org.springframework.core.task.TaskRejectedException} when the queue is full.
+     */
+    public GenerationJob submit(JobType type, Supplier<Object> task) {
+        GenerationJob job = new GenerationJob(type);
+        jobs.put(job.getId(), job);
+
+        try {
+            aiJobExecutor.execute(() -> run(job, task));
+        } catch (RuntimeException e) {
+            jobs.remove(job.getId());
+            meterRegistry.counter("ai.jobs.rejected", "type", type.name()).increment();
+            throw e;
+        }
+
+        log.info("Queued {} job {}", type, job.getId());
+        return job;
+    }
+
+    private void run(GenerationJob job, Supplier<Object> task) {
+        job.start();
+        Timer.builder("ai.jobs.wait")
+                .description("Time a job spent queued before a worker picked it up")
+                .tag("type", job.getType().name())
+                .register(meterRegistry)
+                .record(Duration.between(job.getSubmittedAt(), job.getStartedAt()));
+
+        try {
+            job.succeed(task.get());
+        } catch (Throwable t) {
+            // Errors too: a job left RUNNING would keep long-polling clients waiting until it is purged
+            log.error("{} job {} failed", job.getType(), job.getId(), t);
+            job.fail(t.getMessage() != null ? t.getMessage() : t.getClass().getName());
+        }
+
+        Timer.builder("ai.jobs.latency")
+                .description("Time from submission to completion")
+                .tag("type", job.getType().name())
+                .tag("status", job.getStatus().name())
+                .register(meterRegistry)
+                .record(Duration.between(job.getSubmittedAt(), job.getCompletedAt()));
+    }
+
+    public Optional<GenerationJob> find(UUID id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * Long-poll: completes with the job once it finishes, or in whatever state it is in after
+     * {@code timeout}. Nothing blocks while it waits, so a web request can hand the future back to
+     * the container and free its thread. Empty if the job is unknown.
+     */
+    public CompletableFuture<Optional<GenerationJob>> await(UUID id, Duration timeout) {
+        GenerationJob job = jobs.get(id);
+        if (job == null || job.getStatus().isFinished() || timeout.isZero() || timeout.isNegative()) {
+            return CompletableFuture.completedFuture(Optional.ofNullable(job));
+        }
+
+        // A copy, so the timeout does not complete the job's own future
+        return job.completion().copy()
+                .completeOnTimeout(job, timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(Optional::of);
+    }
+
+    @Scheduled(fixedDelayString = "${ai.jobs.cleanup-interval:60s}")
+    public void purgeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.getStatus().isFinished() && job.getCompletedAt().isBefore(cutoff));
+    }
+}
@@ -0,0 +1,45 @@
+package com.workoutgensvc.core.job.dto;
+
+import com.workoutgensvc.core.job.GenerationJob;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class GenerationJobDto {
+    @NotNull
+    private UUID id;
+    @NotNull
+    @NotBlank
+    private String type;
+    @NotNull
+    @NotBlank
+    private String status;
+
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant completedAt;
+
+    private Object result;
+    private String error;
+
+    public static GenerationJobDto from(GenerationJob job) {
+        return GenerationJobDto.builder()
+                .id(job.getId())
+                .type(job.getType().toString())
+                .status(job.getStatus().toString())
+                .submittedAt(job.getSubmittedAt())
+                .startedAt(job.getStartedAt())
+                .completedAt(job.getCompletedAt())
+                .result(job.getResult())
+                .error(job.getError())
+                .build();
+    }
+}
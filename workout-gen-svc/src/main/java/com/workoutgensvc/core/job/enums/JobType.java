@@ -0,0 +1,8 @@
+package com.workoutgensvc.core.job.enums;
+
+public enum JobType {
+    EXERCISE,
+    WORKOUT,
+    PLAN,
+    CALORIES
+}
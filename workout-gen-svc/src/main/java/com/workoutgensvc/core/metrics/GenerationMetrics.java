@@ -0,0 +1,102 @@
+package com.workoutgensvc.core.metrics;
+
+import com.workoutgensvc.core.metrics.enums.DroppedElement;
+import com.workoutgensvc.core.metrics.enums.Pipeline;
+import com.workoutgensvc.core.metrics.enums.Stage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the generation pipeline. Each stage of an exercise, workout or plan generation has
+ * its own timer, {@code ai.pipeline.stage}, tagged by pipeline and stage. Prompt and response sizes
+ * are recorded in characters. Answers that do not parse and elements dropped from a parsed answer
+ * are counted. Timers and summaries publish a percentile histogram plus the median, p95 and p99.
+ */
+@Component
+public class GenerationMetrics {
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final Map<Pipeline, Map<Stage, Timer>> stages = new EnumMap<>(Pipeline.class);
+    private final Map<Pipeline, DistributionSummary> promptSizes = new EnumMap<>(Pipeline.class);
+    private final Map<Pipeline, DistributionSummary> responseSizes = new EnumMap<>(Pipeline.class);
+    private final Map<Pipeline, Counter> invalidResponses = new EnumMap<>(Pipeline.class);
+    private final Map<DroppedElement, Counter> dropped = new EnumMap<>(DroppedElement.class);
+
+    public GenerationMetrics(MeterRegistry meterRegistry) {
+        for (Pipeline pipeline : Pipeline.values()) {
+            String pipelineTag = tag(pipeline);
+            Map<Stage, Timer> timers = new EnumMap<>(Stage.class);
+            for (Stage stage : Stage.values()) {
+                timers.put(stage, Timer.builder("ai.pipeline.stage").tag("pipeline", pipelineTag).tag("stage", tag(stage))
+                        .description("Time spent in one stage of a generation")
+                        .publishPercentiles(PERCENTILES)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+            }
+            stages.put(pipeline, timers);
+
+            promptSizes.put(pipeline, DistributionSummary.builder("ai.prompt.size").tag("pipeline", pipelineTag).baseUnit("characters")
+                    .description("Length of prompts sent to the LLM")
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            responseSizes.put(pipeline, DistributionSummary.builder("ai.response.size").tag("pipeline", pipelineTag).baseUnit("characters")
+                    .description("Length of LLM answers")
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            invalidResponses.put(pipeline, Counter.builder("ai.pipeline.invalid-responses").tag("pipeline", pipelineTag)
+                    .description("LLM answers that could not be parsed").register(meterRegistry));
+        }
+        for (DroppedElement element : DroppedElement.values()) {
+            dropped.put(element, Counter.builder("ai.pipeline.dropped").tag("element", tag(element))
+                    .description("Elements of a parsed LLM answer skipped because they could not be used").register(meterRegistry));
+        }
+    }
+
+    public <T> T time(Pipeline pipeline, Stage stage, Supplier<T> work) {
+        return stages.get(pipeline).get(stage).record(work);
+    }
+
+    public void time(Pipeline pipeline, Stage stage, Runnable work) {
+        stages.get(pipeline).get(stage).record(work);
+    }
+
+    /**
+     * Times a {@link Stage#PARSE} and counts the answer as invalid if parsing throws.
+     */
+    public <T> T parse(Pipeline pipeline, Supplier<T> parse) {
+        try {
+            return time(pipeline, Stage.PARSE, parse);
+        } catch (RuntimeException e) {
+            invalidResponses.get(pipeline).increment();
+            throw e;
+        }
+    }
+
+    public void recordPrompt(Pipeline pipeline, String prompt) {
+        promptSizes.get(pipeline).record(prompt.length());
+    }
+
+    public void recordResponse(Pipeline pipeline, String response) {
+        if (response != null) {
+            responseSizes.get(pipeline).record(response.length());
+        }
+    }
+
+    public void dropped(DroppedElement element) {
+        dropped.get(element).increment();
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
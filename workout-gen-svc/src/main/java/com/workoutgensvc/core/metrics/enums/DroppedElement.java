@@ -0,0 +1,9 @@
+package com.workoutgensvc.core.metrics.enums;
+
+public enum DroppedElement {
+    MUSCLE_TARGET,
+    WORKOUT_EXERCISE,
+    PLAN_DAY,
+    // A workout name in a plan day that matches no stored workout
+    PLAN_WORKOUT
+}
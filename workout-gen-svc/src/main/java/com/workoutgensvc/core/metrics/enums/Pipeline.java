@@ -0,0 +1,9 @@
+package com.workoutgensvc.core.metrics.enums;
+
+public enum Pipeline {
+    EXERCISE,
+    WORKOUT,
+    PLAN,
+    // Naming a plan laid out by the local scheduler
+    PLAN_DESCRIPTION
+}
@@ -0,0 +1,16 @@
+package com.workoutgensvc.core.metrics.enums;
+
+public enum Stage {
+    // Formatting the prompt, including the catalogue of existing names
+    PROMPT,
+    // The chat2api completion: cache lookup, retries and, for streams, the whole stream
+    UPSTREAM,
+    // Stripping code fences and parsing the answer as JSON
+    PARSE,
+    // Looking up the exercises or workouts the answer names
+    RESOLVE,
+    // Building entities from the parsed answer
+    MATERIALIZE,
+    // Saving the entity tree and loading what the response needs
+    PERSIST
+}
@@ -0,0 +1,14 @@
+package com.workoutgensvc.core.resilience;
+
+import com.workoutgensvc.core.AIUnavailableException;
+
+/**
+ * The call to chat2api was refused before it was made: the circuit is open, or the service already
+ * has as many completions in flight as upstream can take. Callers fall back as for any other
+ * unavailability, only without waiting on a timeout first.
+ */
+public class AIRejectedException extends AIUnavailableException {
+    public AIRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,153 @@
+package com.workoutgensvc.core.resilience;
+
+import com.workoutgensvc.core.metrics.enums.Pipeline;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that follows upstream latency with additive increase, multiplicative decrease.
+ * A call that completes within {@code latencyTolerance} times the running average latency of its
+ * pipeline raises the limit by 1/limit, so roughly one step per limit's worth of calls. A slower call,
+ * or a failed one, multiplies it by {@code backoffRatio}. Averages are kept per pipeline, since a plan
+ * takes many times as long as an exercise, and only calls that started after the last back-off can
+ * cause another, so one slow spell costs one step rather than one per call that was in flight.
+ * <p>
+ * A caller over the limit waits up to the given time for a slot and is then refused, so load is shed
+ * soon after chat2api starts to slow down without failing calls that would have fit a moment later.
+ * <p>
+ * A {@link ReentrantLock} rather than {@code synchronized}, so that waiting virtual threads do not pin
+ * their carrier threads.
+ */
+public class AdaptiveLimiter {
+    // Samples the running average latency is smoothed over
+    private static final double AVERAGE_WINDOW = 50;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final double backoffRatio;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+    private final Map<Pipeline, Double> averageNanos = new EnumMap<>(Pipeline.class);
+    private double limit;
+    private int inFlight;
+    private long lastBackoffNanos = Long.MIN_VALUE;
+
+    public AdaptiveLimiter(ResilienceSettings settings) {
+        this.minLimit = settings.getMinLimit();
+        this.maxLimit = settings.getMaxConcurrent();
+        this.latencyTolerance = settings.getLatencyTolerance();
+        this.backoffRatio = settings.getBackoffRatio();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, settings.getInitialLimit()));
+    }
+
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) {
+                return false;
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a slot, waiting up to {@code maxWaitNanos} for one to free up.
+     */
+    public boolean tryAcquire(long maxWaitNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            long remainingNanos = maxWaitNanos;
+            while (inFlight >= (int) limit) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = slotFreed.awaitNanos(remainingNanos);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param startNanos when the call started, and {@code endNanos} when it completed, in
+     *                   {@link System#nanoTime()} terms
+     */
+    public void onSuccess(Pipeline pipeline, long startNanos, long endNanos) {
+        lock.lock();
+        try {
+            long latencyNanos = endNanos - startNanos;
+            double average = averageNanos.getOrDefault(pipeline, (double) latencyNanos);
+            if (latencyNanos > average * latencyTolerance) {
+                backOff(startNanos, endNanos);
+            } else {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            averageNanos.put(pipeline, average + (latencyNanos - average) / AVERAGE_WINDOW);
+            release();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onDropped(long startNanos, long endNanos) {
+        lock.lock();
+        try {
+            backOff(startNanos, endNanos);
+            release();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onIgnored() {
+        lock.lock();
+        try {
+            release();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        inFlight--;
+        // Waiters recheck against the limit, which may have just grown or shrunk
+        slotFreed.signalAll();
+    }
+
+    private void backOff(long startNanos, long endNanos) {
+        // A call that was already in flight at the last back-off saw the same overload
+        if (lastBackoffNanos != Long.MIN_VALUE && startNanos - lastBackoffNanos < 0) {
+            return;
+        }
+        limit = Math.max(minLimit, limit * backoffRatio);
+        lastBackoffNanos = endNanos;
+    }
+}
@@ -0,0 +1,149 @@
+package com.workoutgensvc.core.resilience;
+
+import com.workoutgensvc.core.resilience.enums.CircuitState;
+
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker. While CLOSED every call goes through and its outcome is recorded in a
+ * ring of the last {@code slidingWindowSize} calls; once enough of them failed the circuit OPENs and
+ * calls are refused outright. After {@code openDuration} it goes HALF_OPEN and lets a few trial calls
+ * through: if they all succeed it closes again, and the first failure reopens it.
+ * <p>
+ * Every permit granted by {@link #tryAcquire()} must be settled with exactly one of
+ * {@link #onSuccess(long)}, {@link #onFailure(long)} or {@link #onIgnored(long)}. A permit is the epoch
+ * of the state it was granted in, bumped on every transition, so a call that started before the
+ * circuit last changed state is never taken for a half-open trial.
+ */
+public class CircuitBreaker {
+    public static final long REFUSED = -1;
+
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+    private final BiConsumer<CircuitState, CircuitState> onTransition;
+
+    // true marks a failed call
+    private final boolean[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private CircuitState state = CircuitState.CLOSED;
+    private long epoch;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(ResilienceSettings settings, BiConsumer<CircuitState, CircuitState> onTransition) {
+        this(settings, onTransition, System::nanoTime);
+    }
+
+    CircuitBreaker(ResilienceSettings settings, BiConsumer<CircuitState, CircuitState> onTransition, LongSupplier nanoClock) {
+        this.failureRateThreshold = settings.getFailureRateThreshold();
+        this.minimumCalls = settings.getMinimumCalls();
+        this.openNanos = settings.getOpenDuration().toNanos();
+        this.halfOpenCalls = settings.getHalfOpenCalls();
+        this.outcomes = new boolean[settings.getSlidingWindowSize()];
+        this.onTransition = onTransition;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return the permit to settle the call with, or {@link #REFUSED}
+     */
+    public synchronized long tryAcquire() {
+        if (state == CircuitState.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openNanos) {
+                return REFUSED;
+            }
+            transitionTo(CircuitState.HALF_OPEN);
+        }
+        if (state == CircuitState.HALF_OPEN) {
+            if (halfOpenInFlight >= halfOpenCalls) {
+                return REFUSED;
+            }
+            halfOpenInFlight++;
+        }
+        return epoch;
+    }
+
+    public synchronized void onSuccess(long permit) {
+        if (state == CircuitState.HALF_OPEN) {
+            if (permit != epoch) {
+                // Started before the circuit opened, so it is not one of the trials
+                return;
+            }
+            halfOpenInFlight--;
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                transitionTo(CircuitState.CLOSED);
+            }
+        } else if (state == CircuitState.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure(long permit) {
+        if (state == CircuitState.HALF_OPEN) {
+            if (permit != epoch) {
+                return;
+            }
+            transitionTo(CircuitState.OPEN);
+        } else if (state == CircuitState.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+                transitionTo(CircuitState.OPEN);
+            }
+        }
+    }
+
+    /**
+     * Settles a permit whose call says nothing about upstream health, e.g. one refused further down.
+     */
+    public synchronized void onIgnored(long permit) {
+        if (state == CircuitState.HALF_OPEN && permit == epoch) {
+            halfOpenInFlight--;
+        }
+    }
+
+    public synchronized CircuitState getState() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void transitionTo(CircuitState newState) {
+        CircuitState previous = state;
+        state = newState;
+        epoch++;
+        switch (newState) {
+            case OPEN -> openedAt = nanoClock.getAsLong();
+            case HALF_OPEN -> {
+                halfOpenInFlight = 0;
+                halfOpenSuccesses = 0;
+            }
+            case CLOSED -> {
+                next = 0;
+                recorded = 0;
+                failures = 0;
+            }
+        }
+        onTransition.accept(previous, newState);
+    }
+}
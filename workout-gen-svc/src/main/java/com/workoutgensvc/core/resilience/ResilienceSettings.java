@@ -0,0 +1,47 @@
+package com.workoutgensvc.core.resilience;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Builder
+@Getter
+public class ResilienceSettings {
+    @Builder.Default
+    private boolean enabled = true;
+
+    // Circuit breaker: opens when this share of the last slidingWindowSize calls failed
+    @Builder.Default
+    private double failureRateThreshold = 0.5;
+    @Builder.Default
+    private int slidingWindowSize = 20;
+    // Fewer calls than this never open the circuit, however many of them failed
+    @Builder.Default
+    private int minimumCalls = 10;
+    @Builder.Default
+    private Duration openDuration = Duration.ofSeconds(30);
+    // Trial calls let through while half-open; all of them must succeed to close again
+    @Builder.Default
+    private int halfOpenCalls = 2;
+
+    // Bulkhead: hard cap on concurrent completions, and how long a caller may wait for a slot
+    @Builder.Default
+    private int maxConcurrent = 16;
+    @Builder.Default
+    private Duration maxWait = Duration.ofSeconds(2);
+
+    // Adaptive limit: starts here and moves between minLimit and maxConcurrent
+    @Builder.Default
+    private int initialLimit = 8;
+    @Builder.Default
+    private int minLimit = 1;
+    // A call slower than this multiple of the average latency counts as a sign of upstream overload
+    @Builder.Default
+    private double latencyTolerance = 2.0;
+    @Builder.Default
+    private double backoffRatio = 0.75;
+    // How long a caller over the limit waits for a slot before it is refused
+    @Builder.Default
+    private Duration limitMaxWait = Duration.ofSeconds(1);
+}
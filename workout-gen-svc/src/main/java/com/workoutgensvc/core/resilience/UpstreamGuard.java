@@ -0,0 +1,147 @@
+package com.workoutgensvc.core.resilience;
+
+import com.workoutgensvc.core.client.UpstreamException;
+import com.workoutgensvc.core.metrics.enums.Pipeline;
+import com.workoutgensvc.core.resilience.enums.CircuitState;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for chat2api calls. A call first needs the {@link CircuitBreaker} to be closed
+ * (or to be one of its half-open trials). It then needs a bulkhead slot, which caps concurrent
+ * completions at {@code maxConcurrent} and waits at most {@code maxWait} for one. Finally it must
+ * fit under the {@link AdaptiveLimiter}'s current limit, waiting at most {@code limitMaxWait}. A
+ * refused call fails with an {@link AIRejectedException}, without waiting on an upstream timeout.
+ */
+@Slf4j
+public class UpstreamGuard {
+    private final ResilienceSettings settings;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final AdaptiveLimiter limiter;
+
+    private final Map<CircuitState, Counter> transitions = new EnumMap<>(CircuitState.class);
+    private final Counter circuitOpenRejections;
+    private final Counter bulkheadFullRejections;
+    private final Counter limitReachedRejections;
+
+    public UpstreamGuard(ResilienceSettings settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.circuitBreaker = new CircuitBreaker(settings, this::onTransition);
+        this.bulkhead = new Semaphore(settings.getMaxConcurrent(), true);
+        this.limiter = new AdaptiveLimiter(settings);
+
+        for (CircuitState state : CircuitState.values()) {
+            String tag = state.name().toLowerCase(Locale.ROOT);
+            transitions.put(state, Counter.builder("ai.circuit.transitions").tag("to", tag)
+                    .description("Circuit breaker state changes around chat2api").register(meterRegistry));
+            Gauge.builder("ai.circuit.state", circuitBreaker, breaker -> breaker.getState() == state ? 1 : 0).tag("state", tag)
+                    .description("1 for the circuit breaker's current state, 0 for the others").register(meterRegistry);
+        }
+        this.circuitOpenRejections = rejections(meterRegistry, "circuit_open");
+        this.bulkheadFullRejections = rejections(meterRegistry, "bulkhead_full");
+        this.limitReachedRejections = rejections(meterRegistry, "limit_reached");
+        Gauge.builder("ai.upstream.concurrency.limit", limiter, AdaptiveLimiter::getLimit)
+                .description("Current adaptive limit on concurrent chat2api calls").register(meterRegistry);
+        Gauge.builder("ai.upstream.concurrency.in-flight", limiter, AdaptiveLimiter::getInFlight)
+                .description("chat2api calls currently admitted").register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code upstreamCall} if it is admitted. An upstream {@link UpstreamException} anywhere in
+     * the cause chain of what it throws counts as a failure; any other exception, such as one from the
+     * consumer of a streamed answer, releases the call without judging upstream. Either way the
+     * exception is rethrown unchanged.
+     */
+    public <T> T call(Pipeline pipeline, Supplier<T> upstreamCall) {
+        if (!settings.isEnabled()) {
+            return upstreamCall.get();
+        }
+
+        long permit = circuitBreaker.tryAcquire();
+        if (permit == CircuitBreaker.REFUSED) {
+            circuitOpenRejections.increment();
+            throw new AIRejectedException("Chat2API circuit is open; not calling upstream");
+        }
+        if (!acquireBulkhead()) {
+            circuitBreaker.onIgnored(permit);
+            bulkheadFullRejections.increment();
+            throw new AIRejectedException("Chat2API bulkhead is full (" + settings.getMaxConcurrent() + " calls in flight)");
+        }
+        if (!acquireLimit()) {
+            bulkhead.release();
+            circuitBreaker.onIgnored(permit);
+            limitReachedRejections.increment();
+            throw new AIRejectedException("Chat2API concurrency limit reached (" + limiter.getLimit() + ")");
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = upstreamCall.get();
+            limiter.onSuccess(pipeline, start, System.nanoTime());
+            circuitBreaker.onSuccess(permit);
+            return result;
+        } catch (RuntimeException | Error e) {
+            if (UpstreamException.isUpstreamFailure(e)) {
+                limiter.onDropped(start, System.nanoTime());
+                circuitBreaker.onFailure(permit);
+            } else {
+                // A client that went away or a failing consumer says nothing about chat2api
+                limiter.onIgnored();
+                circuitBreaker.onIgnored(permit);
+            }
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public CircuitState getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    public int getLimit() {
+        return limiter.getLimit();
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(settings.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean acquireLimit() {
+        try {
+            return limiter.tryAcquire(settings.getLimitMaxWait().toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void onTransition(CircuitState from, CircuitState to) {
+        transitions.get(to).increment();
+        if (to == CircuitState.OPEN) {
+            log.warn("Chat2API circuit {} -> OPEN; failing fast for {}", from, settings.getOpenDuration());
+        } else {
+            log.info("Chat2API circuit {} -> {}", from, to);
+        }
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("ai.upstream.rejections").tag("reason", reason)
+                .description("chat2api calls refused before reaching upstream").register(meterRegistry);
+    }
+}
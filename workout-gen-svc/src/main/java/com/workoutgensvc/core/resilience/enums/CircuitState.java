@@ -0,0 +1,7 @@
+package com.workoutgensvc.core.resilience.enums;
+
+public enum CircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+}
@@ -0,0 +1,24 @@
+package com.workoutgensvc.core.retry;
+
+import com.workoutgensvc.core.retry.enums.FailureCause;
+import lombok.Getter;
+
+/**
+ * The LLM answered, but the answer cannot be used: it is not JSON, misses required fields, or links
+ * media that does not resolve. Thrown per attempt, and by {@link RetryPolicy} when no attempt
+ * produced a usable answer.
+ */
+@Getter
+public class AIGenerationException extends RuntimeException {
+    private final FailureCause failureCause;
+
+    public AIGenerationException(FailureCause failureCause, String message) {
+        super(message);
+        this.failureCause = failureCause;
+    }
+
+    public AIGenerationException(FailureCause failureCause, String message, Throwable cause) {
+        super(message, cause);
+        this.failureCause = failureCause;
+    }
+}
@@ -0,0 +1,178 @@
+package com.workoutgensvc.core.retry;
+
+import com.google.gson.JsonParseException;
+import com.workoutgensvc.core.resilience.AIRejectedException;
+import com.workoutgensvc.core.retry.enums.FailureCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Retries AI calls by failure cause. Upstream failures (refused connections, timeouts, 429 and 5xx)
+ * are retried after an exponential backoff with full jitter, honouring a 429's Retry-After. Failures
+ * of the answer itself are retried at once, since upstream is healthy and only a new sample is needed.
+ * Anything else fails on the first attempt.
+ * <p>
+ * A request's retries share one time budget, also across nested calls on the same thread: an
+ * exercise whose media fails validation and whose next attempt then meets a 503 still stops retrying
+ * once {@code budget} has passed since its first attempt. When retries run out the last failure is
+ * rethrown unchanged, so callers still see an {@link com.workoutgensvc.core.AIUnavailableException}
+ * for an unreachable upstream.
+ */
+@Slf4j
+public class RetryPolicy {
+    public static final Set<FailureCause> UPSTREAM_FAILURES = EnumSet.of(FailureCause.CONNECTION_REFUSED, FailureCause.TIMEOUT, FailureCause.IO_ERROR, FailureCause.RATE_LIMITED, FailureCause.SERVER_ERROR);
+    public static final Set<FailureCause> ANSWER_FAILURES = EnumSet.of(FailureCause.INVALID_JSON, FailureCause.SCHEMA_FAILURE, FailureCause.INVALID_MEDIA);
+
+    // Deadline of the outermost call running on this thread, in System.nanoTime() terms
+    private static final ThreadLocal<Long> deadline = new ThreadLocal<>();
+
+    private final RetrySettings settings;
+    private final Map<FailureCause, Counter> retries = new EnumMap<>(FailureCause.class);
+    private final Map<FailureCause, Counter> exhausted = new EnumMap<>(FailureCause.class);
+
+    public RetryPolicy(RetrySettings settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        for (FailureCause cause : FailureCause.values()) {
+            String tag = cause.name().toLowerCase(Locale.ROOT);
+            retries.put(cause, Counter.builder("ai.retries").tag("cause", tag)
+                    .description("AI calls attempted again after a failure").register(meterRegistry));
+            exhausted.put(cause, Counter.builder("ai.retry.exhausted").tag("cause", tag)
+                    .description("AI calls that still failed when attempts or the time budget ran out").register(meterRegistry));
+        }
+    }
+
+    /**
+     * Runs {@code call}, retrying upstream failures up to {@code maxAttempts} attempts in all.
+     */
+    public <T> T call(String operation, Supplier<T> call) {
+        return call(operation, UPSTREAM_FAILURES, settings.getMaxAttempts(), call);
+    }
+
+    /**
+     * Runs {@code call}, retrying failures whose cause is in {@code retryOn} until it has been attempted
+     * {@code maxAttempts} times or the request's time budget is spent.
+     */
+    public <T> T call(String operation, Set<FailureCause> retryOn, int maxAttempts, Supplier<T> call) {
+        Long outerDeadline = deadline.get();
+        long ownDeadline = System.nanoTime() + settings.getBudget().toNanos();
+        long until = outerDeadline != null && outerDeadline - ownDeadline < 0 ? outerDeadline : ownDeadline;
+        if (outerDeadline == null) {
+            deadline.set(until);
+        }
+
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return call.get();
+                } catch (RuntimeException e) {
+                    FailureCause cause = classify(e);
+                    if (!retryOn.contains(cause)) {
+                        throw e;
+                    }
+                    long delayNanos = cause.isUpstream() ? backoffNanos(attempt, e) : 0;
+                    if (attempt >= maxAttempts || System.nanoTime() + delayNanos - until > 0) {
+                        exhausted.get(cause).increment();
+                        log.warn("Giving up on {} after {} attempt(s): {} ({})", operation, attempt, cause, e.getMessage());
+                        throw e;
+                    }
+
+                    retries.get(cause).increment();
+                    log.info("Retrying {} after {}: attempt {} of {} in {} ms", operation, cause, attempt + 1, maxAttempts, delayNanos / 1_000_000);
+                    if (!sleep(delayNanos)) {
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            if (outerDeadline == null) {
+                deadline.remove();
+            }
+        }
+    }
+
+    /**
+     * Failure cause of an AI call, from the first recognisable exception in its cause chain.
+     */
+    public static FailureCause classify(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof AIGenerationException e) {
+                return e.getFailureCause();
+            }
+            if (t instanceof AIRejectedException) {
+                return FailureCause.REJECTED;
+            }
+            if (t instanceof HttpStatusCodeException e) {
+                if (e.getStatusCode().value() == 429) {
+                    return FailureCause.RATE_LIMITED;
+                }
+                return e.getStatusCode().is5xxServerError() ? FailureCause.SERVER_ERROR : FailureCause.CLIENT_ERROR;
+            }
+            if (t instanceof ConnectException) {
+                return FailureCause.CONNECTION_REFUSED;
+            }
+            if (t instanceof SocketTimeoutException || t instanceof HttpTimeoutException) {
+                return FailureCause.TIMEOUT;
+            }
+            if (t instanceof IOException) {
+                return FailureCause.IO_ERROR;
+            }
+            if (t instanceof JsonParseException) {
+                return FailureCause.INVALID_JSON;
+            }
+        }
+        return FailureCause.UNKNOWN;
+    }
+
+    private long backoffNanos(int attempt, RuntimeException failure) {
+        long maxNanos = settings.getMaxBackoff().toNanos();
+        long retryAfterNanos = retryAfterNanos(failure);
+        if (retryAfterNanos > 0) {
+            return Math.min(retryAfterNanos, maxNanos);
+        }
+        double ceiling = Math.min(maxNanos, settings.getInitialBackoff().toNanos() * Math.pow(settings.getMultiplier(), attempt - 1));
+        return (long) (ThreadLocalRandom.current().nextDouble() * ceiling);
+    }
+
+    private static long retryAfterNanos(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof HttpStatusCodeException e && e.getResponseHeaders() != null) {
+                String retryAfter = e.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+                try {
+                    return retryAfter == null ? 0 : Long.parseLong(retryAfter.trim()) * 1_000_000_000L;
+                } catch (NumberFormatException ignored) {
+                    // An HTTP date; the computed backoff is close enough
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static boolean sleep(long nanos) {
+        if (nanos <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.workoutgensvc.core.retry;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Builder
+@Getter
+public class RetrySettings {
+    // Attempts per upstream call, the first one included; 1 disables retries
+    @Builder.Default
+    private int maxAttempts = 3;
+    @Builder.Default
+    private Duration initialBackoff = Duration.ofMillis(250);
+    @Builder.Default
+    private Duration maxBackoff = Duration.ofSeconds(4);
+    @Builder.Default
+    private double multiplier = 2.0;
+    // No retry starts once this much time has passed since the request's first attempt
+    @Builder.Default
+    private Duration budget = Duration.ofSeconds(60);
+}
@@ -0,0 +1,25 @@
+package com.workoutgensvc.core.retry.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum FailureCause {
+    CONNECTION_REFUSED(true),
+    TIMEOUT(true),
+    IO_ERROR(true),
+    RATE_LIMITED(true),
+    SERVER_ERROR(true),
+    CLIENT_ERROR(false),
+    REJECTED(false),
+    INVALID_JSON(false),
+    SCHEMA_FAILURE(false),
+    INVALID_MEDIA(false),
+    UNKNOWN(false);
+
+    // Failures of chat2api itself, which are retried with backoff; the others concern the answer or the request
+    private final boolean upstream;
+
+    FailureCause(boolean upstream) {
+        this.upstream = upstream;
+    }
+}
@@ -0,0 +1,101 @@
+package com.workoutgensvc.core.tracing;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Appends finished spans to a file, one JSON object per line, so a trace can be read without a
+ * collector. Lines of one trace share a {@code traceId} and point at their parent through
+ * {@code parentSpanId}; {@code jq 'select(.traceId == "...")'} pulls out a single request.
+ */
+@Slf4j
+public class JsonFileSpanExporter implements SpanExporter {
+    private final Path path;
+    private final Gson gson = new Gson();
+    private BufferedWriter writer;
+
+    public JsonFileSpanExporter(Path path) {
+        this.path = path;
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open span file " + path, e);
+        }
+        log.info("Writing spans to {}", path.toAbsolutePath());
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        if (writer == null) {
+            return CompletableResultCode.ofFailure();
+        }
+        try {
+            for (SpanData span : spans) {
+                writer.write(gson.toJson(toJson(span)));
+                writer.newLine();
+            }
+            writer.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            log.warn("Could not write {} span(s) to {}: {}", spans.size(), path, e.getMessage());
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        if (writer == null) {
+            return CompletableResultCode.ofSuccess();
+        }
+        try {
+            writer.close();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        } finally {
+            writer = null;
+        }
+    }
+
+    private static JsonObject toJson(SpanData span) {
+        JsonObject json = new JsonObject();
+        json.addProperty("traceId", span.getTraceId());
+        json.addProperty("spanId", span.getSpanId());
+        if (SpanId.isValid(span.getParentSpanId())) {
+            json.addProperty("parentSpanId", span.getParentSpanId());
+        }
+        json.addProperty("name", span.getName());
+        json.addProperty("kind", span.getKind().name());
+        json.addProperty("start", Instant.EPOCH.plusNanos(span.getStartEpochNanos()).toString());
+        json.addProperty("durationMs", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1e6);
+        json.addProperty("status", span.getStatus().getStatusCode().name());
+
+        JsonObject attributes = new JsonObject();
+        span.getAttributes().forEach((key, value) -> attributes.addProperty(key.getKey(), String.valueOf(value)));
+        json.add("attributes", attributes);
+        return json;
+    }
+}
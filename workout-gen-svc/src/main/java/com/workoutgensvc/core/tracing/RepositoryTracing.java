@@ -0,0 +1,92 @@
+package com.workoutgensvc.core.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Wraps every call on a Spring Data repository in a {@code db.repository.call} observation, named
+ * after the repository and method, so each query shows up as its own span under the request that
+ * made it. Spans carry the number of rows returned as {@code db.rows}: the size of a list or page,
+ * 1 or 0 for an optional, 1 for a single entity. Counts and other scalar results are not tagged.
+ * <p>
+ * The registry is looked up on first use rather than injected, since this post-processor is created
+ * before the beans that configure observation handlers.
+ */
+public class RepositoryTracing implements BeanPostProcessor {
+    private final Supplier<ObservationRegistry> observationRegistry;
+
+    public RepositoryTracing(ObjectProvider<ObservationRegistry> observationRegistry) {
+        this.observationRegistry = SingletonSupplier.of(() -> observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        // Before afterPropertiesSet, which is where the factory creates the repository proxy
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor((proxyFactory, information) ->
+                    proxyFactory.addAdvice(new ObservingInterceptor(information.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    private class ObservingInterceptor implements MethodInterceptor {
+        private final String repository;
+
+        private ObservingInterceptor(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            String method = invocation.getMethod().getName();
+            Observation observation = Observation.createNotStarted("db.repository.call", observationRegistry.get())
+                    .contextualName(repository + "." + method)
+                    .lowCardinalityKeyValue("repository", repository)
+                    .lowCardinalityKeyValue("method", method)
+                    .start();
+            try (Observation.Scope ignored = observation.openScope()) {
+                Object result = invocation.proceed();
+                Long rows = rows(result);
+                if (rows != null) {
+                    observation.highCardinalityKeyValue("db.rows", String.valueOf(rows));
+                }
+                return result;
+            } catch (Throwable e) {
+                observation.error(e);
+                throw e;
+            } finally {
+                observation.stop();
+            }
+        }
+    }
+
+    private static Long rows(Object result) {
+        if (result == null) {
+            return null;
+        }
+        if (result instanceof Collection<?> collection) {
+            return (long) collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return (long) slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1L : 0L;
+        }
+        if (result instanceof Number || result instanceof Boolean) {
+            return null;
+        }
+        return 1L;
+    }
+}
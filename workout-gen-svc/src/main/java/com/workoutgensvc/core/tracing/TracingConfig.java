@@ -0,0 +1,25 @@
+package com.workoutgensvc.core.tracing;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class TracingConfig {
+    @Bean
+    public static RepositoryTracing repositoryTracing(ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new RepositoryTracing(observationRegistry);
+    }
+
+    // Picked up by the OpenTelemetry auto-configuration next to the OTLP exporter, if one is configured
+    @Bean
+    @ConditionalOnExpression("!'${ai.tracing.file:}'.isBlank()")
+    public JsonFileSpanExporter jsonFileSpanExporter(@Value("${ai.tracing.file}") String file) {
+        return new JsonFileSpanExporter(Path.of(file.trim()));
+    }
+}
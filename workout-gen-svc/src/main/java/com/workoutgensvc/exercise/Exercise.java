@@ -1,8 +1,10 @@
 package com.workoutgensvc.exercise;
 
+import com.workoutgensvc.core.BatchNameResolver;
 import com.workoutgensvc.exercise.enums.ExerciseType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -15,13 +17,17 @@ import java.util.UUID;
 @Setter
 
 @Entity
+@Table(indexes = @Index(name = "idx_exercise_normalized_name", columnList = "normalized_name"))
 public class Exercise {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
     private UUID id;
 
     @Column(nullable = false)
     private String name;
+    // Lower-cased, trimmed copy of name, so case-insensitive lookups can use the index
+    @Column(name = "normalized_name")
+    private String normalizedName;
     @Column(nullable = false)
     @Enumerated(EnumType.STRING)
     private ExerciseType type;
@@ -34,4 +40,10 @@ public class Exercise {
     private String imageUrl;
     @Column(length = 1024)
     private String videoUrl;
+
+    @PrePersist
+    @PreUpdate
+    void normalizeName() {
+        normalizedName = BatchNameResolver.normalize(name);
+    }
 }
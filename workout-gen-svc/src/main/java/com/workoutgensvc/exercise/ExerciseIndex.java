@@ -0,0 +1,362 @@
+package com.workoutgensvc.exercise;
+
+import com.workoutgensvc.core.TransactionCallbacks;
+import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.exercise.enums.Intensity;
+import com.workoutgensvc.exercise.enums.MuscleType;
+import com.workoutgensvc.workout.enums.WorkoutType;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index from exercise type and target muscle to exercises, used to put only the exercises
+ * relevant to a workout request into its prompt instead of the whole library. Selection touches the
+ * posting lists of the requested types and muscles, not every exercise.
+ */
+@Slf4j
+@Service
+public class ExerciseIndex {
+    private static final Map<WorkoutType, Map<ExerciseType, Double>> TYPE_WEIGHTS = new EnumMap<>(WorkoutType.class);
+    private static final Map<String, Map<ExerciseType, Double>> GOAL_TYPE_BOOSTS = new HashMap<>();
+    private static final Map<String, List<MuscleType>> GOAL_MUSCLES = new HashMap<>();
+
+    static {
+        TYPE_WEIGHTS.put(WorkoutType.STRENGTH, weights(ExerciseType.STRENGTH, 1.0, ExerciseType.PLYOMETRIC, 0.4));
+        TYPE_WEIGHTS.put(WorkoutType.BODY_WEIGHT, weights(ExerciseType.STRENGTH, 0.8, ExerciseType.PLYOMETRIC, 0.7, ExerciseType.BALANCE, 0.4, ExerciseType.AGILITY, 0.4));
+        TYPE_WEIGHTS.put(WorkoutType.FULL_BODY, weights(ExerciseType.STRENGTH, 0.9, ExerciseType.PLYOMETRIC, 0.6, ExerciseType.CARDIO, 0.4, ExerciseType.AGILITY, 0.4));
+        TYPE_WEIGHTS.put(WorkoutType.HIIT, weights(ExerciseType.PLYOMETRIC, 1.0, ExerciseType.CARDIO, 0.9, ExerciseType.AGILITY, 0.8, ExerciseType.STRENGTH, 0.5));
+        TYPE_WEIGHTS.put(WorkoutType.CARDIO, weights(ExerciseType.CARDIO, 1.0, ExerciseType.AGILITY, 0.6, ExerciseType.PLYOMETRIC, 0.5));
+        TYPE_WEIGHTS.put(WorkoutType.MOBILITY, weights(ExerciseType.FLEXIBILITY, 1.0, ExerciseType.BALANCE, 0.7, ExerciseType.RECOVERY, 0.6));
+        TYPE_WEIGHTS.put(WorkoutType.YOGA, weights(ExerciseType.FLEXIBILITY, 1.0, ExerciseType.BALANCE, 0.9, ExerciseType.RECOVERY, 0.7));
+
+        GOAL_TYPE_BOOSTS.put("muscle", weights(ExerciseType.STRENGTH, 0.3));
+        GOAL_TYPE_BOOSTS.put("strength", weights(ExerciseType.STRENGTH, 0.3, ExerciseType.PLYOMETRIC, 0.1));
+        GOAL_TYPE_BOOSTS.put("tone", weights(ExerciseType.STRENGTH, 0.2, ExerciseType.CARDIO, 0.1));
+        GOAL_TYPE_BOOSTS.put("weight", weights(ExerciseType.CARDIO, 0.3, ExerciseType.PLYOMETRIC, 0.2, ExerciseType.AGILITY, 0.2));
+        GOAL_TYPE_BOOSTS.put("endurance", weights(ExerciseType.CARDIO, 0.3, ExerciseType.AGILITY, 0.1));
+        GOAL_TYPE_BOOSTS.put("flexibility", weights(ExerciseType.FLEXIBILITY, 0.3, ExerciseType.RECOVERY, 0.1));
+
+        GOAL_MUSCLES.put("chest", List.of(MuscleType.UPPER_CHEST, MuscleType.MIDDLE_CHEST, MuscleType.LOWER_CHEST));
+        GOAL_MUSCLES.put("back", List.of(MuscleType.LATS, MuscleType.RHOMBOIDS, MuscleType.MIDDLE_TRAPS, MuscleType.LOWER_BACK));
+        GOAL_MUSCLES.put("shoulder", List.of(MuscleType.FRONT_DELTOID, MuscleType.LATERAL_DELTOID, MuscleType.REAR_DELTOID));
+        GOAL_MUSCLES.put("arm", List.of(MuscleType.SHORT_HEAD_BICEPS, MuscleType.LONG_HEAD_BICEPS, MuscleType.LONG_HEAD_TRICEPS, MuscleType.LATERAL_HEAD_TRICEPS));
+        GOAL_MUSCLES.put("leg", List.of(MuscleType.QUADRICEPS, MuscleType.HAMSTRINGS, MuscleType.GLUTES, MuscleType.CALVES));
+        GOAL_MUSCLES.put("glute", List.of(MuscleType.GLUTES));
+        GOAL_MUSCLES.put("core", List.of(MuscleType.UPPER_ABS, MuscleType.LOWER_ABS, MuscleType.OBLIQUES));
+        GOAL_MUSCLES.put("abs", List.of(MuscleType.UPPER_ABS, MuscleType.LOWER_ABS, MuscleType.OBLIQUES));
+    }
+
+    private final ExerciseRepository exerciseRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Position in this list is the exercise's id inside the index
+    private final List<IndexedExercise> exercises = new ArrayList<>();
+    private final Map<String, Integer> idsByName = new HashMap<>();
+    private final Map<ExerciseType, PostingList> byType = new EnumMap<>(ExerciseType.class);
+    private final Map<MuscleType, PostingList> byMuscle = new EnumMap<>(MuscleType.class);
+
+    @Autowired
+    public ExerciseIndex(ExerciseRepository exerciseRepository) {
+        this.exerciseRepository = exerciseRepository;
+    }
+
+    @PostConstruct
+    void load() {
+        Map<String, LoadedExercise> loaded = new HashMap<>();
+        List<String> order = new ArrayList<>();
+        for (Object[] row : exerciseRepository.findIndexRows()) {
+            String name = (String) row[0];
+            LoadedExercise exercise = loaded.computeIfAbsent(name.toLowerCase(Locale.ROOT), key -> {
+                order.add(key);
+                return new LoadedExercise(name, (ExerciseType) row[1], new EnumMap<>(MuscleType.class));
+            });
+            if (row[2] != null) {
+                exercise.muscles().put((MuscleType) row[2], (Intensity) row[3]);
+            }
+        }
+
+        order.forEach(key -> {
+            LoadedExercise exercise = loaded.get(key);
+            add(exercise.name(), exercise.type(), exercise.muscles());
+        });
+        log.info("Indexed {} exercises for workout prompts", size());
+    }
+
+    public void addAfterCommit(Exercise exercise) {
+        Map<MuscleType, Intensity> muscles = new EnumMap<>(MuscleType.class);
+        for (MuscleTarget target : exercise.getMuscleGroupTarget()) {
+            if (target.getMuscle() != null) {
+                muscles.put(target.getMuscle(), target.getIntensity());
+            }
+        }
+        TransactionCallbacks.afterCommit(() -> add(exercise.getName(), exercise.getType(), muscles));
+    }
+
+    public void add(String name, ExerciseType type, Map<MuscleType, Intensity> muscles) {
+        lock.writeLock().lock();
+        try {
+            // Names are what the prompt lists, so one entry per name
+            if (idsByName.putIfAbsent(name.toLowerCase(Locale.ROOT), exercises.size()) != null) {
+                return;
+            }
+
+            int id = exercises.size();
+            exercises.add(IndexedExercise.of(name, type, muscles));
+            if (type != null) {
+                byType.computeIfAbsent(type, key -> new PostingList()).add(id);
+            }
+            muscles.keySet().forEach(muscle -> byMuscle.computeIfAbsent(muscle, key -> new PostingList()).add(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return exercises.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Names of the {@code limit} exercises that best fit the request, best first. Exercise type is
+     * weighted by workout type and goals, muscles named in the goals add to the score, and the
+     * intensity closest to the fitness level breaks near-ties. No single primary muscle takes more
+     * than a quarter of the slots while other candidates remain.
+     */
+    public List<String> select(WorkoutType workoutType, String goals, String fitnessLevel, int limit) {
+        String goalText = goals == null ? "" : goals.toLowerCase(Locale.ROOT);
+        Map<ExerciseType, Double> typeWeights = new EnumMap<>(TYPE_WEIGHTS.get(workoutType));
+        GOAL_TYPE_BOOSTS.forEach((keyword, boosts) -> {
+            if (goalText.contains(keyword)) {
+                boosts.forEach((type, boost) -> typeWeights.merge(type, boost, Double::sum));
+            }
+        });
+        List<MuscleType> goalMuscles = new ArrayList<>();
+        GOAL_MUSCLES.forEach((keyword, muscles) -> {
+            if (goalText.contains(keyword)) {
+                goalMuscles.addAll(muscles);
+            }
+        });
+        int preferredIntensity = preferredIntensity(fitnessLevel);
+
+        lock.readLock().lock();
+        try {
+            int count = exercises.size();
+            if (count <= limit) {
+                return exercises.stream().map(IndexedExercise::name).toList();
+            }
+
+            float[] scores = new float[count];
+            PostingList touched = new PostingList();
+            typeWeights.forEach((type, weight) -> {
+                PostingList postings = byType.get(type);
+                if (postings != null) {
+                    for (int i = 0; i < postings.size; i++) {
+                        int id = postings.ids[i];
+                        if (scores[id] == 0) {
+                            touched.add(id);
+                        }
+                        scores[id] += weight.floatValue();
+                    }
+                }
+            });
+            for (MuscleType muscle : goalMuscles) {
+                PostingList postings = byMuscle.get(muscle);
+                if (postings != null) {
+                    for (int i = 0; i < postings.size; i++) {
+                        int id = postings.ids[i];
+                        if (scores[id] == 0) {
+                            touched.add(id);
+                        }
+                        scores[id] += 0.25f;
+                    }
+                }
+            }
+
+            // Keep a shortlist wider than the limit so the muscle cap still has room to choose
+            ScoreHeap shortlist = new ScoreHeap(limit * 3, scores);
+            for (int i = 0; i < touched.size; i++) {
+                int id = touched.ids[i];
+                scores[id] += intensityFit(exercises.get(id), preferredIntensity);
+                shortlist.offer(id);
+            }
+
+            Integer[] ranked = shortlist.toArray();
+            Arrays.sort(ranked, (a, b) -> Float.compare(scores[b], scores[a]));
+            List<String> picked = pickDiverse(ranked, limit);
+
+            // Too few relevant exercises: pad with the rest so the model still has enough to choose from
+            for (int id = 0; id < count && picked.size() < limit; id++) {
+                if (scores[id] == 0) {
+                    picked.add(exercises.get(id).name());
+                }
+            }
+            return picked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<String> pickDiverse(Integer[] ranked, int limit) {
+        int perMuscleCap = Math.max(2, limit / 4);
+        Map<MuscleType, Integer> perMuscle = new EnumMap<>(MuscleType.class);
+        List<String> picked = new ArrayList<>(limit);
+        List<String> skipped = new ArrayList<>();
+
+        for (Integer id : ranked) {
+            if (picked.size() == limit) {
+                break;
+            }
+            IndexedExercise exercise = exercises.get(id);
+            MuscleType primary = exercise.primaryMuscle();
+            if (primary != null && perMuscle.merge(primary, 1, Integer::sum) > perMuscleCap) {
+                skipped.add(exercise.name());
+                continue;
+            }
+            picked.add(exercise.name());
+        }
+
+        for (int i = 0; i < skipped.size() && picked.size() < limit; i++) {
+            picked.add(skipped.get(i));
+        }
+        return picked;
+    }
+
+    private static int preferredIntensity(String fitnessLevel) {
+        String level = fitnessLevel == null ? "" : fitnessLevel.toLowerCase(Locale.ROOT);
+        if (level.contains("beginner")) {
+            return Intensity.MODERATE.ordinal();
+        }
+        if (level.contains("advanced")) {
+            return Intensity.EXTREME.ordinal();
+        }
+        return Intensity.HIGH.ordinal();
+    }
+
+    private static float intensityFit(IndexedExercise exercise, int preferredIntensity) {
+        Intensity peak = exercise.peakIntensity();
+        if (peak == null) {
+            return 0;
+        }
+        return 0.15f * (1 - Math.abs(peak.ordinal() - preferredIntensity) / 3f);
+    }
+
+    private static Map<ExerciseType, Double> weights(Object... typeWeightPairs) {
+        Map<ExerciseType, Double> weights = new EnumMap<>(ExerciseType.class);
+        for (int i = 0; i < typeWeightPairs.length; i += 2) {
+            weights.put((ExerciseType) typeWeightPairs[i], (Double) typeWeightPairs[i + 1]);
+        }
+        return weights;
+    }
+
+    private record IndexedExercise(String name, ExerciseType type, MuscleType primaryMuscle, Intensity peakIntensity) {
+        private static IndexedExercise of(String name, ExerciseType type, Map<MuscleType, Intensity> muscles) {
+            MuscleType primary = null;
+            Intensity peak = null;
+            for (Map.Entry<MuscleType, Intensity> target : muscles.entrySet()) {
+                if (primary == null || (target.getValue() != null && (peak == null || target.getValue().compareTo(peak) > 0))) {
+                    primary = target.getKey();
+                    peak = target.getValue();
+                }
+            }
+            return new IndexedExercise(name, type, primary, peak);
+        }
+    }
+
+    private record LoadedExercise(String name, ExerciseType type, Map<MuscleType, Intensity> muscles) {
+    }
+
+    /**
+     * Bounded min-heap of ids ordered by score, keeping the highest-scoring ones. Candidates that do
+     * not beat the current minimum are rejected without touching the heap.
+     */
+    private static final class ScoreHeap {
+        private final int[] ids;
+        private final float[] scores;
+        private int size;
+
+        private ScoreHeap(int capacity, float[] scores) {
+            this.ids = new int[capacity];
+            this.scores = scores;
+        }
+
+        private void offer(int id) {
+            if (size < ids.length) {
+                ids[size] = id;
+                siftUp(size++);
+            } else if (scores[id] > scores[ids[0]]) {
+                ids[0] = id;
+                siftDown(0);
+            }
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (scores[ids[parent]] <= scores[ids[index]]) {
+                    return;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && scores[ids[left]] < scores[ids[smallest]]) {
+                    smallest = left;
+                }
+                if (right < size && scores[ids[right]] < scores[ids[smallest]]) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(smallest, index);
+                index = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int tmp = ids[a];
+            ids[a] = ids[b];
+            ids[b] = tmp;
+        }
+
+        private Integer[] toArray() {
+            Integer[] result = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = ids[i];
+            }
+            return result;
+        }
+    }
+
+    private static final class PostingList {
+        private int[] ids = new int[8];
+        private int size;
+
+        private void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
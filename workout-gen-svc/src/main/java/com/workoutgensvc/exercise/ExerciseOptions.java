@@ -0,0 +1,15 @@
+package com.workoutgensvc.exercise;
+
+import java.util.List;
+
+/**
+ * Choices offered by the exercise form. The exercise pool pre-generates every combination of these.
+ */
+public final class ExerciseOptions {
+    public static final List<String> MUSCLE_GROUPS = List.of("Chest", "Back", "Shoulders", "Arms", "Legs", "Core", "Full Body");
+    public static final List<String> DIFFICULTIES = List.of("Beginner", "Intermediate", "Advanced");
+    public static final List<String> EQUIPMENT = List.of("Bodyweight", "Dumbbells", "Barbell", "Machine", "Cable", "Kettlebell");
+
+    private ExerciseOptions() {
+    }
+}
@@ -0,0 +1,193 @@
+package com.workoutgensvc.exercise;
+
+import com.workoutgensvc.core.AIService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ready-made, media-validated exercise responses for every combination on the exercise form, so
+ * interactive requests can skip the LLM and the URL probes. A scheduled refill tops the pool up in
+ * small batches on the AI executor; the batch size and interval cap the LLM calls it makes.
+ */
+@Slf4j
+@Service
+public class ExercisePool {
+    private final AIService aiService;
+    private final TaskExecutor aiTaskExecutor;
+    private final boolean enabled;
+    private final int targetSize;
+    private final int batchSize;
+    private final Map<String, Slot> slots = new LinkedHashMap<>();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter fillFailures;
+    private final Timer fillLatency;
+
+    @Autowired
+    public ExercisePool(
+            AIService aiService,
+            @Qualifier("aiTaskExecutor") TaskExecutor aiTaskExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${ai.exercise-pool.enabled:false}") boolean enabled,
+            @Value("${ai.exercise-pool.size-per-combination:2}") int targetSize,
+            @Value("${ai.exercise-pool.batch-size:3}") int batchSize) {
+        this.aiService = aiService;
+        this.aiTaskExecutor = aiTaskExecutor;
+        this.enabled = enabled;
+        this.targetSize = targetSize;
+        this.batchSize = batchSize;
+
+        for (String muscleGroup : ExerciseOptions.MUSCLE_GROUPS) {
+            for (String difficulty : ExerciseOptions.DIFFICULTIES) {
+                for (String equipment : ExerciseOptions.EQUIPMENT) {
+                    slots.put(key(muscleGroup, difficulty, equipment), new Slot(muscleGroup, difficulty, equipment));
+                }
+            }
+        }
+
+        this.hits = Counter.builder("ai.exercise.pool.requests").tag("result", "hit")
+                .description("Exercise requests served from the pool").register(meterRegistry);
+        this.misses = Counter.builder("ai.exercise.pool.requests").tag("result", "miss")
+                .description("Exercise requests that fell through to live generation").register(meterRegistry);
+        this.fillFailures = Counter.builder("ai.exercise.pool.fill.failures")
+                .description("Background generations that produced no valid exercise").register(meterRegistry);
+        this.fillLatency = Timer.builder("ai.exercise.pool.fill")
+                .description("Time to generate and validate one pooled exercise").register(meterRegistry);
+        Gauge.builder("ai.exercise.pool.size", this, ExercisePool::size)
+                .description("Ready exercises across all combinations").register(meterRegistry);
+        Gauge.builder("ai.exercise.pool.capacity", slots, s -> (double) s.size() * targetSize)
+                .description("Exercises the pool holds when every combination is full").register(meterRegistry);
+        Gauge.builder("ai.exercise.pool.empty.combinations", this, ExercisePool::emptyCombinations)
+                .description("Combinations with no ready exercise").register(meterRegistry);
+    }
+
+    /**
+     * Removes and returns a pooled response for the combination, if one is ready. Inputs outside the
+     * form's options are never pooled.
+     */
+    public Optional<String> take(String muscleGroup, String difficulty, String equipment) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        Slot slot = slots.get(key(muscleGroup, difficulty, equipment));
+        String exerciseJson = slot == null ? null : slot.poll();
+        if (exerciseJson == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        hits.increment();
+        return Optional.of(exerciseJson);
+    }
+
+    public int size() {
+        return slots.values().stream().mapToInt(slot -> slot.size.get()).sum();
+    }
+
+    private int emptyCombinations() {
+        return (int) slots.values().stream().filter(slot -> slot.size.get() == 0).count();
+    }
+
+    @Scheduled(fixedDelayString = "${ai.exercise-pool.refill-interval:30s}", initialDelayString = "${ai.exercise-pool.initial-delay:30s}")
+    public void refill() {
+        if (!enabled || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+
+        // Emptiest combinations first, so a burst on one combination does not starve the rest
+        List<Slot> batch = slots.values().stream()
+                .filter(slot -> slot.size.get() < targetSize)
+                .sorted(Comparator.comparingInt(slot -> slot.size.get()))
+                .limit(batchSize)
+                .toList();
+        if (batch.isEmpty()) {
+            refilling.set(false);
+            return;
+        }
+
+        try {
+            aiTaskExecutor.execute(() -> {
+                try {
+                    batch.forEach(this::fill);
+                } finally {
+                    refilling.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            refilling.set(false);
+            log.debug("Exercise pool refill skipped: {}", e.getMessage());
+        }
+    }
+
+    private void fill(Slot slot) {
+        Timer.Sample sample = Timer.start();
+        try {
+            // Bypass the response cache so each pooled entry is a distinct generation
+            Optional<String> exerciseJson = aiService.tryGenerateValidExercise(slot.muscleGroup, slot.difficulty, slot.equipment, 3, true);
+            sample.stop(fillLatency);
+
+            if (exerciseJson.isPresent()) {
+                slot.offer(exerciseJson.get());
+            } else {
+                fillFailures.increment();
+            }
+        } catch (Exception e) {
+            fillFailures.increment();
+            log.warn("Failed to pre-generate {} / {} / {} exercise: {}", slot.muscleGroup, slot.difficulty, slot.equipment, e.getMessage());
+        }
+    }
+
+    private static String key(String muscleGroup, String difficulty, String equipment) {
+        return (muscleGroup + "|" + difficulty + "|" + equipment).trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Slot {
+        private final String muscleGroup;
+        private final String difficulty;
+        private final String equipment;
+        private final ConcurrentLinkedQueue<String> ready = new ConcurrentLinkedQueue<>();
+        // ConcurrentLinkedQueue.size() walks the queue, so occupancy is tracked separately
+        private final AtomicInteger size = new AtomicInteger();
+
+        private Slot(String muscleGroup, String difficulty, String equipment) {
+            this.muscleGroup = muscleGroup;
+            this.difficulty = difficulty;
+            this.equipment = equipment;
+        }
+
+        private String poll() {
+            String exerciseJson = ready.poll();
+            if (exerciseJson != null) {
+                size.decrementAndGet();
+            }
+            return exerciseJson;
+        }
+
+        private void offer(String exerciseJson) {
+            ready.offer(exerciseJson);
+            size.incrementAndGet();
+        }
+    }
+}
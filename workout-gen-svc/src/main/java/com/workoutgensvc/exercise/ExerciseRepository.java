@@ -1,13 +1,36 @@
 package com.workoutgensvc.exercise;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface ExerciseRepository extends JpaRepository<Exercise, UUID> {
-    List<Exercise> findByNameIgnoreCase(String name);
+    List<Exercise> findByNormalizedName(String normalizedName);
+
+    // Muscle targets come along because the calorie engine reads them for every resolved exercise
+    @Query("select e from Exercise e left join fetch e.muscleGroupTarget where e.normalizedName in :normalizedNames")
+    List<Exercise> findByNormalizedNameIn(Collection<String> normalizedNames);
+
+    @Query("select e from Exercise e left join fetch e.muscleGroupTarget where e.id in :ids")
+    List<Exercise> fetchMuscleTargets(Collection<UUID> ids);
+
+    // Rows written before the normalized_name column existed
+    @Transactional
+    @Modifying
+    @Query("update Exercise e set e.normalizedName = lower(trim(e.name)) where e.normalizedName is null")
+    int backfillNormalizedNames();
+
+    @Query("select e.name from Exercise e")
+    List<String> findAllNames();
+
+    @Query("select e.name, e.type, m.muscle, m.intensity from Exercise e left join e.muscleGroupTarget m")
+    List<Object[]> findIndexRows();
 }
@@ -5,81 +5,86 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.workoutgensvc.core.AIService;
+import com.workoutgensvc.core.BatchNameResolver;
+import com.workoutgensvc.core.NameCatalog;
+import com.workoutgensvc.core.metrics.GenerationMetrics;
+import com.workoutgensvc.core.metrics.enums.DroppedElement;
+import com.workoutgensvc.core.metrics.enums.Pipeline;
+import com.workoutgensvc.core.metrics.enums.Stage;
 import com.workoutgensvc.exercise.enums.ExerciseType;
 import com.workoutgensvc.exercise.enums.Intensity;
 import com.workoutgensvc.exercise.enums.MuscleType;
+import com.workoutgensvc.workout.enums.WorkoutType;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 @Slf4j
 @Service
 public class ExerciseService {
     private final ExerciseRepository exerciseRepository;
     private final AIService aiService;
+    private final ExercisePool exercisePool;
+    private final ExerciseIndex exerciseIndex;
     private final Gson gson;
+    private final GenerationMetrics generationMetrics;
+    private final NameCatalog nameCatalog = new NameCatalog("Available exercises: ", "No existing exercises available - you can suggest common exercises");
 
     @Autowired
-    public ExerciseService(ExerciseRepository exerciseRepository, AIService aiService, Gson gson) {
+    public ExerciseService(ExerciseRepository exerciseRepository, AIService aiService, ExercisePool exercisePool, ExerciseIndex exerciseIndex, Gson gson, GenerationMetrics generationMetrics) {
         this.exerciseRepository = exerciseRepository;
         this.aiService = aiService;
+        this.exercisePool = exercisePool;
+        this.exerciseIndex = exerciseIndex;
         this.gson = gson;
+        this.generationMetrics = generationMetrics;
     }
 
-    @Transactional
-    public Exercise generateExercise(String muscleGroup, String difficulty, String equipment) {
+    @PostConstruct
+    void loadNameCatalog() {
+        int backfilled = exerciseRepository.backfillNormalizedNames();
+        if (backfilled > 0) {
+            log.info("Backfilled normalized names for {} exercises", backfilled);
+        }
+        nameCatalog.load(exerciseRepository.findAllNames());
+        log.info("Loaded {} exercise names", nameCatalog.size());
+    }
+
+    /**
+     * Takes a pooled exercise or asks the LLM for one, then saves it. Nothing here runs in a transaction
+     * of its own, so the LLM call and the media URL checks hold no database connection; the save commits
+     * by itself.
+     */
+    public Exercise generateExercise(String muscleGroup, String difficulty, String equipment, boolean noCache) {
         try {
-            String response = aiService.generateValidExercise(muscleGroup, difficulty, equipment, 3);
-            response = response.replaceAll("```", "").replace("json\n", "");
-            JsonObject jsonObject = gson.fromJson(response, JsonObject.class);
-
-            Exercise exercise = Exercise.builder()
-                    .name(jsonObject.get("name").getAsString())
-                    .type(ExerciseType.valueOf(jsonObject.get("type").getAsString()))
-                    .imageUrl(jsonObject.has("imageUrl") && !jsonObject.get("imageUrl").getAsString().trim().isEmpty() ?
-                        jsonObject.get("imageUrl").getAsString() : null)
-                    .videoUrl(jsonObject.has("videoUrl") && !jsonObject.get("videoUrl").getAsString().trim().isEmpty() ?
-                        jsonObject.get("videoUrl").getAsString() : null)
-                    .build();
-
-            if (jsonObject.has("muscleTargets")) {
-                List<MuscleTarget> muscleTargets = new ArrayList<>();
-                JsonArray muscleTargetsArray = jsonObject.getAsJsonArray("muscleTargets");
-
-                for (JsonElement muscleTargetElement : muscleTargetsArray) {
-                    try {
-                        JsonObject jsonMuscleTarget = muscleTargetElement.getAsJsonObject();
-                        MuscleTarget muscleTarget = new MuscleTarget();
-
-                        if (jsonMuscleTarget.has("muscle")) {
-                            muscleTarget.setMuscle(MuscleType.valueOf(jsonMuscleTarget.get("muscle").getAsString()));
-                        }
-
-                        if (jsonMuscleTarget.has("intensity")) {
-                            muscleTarget.setIntensity(Intensity.valueOf(jsonMuscleTarget.get("intensity").getAsString()));
-                        } else {
-                            muscleTarget.setIntensity(Intensity.MODERATE);
-                        }
-
-                        muscleTargets.add(muscleTarget);
-                    } catch (Exception e) {
-                        log.warn("Failed to parse muscle target: {}", muscleTargetElement, e);
-                    }
-                }
-                exercise.setMuscleGroupTarget(muscleTargets);
-            }
+            Optional<String> pooled = noCache ? Optional.empty() : exercisePool.take(muscleGroup, difficulty, equipment);
+            String response = pooled.isPresent()
+                    ? pooled.get()
+                    : aiService.generateValidExercise(muscleGroup, difficulty, equipment, 3, noCache);
+            JsonObject jsonObject = generationMetrics.parse(Pipeline.EXERCISE, () -> gson.fromJson(response.replaceAll("```", "").replace("json\n", ""), JsonObject.class));
+            Exercise exercise = generationMetrics.time(Pipeline.EXERCISE, Stage.MATERIALIZE, () -> toExercise(jsonObject));
 
             if ((exercise.getImageUrl() == null || exercise.getImageUrl().trim().isEmpty()) &&
                 (exercise.getVideoUrl() == null || exercise.getVideoUrl().trim().isEmpty())) {
                 throw new IllegalArgumentException("Exercise must have at least one media URL (imageUrl or videoUrl)");
             }
 
-            return exerciseRepository.save(exercise);
+            Exercise savedExercise = generationMetrics.time(Pipeline.EXERCISE, Stage.PERSIST, () -> exerciseRepository.save(exercise));
+            nameCatalog.addAfterCommit(savedExercise.getName());
+            exerciseIndex.addAfterCommit(savedExercise);
+            return savedExercise;
 
         } catch (Exception e) {
             log.error("Failed to parse AI response for exercise generation", e);
@@ -87,11 +92,64 @@ public class ExerciseService {
         }
     }
 
+    /**
+     * Saves an exercise that a generated workout named but the library did not have, and lists it for
+     * later prompts once the surrounding transaction commits.
+     */
+    @Transactional
+    public Exercise saveReferenced(Exercise exercise) {
+        Exercise savedExercise = exerciseRepository.save(exercise);
+        nameCatalog.addAfterCommit(savedExercise.getName());
+        exerciseIndex.addAfterCommit(savedExercise);
+        return savedExercise;
+    }
+
+    private Exercise toExercise(JsonObject jsonObject) {
+        Exercise exercise = Exercise.builder()
+                .name(jsonObject.get("name").getAsString())
+                .type(ExerciseType.valueOf(jsonObject.get("type").getAsString()))
+                .imageUrl(jsonObject.has("imageUrl") && !jsonObject.get("imageUrl").getAsString().trim().isEmpty() ?
+                    jsonObject.get("imageUrl").getAsString() : null)
+                .videoUrl(jsonObject.has("videoUrl") && !jsonObject.get("videoUrl").getAsString().trim().isEmpty() ?
+                    jsonObject.get("videoUrl").getAsString() : null)
+                .build();
+
+        if (jsonObject.has("muscleTargets")) {
+            List<MuscleTarget> muscleTargets = new ArrayList<>();
+            JsonArray muscleTargetsArray = jsonObject.getAsJsonArray("muscleTargets");
+
+            for (JsonElement muscleTargetElement : muscleTargetsArray) {
+                try {
+                    JsonObject jsonMuscleTarget = muscleTargetElement.getAsJsonObject();
+                    MuscleTarget muscleTarget = new MuscleTarget();
+
+                    if (jsonMuscleTarget.has("muscle")) {
+                        muscleTarget.setMuscle(MuscleType.valueOf(jsonMuscleTarget.get("muscle").getAsString()));
+                    }
+
+                    if (jsonMuscleTarget.has("intensity")) {
+                        muscleTarget.setIntensity(Intensity.valueOf(jsonMuscleTarget.get("intensity").getAsString()));
+                    } else {
+                        muscleTarget.setIntensity(Intensity.MODERATE);
+                    }
+
+                    muscleTargets.add(muscleTarget);
+                } catch (Exception e) {
+                    log.warn("Failed to parse muscle target: {}", muscleTargetElement, e);
+                    generationMetrics.dropped(DroppedElement.MUSCLE_TARGET);
+                }
+            }
+            exercise.setMuscleGroupTarget(muscleTargets);
+        }
+        return exercise;
+    }
+
     public List<Exercise> generateMultipleExercises(String muscleGroup, String difficulty, String equipment, int count) {
         List<Exercise> exercises = new ArrayList<>();
         for (int i = 0; i < count; i++) {
             try {
-                exercises.add(generateExercise(muscleGroup, difficulty, equipment));
+                // Identical inputs would otherwise return the same cached exercise every time
+                exercises.add(generateExercise(muscleGroup, difficulty, equipment, i > 0));
             } catch (Exception e) {
                 log.warn("Failed to generate exercise {} of {}", i + 1, count, e);
             }
@@ -99,20 +157,42 @@ public class ExerciseService {
         return exercises;
     }
 
-    @Transactional(readOnly = true)
     public String getAllNames() {
-        List<String> exercises = exerciseRepository.findAll()
-                .stream().map(Exercise::getName)
-                .toList();
+        return nameCatalog.render();
+    }
 
-        return exercises.isEmpty()
+    /**
+     * Prompt fragment listing only the exercises that fit the workout, capped at {@code limit}.
+     */
+    public String getRelevantNames(WorkoutType workoutType, String goals, String fitnessLevel, int limit) {
+        List<String> names = exerciseIndex.select(workoutType, goals, fitnessLevel, limit);
+        return names.isEmpty()
                 ? "No existing exercises available - you can suggest common exercises"
-                : "Available exercises: " + String.join(", ", exercises);
+                : "Available exercises: " + String.join(", ", names);
+    }
+
+    /**
+     * The stored exercises {@link #getRelevantNames} would list, most relevant first, loaded with
+     * their muscle targets in one query.
+     */
+    @Transactional(readOnly = true)
+    public List<Exercise> getRelevantExercises(WorkoutType workoutType, String goals, String fitnessLevel, int limit) {
+        List<String> names = exerciseIndex.select(workoutType, goals, fitnessLevel, limit);
+        Map<String, Exercise> exercisesByName = getByNames(names);
+
+        List<Exercise> exercises = new ArrayList<>(names.size());
+        for (String name : names) {
+            Exercise exercise = exercisesByName.get(BatchNameResolver.normalize(name));
+            if (exercise != null) {
+                exercises.add(exercise);
+            }
+        }
+        return exercises;
     }
 
     @Transactional(readOnly = true)
     public Optional<Exercise> getByName(String name) {
-        List<Exercise> exercises = exerciseRepository.findByNameIgnoreCase(name);
+        List<Exercise> exercises = exerciseRepository.findByNormalizedName(BatchNameResolver.normalize(name));
         if (exercises.isEmpty()) {
             return Optional.empty();
         } else if (exercises.size() == 1) {
@@ -123,4 +203,36 @@ public class ExerciseService {
             return Optional.of(exercises.get(0));
         }
     }
+
+    /**
+     * Loads all the named exercises in one query, keyed by normalized name. When several rows share a
+     * name the first one wins, as in {@link #getByName}.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Exercise> getByNames(Collection<String> names) {
+        Set<String> normalizedNames = new HashSet<>();
+        names.forEach(name -> normalizedNames.add(BatchNameResolver.normalize(name)));
+
+        Map<String, Exercise> exercisesByName = new HashMap<>();
+        for (Exercise exercise : exerciseRepository.findByNormalizedNameIn(normalizedNames)) {
+            exercisesByName.putIfAbsent(BatchNameResolver.normalize(exercise.getName()), exercise);
+        }
+        return exercisesByName;
+    }
+
+    /**
+     * Initializes the muscle targets of the given exercises with one query. The exercises are returned
+     * as managed by the current persistence context.
+     */
+    @Transactional(readOnly = true)
+    public List<Exercise> fetchMuscleTargets(Collection<UUID> exerciseIds) {
+        if (exerciseIds.isEmpty()) {
+            return List.of();
+        }
+        return exerciseRepository.fetchMuscleTargets(exerciseIds);
+    }
+
+    public BatchNameResolver<Exercise> nameResolver() {
+        return new BatchNameResolver<>(this::getByNames);
+    }
 }
@@ -21,7 +21,7 @@ public enum MuscleType {
         this.displayName = formatDisplayName(this.name());
     }
 
-    private static String formatDisplayName(String raw) {
+    static String formatDisplayName(String raw) {
         String cleaned = raw
                 .replace("TRICEPS", "")
                 .replace("BICEPS", "")
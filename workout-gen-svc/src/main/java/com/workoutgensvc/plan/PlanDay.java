@@ -4,6 +4,7 @@ import com.workoutgensvc.plan.enums.PlanDayType;
 import com.workoutgensvc.workout.Workout;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,7 +20,7 @@ import java.util.UUID;
 @Table(name = "plan_days")
 public class PlanDay {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
     private UUID id;
 
     @Column(nullable = false)
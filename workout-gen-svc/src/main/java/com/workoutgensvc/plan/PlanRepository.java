@@ -1,10 +1,19 @@
 package com.workoutgensvc.plan;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface PlanRepository extends JpaRepository<Plan, UUID> {
+    @Query("select p from Plan p left join fetch p.planDays d where p.id = :id order by d.dayNumber")
+    Optional<Plan> findWithDaysById(UUID id);
+
+    // Initializes the workouts of every day of the plan; the days themselves are already loaded
+    @Query("select d from PlanDay d left join fetch d.workouts where d.plan = :plan")
+    List<PlanDay> fetchWorkouts(Plan plan);
 }
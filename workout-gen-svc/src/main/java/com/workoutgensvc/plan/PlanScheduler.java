@@ -0,0 +1,176 @@
+package com.workoutgensvc.plan;
+
+import com.workoutgensvc.exercise.MuscleTarget;
+import com.workoutgensvc.exercise.enums.MuscleType;
+import com.workoutgensvc.plan.enums.PlanDayType;
+import com.workoutgensvc.plan.enums.PlanType;
+import com.workoutgensvc.workout.Workout;
+import com.workoutgensvc.workout.WorkoutExercise;
+import com.workoutgensvc.workout.WorkoutService;
+import com.workoutgensvc.workout.enums.WorkoutType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lays out a plan's days from stored workouts without the LLM.
+ * <p>
+ * Each week gets {@code frequency} ACTIVE days spread as evenly as the week allows. With four or more
+ * sessions a week, the day after a session is RECOVERY; all other days off are REST. Each ACTIVE day
+ * takes the workout whose muscles overlap least with the sessions of the previous two days. Workouts
+ * of the types that suit the plan goal are preferred, and less-used workouts win ties so the
+ * rotation stays varied.
+ */
+@Service
+public class PlanScheduler {
+    private static final Map<PlanType, List<WorkoutType>> PREFERRED_TYPES = new EnumMap<>(PlanType.class);
+    // Sessions within this many days of each other compete for the same muscles
+    private static final int RECOVERY_WINDOW_DAYS = 2;
+
+    static {
+        PREFERRED_TYPES.put(PlanType.STRENGTH, List.of(WorkoutType.STRENGTH, WorkoutType.FULL_BODY, WorkoutType.BODY_WEIGHT));
+        PREFERRED_TYPES.put(PlanType.WEIGHT_LOSS, List.of(WorkoutType.HIIT, WorkoutType.CARDIO, WorkoutType.FULL_BODY));
+        PREFERRED_TYPES.put(PlanType.ENDURANCE, List.of(WorkoutType.CARDIO, WorkoutType.HIIT, WorkoutType.BODY_WEIGHT));
+        PREFERRED_TYPES.put(PlanType.FLEXIBILITY, List.of(WorkoutType.YOGA, WorkoutType.MOBILITY));
+    }
+
+    private final WorkoutService workoutService;
+    private final int candidates;
+
+    @Autowired
+    public PlanScheduler(WorkoutService workoutService, @Value("${plan.scheduler.candidates:30}") int candidates) {
+        this.workoutService = workoutService;
+        this.candidates = candidates;
+    }
+
+    /**
+     * Returns an unsaved plan. Throws {@link IllegalStateException} when there are no stored workouts
+     * to schedule.
+     */
+    public Plan schedule(PlanType type, int weeks, int frequency, String experience) {
+        List<Workout> workouts = workoutService.getScheduleCandidates(PREFERRED_TYPES.get(type), candidates);
+        if (workouts.isEmpty()) {
+            throw new IllegalStateException("No stored workouts to schedule a plan from");
+        }
+        return schedule(type, weeks, frequency, experience, workouts);
+    }
+
+    Plan schedule(PlanType type, int weeks, int frequency, String experience, List<Workout> workouts) {
+        if (weeks <= 0) {
+            throw new IllegalArgumentException("Plan duration must be a positive number of weeks: " + weeks);
+        }
+        int sessionsPerWeek = Math.max(1, Math.min(7, frequency));
+
+        Plan plan = Plan.builder()
+                .name(capitalize(experience) + type.getDisplayName() + " " + weeks + "-Week Plan")
+                .description(String.format("%d training day%s a week for %d weeks, rotating %d workouts so that sessions close together work different muscles.",
+                        sessionsPerWeek, sessionsPerWeek == 1 ? "" : "s", weeks, workouts.size()))
+                .type(type)
+                .build();
+
+        boolean[] activeInWeek = new boolean[7];
+        for (int session = 0; session < sessionsPerWeek; session++) {
+            activeInWeek[session * 7 / sessionsPerWeek] = true;
+        }
+
+        List<Map<MuscleType, Double>> profiles = new ArrayList<>(workouts.size());
+        workouts.forEach(workout -> profiles.add(muscleProfile(workout)));
+        List<WorkoutType> preferred = PREFERRED_TYPES.getOrDefault(type, List.of());
+        int[] uses = new int[workouts.size()];
+        // Workout picked for each day so far, -1 when the day had none
+        int[] picked = new int[weeks * 7];
+
+        for (int day = 0; day < weeks * 7; day++) {
+            PlanDay planDay = PlanDay.builder()
+                    .dayNumber(day + 1)
+                    .plan(plan)
+                    .build();
+            picked[day] = -1;
+
+            if (activeInWeek[day % 7]) {
+                int best = pickWorkout(day, picked, workouts, profiles, preferred, uses);
+                picked[day] = best;
+                uses[best]++;
+                planDay.setType(PlanDayType.ACTIVE);
+                planDay.getWorkouts().add(workouts.get(best));
+            } else if (sessionsPerWeek >= 4 && day > 0 && picked[day - 1] >= 0) {
+                planDay.setType(PlanDayType.RECOVERY);
+            } else {
+                planDay.setType(PlanDayType.REST);
+            }
+            plan.getPlanDays().add(planDay);
+        }
+        return plan;
+    }
+
+    private static int pickWorkout(int day, int[] picked, List<Workout> workouts, List<Map<MuscleType, Double>> profiles, List<WorkoutType> preferred, int[] uses) {
+        int best = 0;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < workouts.size(); i++) {
+            double cost = 0.1 * uses[i];
+            for (int previous = Math.max(0, day - RECOVERY_WINDOW_DAYS); previous < day; previous++) {
+                if (picked[previous] >= 0) {
+                    double recency = previous == day - 1 ? 1.0 : 0.5;
+                    cost += recency * overlap(profiles.get(i), profiles.get(picked[previous]));
+                }
+            }
+            int preference = preferred.indexOf(workouts.get(i).getType());
+            cost += preference < 0 ? 0.5 : 0.05 * preference;
+
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Share of the workout's load on each muscle, weighting every target by its intensity's MET.
+     */
+    static Map<MuscleType, Double> muscleProfile(Workout workout) {
+        Map<MuscleType, Double> profile = new EnumMap<>(MuscleType.class);
+        double total = 0;
+        for (WorkoutExercise workoutExercise : workout.getWorkoutExercises()) {
+            if (workoutExercise.getExercise() == null) {
+                continue;
+            }
+            for (MuscleTarget target : workoutExercise.getExercise().getMuscleGroupTarget()) {
+                double load = target.getIntensity() != null ? target.getIntensity().getMet() : 1.0;
+                profile.merge(target.getMuscle(), load, Double::sum);
+                total += load;
+            }
+        }
+        if (total > 0) {
+            double sum = total;
+            profile.replaceAll((muscle, load) -> load / sum);
+        }
+        return profile;
+    }
+
+    // 0 when the workouts share no muscles, 1 when they load them identically
+    static double overlap(Map<MuscleType, Double> a, Map<MuscleType, Double> b) {
+        double overlap = 0;
+        for (Map.Entry<MuscleType, Double> entry : a.entrySet()) {
+            Double other = b.get(entry.getKey());
+            if (other != null) {
+                overlap += Math.min(entry.getValue(), other);
+            }
+        }
+        return overlap;
+    }
+
+    private static String capitalize(String experience) {
+        if (experience == null || experience.isBlank()) {
+            return "";
+        }
+        String trimmed = experience.trim();
+        return trimmed.substring(0, 1).toUpperCase(Locale.ROOT) + trimmed.substring(1).toLowerCase(Locale.ROOT) + " ";
+    }
+}
@@ -5,19 +5,33 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.workoutgensvc.core.AIService;
+import com.workoutgensvc.core.AIUnavailableException;
+import com.workoutgensvc.core.BatchNameResolver;
+import com.workoutgensvc.core.StreamingJsonArrayParser;
+import com.workoutgensvc.core.metrics.GenerationMetrics;
+import com.workoutgensvc.core.metrics.enums.DroppedElement;
+import com.workoutgensvc.core.metrics.enums.Pipeline;
+import com.workoutgensvc.core.metrics.enums.Stage;
 import com.workoutgensvc.plan.enums.PlanDayType;
 import com.workoutgensvc.plan.enums.PlanType;
 import com.workoutgensvc.workout.Workout;
 import com.workoutgensvc.workout.WorkoutService;
+import com.workoutgensvc.workout.enums.GenerationMode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
-import java.util.Optional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -26,91 +40,261 @@ public class PlanService {
     private final AIService aiService;
     private final WorkoutService workoutService;
     private final Gson gson;
+    private final PlanScheduler planScheduler;
+    private final GenerationMetrics generationMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean localFallback;
 
     @Autowired
-    public PlanService(PlanRepository planRepository, AIService aiService, WorkoutService workoutService, Gson gson) {
+    public PlanService(PlanRepository planRepository, AIService aiService, WorkoutService workoutService, Gson gson, PlanScheduler planScheduler, GenerationMetrics generationMetrics, TransactionTemplate transactionTemplate, @Value("${ai.plan.local-fallback:true}") boolean localFallback) {
         this.planRepository = planRepository;
         this.aiService = aiService;
         this.workoutService = workoutService;
         this.gson = gson;
+        this.planScheduler = planScheduler;
+        this.generationMetrics = generationMetrics;
+        this.transactionTemplate = transactionTemplate;
+        this.localFallback = localFallback;
     }
 
-    @Transactional
-    public Plan generatePlan(String duration, String frequency, String goals, String experience) {
+    /**
+     * Asks the LLM for a plan and saves it. The LLM call runs outside any transaction, so a slow answer
+     * holds no database connection; workouts are resolved and the plan saved in a short transaction
+     * once the answer is in.
+     */
+    public Plan generatePlan(String duration, String frequency, String goals, String experience, GenerationMode mode, boolean describe, boolean noCache) {
+        if (mode == GenerationMode.LOCAL) {
+            return schedulePlan(duration, frequency, goals, experience, describe, noCache);
+        }
+
         try {
-            String response = aiService.generatePlan(duration, frequency, goals, experience, workoutService.getAllNames());
-            response = response.replaceAll("```", "").replace("json\n", "");
-            JsonObject jsonObject = gson.fromJson(response, JsonObject.class);
+            String response = aiService.generatePlan(duration, frequency, goals, experience, workoutService.getAllNames(), noCache);
+            JsonObject jsonObject = generationMetrics.parse(Pipeline.PLAN, () -> gson.fromJson(response.replaceAll("```", "").replace("json\n", ""), JsonObject.class));
 
-            Plan plan = Plan.builder()
-                    .name(jsonObject.get("name").getAsString())
-                    .type(parsePlanType(goals))
-                    .build();
+            return transactionTemplate.execute(status -> savePlan(jsonObject, goals));
 
-            List<PlanDay> planDays = new ArrayList<>();
+        } catch (AIUnavailableException e) {
+            return scheduleInstead(e, duration, frequency, goals, experience, describe, noCache);
+        } catch (Exception e) {
+            log.error("Failed to parse AI response for plan generation", e);
+            throw new RuntimeException("Failed to generate plan from AI response", e);
+        }
+    }
 
-            if (jsonObject.has("planDays")) {
-                JsonArray planDaysArray = jsonObject.getAsJsonArray("planDays");
+    private Plan savePlan(JsonObject jsonObject, String goals) {
+        Plan plan = Plan.builder()
+                .name(jsonObject.get("name").getAsString())
+                .type(parsePlanType(goals))
+                .build();
 
-                for (JsonElement planDayElement : planDaysArray) {
-                    try {
-                        JsonObject jsonPlanDay = planDayElement.getAsJsonObject();
-
-                        PlanDay planDay = PlanDay.builder()
-                                .dayNumber(jsonPlanDay.get("dayNumber").getAsInt())
-                                .type(PlanDayType.valueOf(jsonPlanDay.get("type").getAsString()))
-                                .plan(plan)
-                                .build();
-
-                        if (jsonPlanDay.has("workoutNames")) {
-                            List<Workout> associatedWorkouts = new ArrayList<>();
-                            JsonArray workoutNamesArray = jsonPlanDay.getAsJsonArray("workoutNames");
-
-                            for (JsonElement workoutNameElement : workoutNamesArray) {
-                                String workoutName = workoutNameElement.getAsString();
-                                Optional<Workout> workoutOptional = workoutService.getByName(workoutName);
-
-                                if (workoutOptional.isPresent()) {
-                                    associatedWorkouts.add(workoutOptional.get());
-                                } else {
-                                    log.warn("Workout '{}' not found for plan day {}. Available workouts: {}",
-                                            workoutName, planDay.getDayNumber(),
-                                            workoutService.getAllNames());
-                                }
-                            }
-                            planDay.setWorkouts(associatedWorkouts);
+        List<PlanDay> planDays = new ArrayList<>();
+
+        if (jsonObject.has("planDays")) {
+            JsonArray planDaysArray = jsonObject.getAsJsonArray("planDays");
+
+            // Every workout named anywhere in the plan is resolved in one query
+            BatchNameResolver<Workout> workouts = workoutService.nameResolver();
+            List<String> workoutNames = new ArrayList<>();
+            for (JsonElement planDayElement : planDaysArray) {
+                // Malformed days are skipped here and dropped one by one below
+                JsonElement dayWorkoutNames = planDayElement.isJsonObject() ? planDayElement.getAsJsonObject().get("workoutNames") : null;
+                if (dayWorkoutNames != null && dayWorkoutNames.isJsonArray()) {
+                    dayWorkoutNames.getAsJsonArray().forEach(name -> {
+                        if (name.isJsonPrimitive()) {
+                            workoutNames.add(name.getAsString());
                         }
+                    });
+                }
+            }
+            generationMetrics.time(Pipeline.PLAN, Stage.RESOLVE, () -> workouts.prefetch(workoutNames));
 
-                        planDays.add(planDay);
+            generationMetrics.time(Pipeline.PLAN, Stage.MATERIALIZE, () -> {
+                for (JsonElement planDayElement : planDaysArray) {
+                    try {
+                        planDays.add(toPlanDay(planDayElement.getAsJsonObject(), plan, workouts));
                     } catch (Exception e) {
                         log.warn("Failed to process plan day: {}", planDayElement, e);
+                        generationMetrics.dropped(DroppedElement.PLAN_DAY);
                     }
                 }
+            });
+        }
+
+        plan.setPlanDays(planDays);
+        return generationMetrics.time(Pipeline.PLAN, Stage.PERSIST, () -> saveAndInitialize(plan));
+    }
+
+    /**
+     * Streaming variant of {@link #generatePlan}: each plan day is built and passed to {@code onPlanDay}
+     * as soon as the model finishes emitting it, and the complete plan is saved once the stream ends.
+     * Scheduled plans pass all their days at once. Workouts are resolved, with their exercises, in
+     * read-only transactions of their own while the stream runs, and the plan is saved in a short one
+     * after it ends.
+     */
+    public Plan streamPlan(String duration, String frequency, String goals, String experience, GenerationMode mode, boolean describe, boolean noCache, Consumer<PlanDay> onPlanDay) {
+        if (mode == GenerationMode.LOCAL) {
+            return emitAll(schedulePlan(duration, frequency, goals, experience, describe, noCache), onPlanDay);
+        }
+
+        Plan plan = Plan.builder()
+                .type(parsePlanType(goals))
+                .build();
+
+        List<PlanDay> planDays = new ArrayList<>();
+        // Days arrive one at a time, so each day's new workout names are resolved together. The days are
+        // mapped as they are sent, so the workouts' exercises come along
+        BatchNameResolver<Workout> workouts = new BatchNameResolver<>(workoutService::getByNamesWithExercises);
+        StreamingJsonArrayParser parser = new StreamingJsonArrayParser("planDays", jsonPlanDay -> {
+            PlanDay planDay;
+            try {
+                planDay = toPlanDay(jsonPlanDay, plan, workouts);
+            } catch (Exception e) {
+                log.warn("Failed to process plan day: {}", jsonPlanDay, e);
+                generationMetrics.dropped(DroppedElement.PLAN_DAY);
+                return;
             }
+            planDays.add(planDay);
+            onPlanDay.accept(planDay);
+        });
 
-            plan.setPlanDays(planDays);
-            Plan savedPlan = planRepository.save(plan);
-
-            savedPlan.getPlanDays().forEach(planDay -> {
-                planDay.getWorkouts().forEach(workout -> {
-                    workout.getWorkoutExercises().forEach(workoutExercise -> {
-                        if (workoutExercise.getExercise() != null) {
-                            workoutExercise.getExercise().getName(); // Touch basic properties
-                            workoutExercise.getExercise().getMuscleGroupTarget().size();
-                        }
-                    });
-                });
-            });
+        try {
+            aiService.streamPlan(duration, frequency, goals, experience, workoutService.getAllNames(), noCache, parser::feed);
 
-            return savedPlan;
+            JsonObject jsonObject = generationMetrics.parse(Pipeline.PLAN, () -> gson.fromJson(parser.getText().replaceAll("```", "").replace("json\n", ""), JsonObject.class));
 
+            plan.setName(jsonObject.get("name").getAsString());
+            plan.setPlanDays(planDays);
+            return generationMetrics.time(Pipeline.PLAN, Stage.PERSIST, () -> transactionTemplate.execute(status -> planRepository.save(plan)));
+
+        } catch (AIUnavailableException e) {
+            // Only when nothing has been sent yet; a half-streamed plan cannot be swapped for another
+            if (!planDays.isEmpty()) {
+                throw new RuntimeException("Failed to generate plan from AI response", e);
+            }
+            return emitAll(scheduleInstead(e, duration, frequency, goals, experience, describe, noCache), onPlanDay);
         } catch (Exception e) {
-            log.error("Failed to parse AI response for plan generation", e);
+            log.error("Failed to parse streamed AI response for plan generation", e);
+            throw new RuntimeException("Failed to generate plan from AI response", e);
+        }
+    }
+
+    /**
+     * Lays out and saves a plan with the {@link PlanScheduler} from stored workouts. The LLM is only
+     * asked for the plan's name and description when {@code describe} is set, and the scheduler's own
+     * are kept if that call fails. That call is made before the plan is saved, outside the transaction.
+     */
+    public Plan schedulePlan(String duration, String frequency, String goals, String experience, boolean describe, boolean noCache) {
+        Plan plan = planScheduler.schedule(parsePlanType(goals), parseCount(duration, "Plan duration"), parseCount(frequency, "Training frequency"), experience);
+        if (describe) {
+            describe(plan, duration, frequency, goals, experience, noCache);
+        }
+        return transactionTemplate.execute(status -> saveAndInitialize(plan));
+    }
+
+    private Plan scheduleInstead(AIUnavailableException e, String duration, String frequency, String goals, String experience, boolean describe, boolean noCache) {
+        if (!localFallback) {
             throw new RuntimeException("Failed to generate plan from AI response", e);
         }
+        log.warn("AI unavailable, scheduling the plan locally: {}", e.getMessage());
+        // Naming would hit the same unavailable service
+        return schedulePlan(duration, frequency, goals, experience, false, noCache);
+    }
+
+    private void describe(Plan plan, String duration, String frequency, String goals, String experience, boolean noCache) {
+        Set<String> workoutNames = new LinkedHashSet<>();
+        plan.getPlanDays().forEach(planDay -> planDay.getWorkouts().forEach(workout -> workoutNames.add(workout.getName())));
+        try {
+            String response = aiService.describePlan(duration, frequency, goals, experience, String.join(", ", workoutNames), noCache);
+            JsonObject jsonObject = generationMetrics.parse(Pipeline.PLAN_DESCRIPTION, () -> gson.fromJson(response.replaceAll("```", "").replace("json\n", ""), JsonObject.class));
+
+            if (jsonObject.has("name") && !jsonObject.get("name").getAsString().isBlank()) {
+                plan.setName(jsonObject.get("name").getAsString());
+            }
+            if (jsonObject.has("description")) {
+                plan.setDescription(jsonObject.get("description").getAsString());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to describe scheduled plan, keeping '{}'", plan.getName(), e);
+        }
+    }
+
+    private static Plan emitAll(Plan plan, Consumer<PlanDay> onPlanDay) {
+        plan.getPlanDays().forEach(onPlanDay);
+        return plan;
+    }
+
+    private PlanDay toPlanDay(JsonObject jsonPlanDay, Plan plan, BatchNameResolver<Workout> workouts) {
+        PlanDay planDay = PlanDay.builder()
+                .dayNumber(jsonPlanDay.get("dayNumber").getAsInt())
+                .type(PlanDayType.valueOf(jsonPlanDay.get("type").getAsString()))
+                .plan(plan)
+                .build();
+
+        if (jsonPlanDay.has("workoutNames")) {
+            List<Workout> associatedWorkouts = new ArrayList<>();
+            JsonArray workoutNamesArray = jsonPlanDay.getAsJsonArray("workoutNames");
+
+            List<String> workoutNames = new ArrayList<>();
+            workoutNamesArray.forEach(name -> workoutNames.add(name.getAsString()));
+            workouts.prefetch(workoutNames);
+
+            for (String workoutName : workoutNames) {
+                Optional<Workout> workoutOptional = workouts.get(workoutName);
+
+                if (workoutOptional.isPresent()) {
+                    associatedWorkouts.add(workoutOptional.get());
+                } else {
+                    log.warn("Workout '{}' not found for plan day {}. Available workouts: {}",
+                            workoutName, planDay.getDayNumber(),
+                            workoutService.getAllNames());
+                    generationMetrics.dropped(DroppedElement.PLAN_WORKOUT);
+                }
+            }
+            planDay.setWorkouts(associatedWorkouts);
+        }
+
+        return planDay;
+    }
+
+    /**
+     * Loads a plan with its days, their workouts and the workouts' exercises in three queries, however
+     * long the plan is, so the result can be mapped with {@link com.workoutgensvc.plan.dto.PlanDto#from}
+     * outside the transaction.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Plan> getPlan(UUID id) {
+        Optional<Plan> plan = planRepository.findWithDaysById(id);
+        plan.ifPresent(found -> {
+            planRepository.fetchWorkouts(found);
+            fetchWorkoutExercises(found);
+        });
+        return plan;
+    }
+
+    private Plan saveAndInitialize(Plan plan) {
+        Plan savedPlan = planRepository.save(plan);
+        // Days and their workout lists were built in memory; only the workouts' exercises are still lazy
+        fetchWorkoutExercises(savedPlan);
+        return savedPlan;
+    }
+
+    private void fetchWorkoutExercises(Plan plan) {
+        Set<UUID> workoutIds = new HashSet<>();
+        plan.getPlanDays().forEach(planDay -> planDay.getWorkouts().forEach(workout -> workoutIds.add(workout.getId())));
+        if (!workoutIds.isEmpty()) {
+            workoutService.fetchWorkoutExercises(workoutIds);
+        }
+    }
+
+    private static int parseCount(String value, String what) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IllegalArgumentException(what + " must be a whole number: " + value);
+        }
     }
 
-    private PlanType parsePlanType(String goals) {
+    static PlanType parsePlanType(String goals) {
         if (goals == null || goals.trim().isEmpty()) {
             throw new IllegalArgumentException("Plan goals cannot be null or empty");
         }
@@ -4,6 +4,7 @@ import com.workoutgensvc.core.AIService;
 import com.workoutgensvc.core.AIProcessManager;
 import com.workoutgensvc.exercise.dto.ExerciseDto;
 import com.workoutgensvc.exercise.Exercise;
+import com.workoutgensvc.exercise.ExerciseOptions;
 import com.workoutgensvc.exercise.ExerciseService;
 import com.workoutgensvc.plan.dto.PlanDto;
 import com.workoutgensvc.plan.Plan;
@@ -11,6 +12,7 @@ import com.workoutgensvc.plan.PlanService;
 import com.workoutgensvc.workout.dto.WorkoutDto;
 import com.workoutgensvc.workout.Workout;
 import com.workoutgensvc.workout.WorkoutService;
+import com.workoutgensvc.workout.enums.GenerationMode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -48,9 +50,9 @@ public class AppWebController {
     @GetMapping("/exercises")
     public String exercisesPage(Model model) {
         model.addAttribute("title", "Generate Exercise");
-        model.addAttribute("muscleGroups", List.of("Chest", "Back", "Shoulders", "Arms", "Legs", "Core", "Full Body"));
-        model.addAttribute("difficulties", List.of("Beginner", "Intermediate", "Advanced"));
-        model.addAttribute("equipment", List.of("Bodyweight", "Dumbbells", "Barbell", "Machine", "Cable", "Kettlebell"));
+        model.addAttribute("muscleGroups", ExerciseOptions.MUSCLE_GROUPS);
+        model.addAttribute("difficulties", ExerciseOptions.DIFFICULTIES);
+        model.addAttribute("equipment", ExerciseOptions.EQUIPMENT);
         return "exercises";
     }
 
@@ -66,7 +68,7 @@ public class AppWebController {
             log.info("Generating exercise: muscleGroup={}, difficulty={}, equipment={}",
                     muscleGroup, difficulty, equipment);
 
-            Exercise exercise = exerciseService.generateExercise(muscleGroup, difficulty, equipment);
+            Exercise exercise = exerciseService.generateExercise(muscleGroup, difficulty, equipment, false);
             ExerciseDto exerciseDto = ExerciseDto.from(exercise);
 
             model.addAttribute("exercise", exerciseDto);
@@ -77,9 +79,9 @@ public class AppWebController {
             model.addAttribute("selectedMuscleGroup", muscleGroup);
             model.addAttribute("selectedDifficulty", difficulty);
             model.addAttribute("selectedEquipment", equipment);
-            model.addAttribute("muscleGroups", List.of("Chest", "Back", "Shoulders", "Arms", "Legs", "Core", "Full Body"));
-            model.addAttribute("difficulties", List.of("Beginner", "Intermediate", "Advanced"));
-            model.addAttribute("equipment", List.of("Bodyweight", "Dumbbells", "Barbell", "Machine", "Cable", "Kettlebell"));
+            model.addAttribute("muscleGroups", ExerciseOptions.MUSCLE_GROUPS);
+            model.addAttribute("difficulties", ExerciseOptions.DIFFICULTIES);
+            model.addAttribute("equipment", ExerciseOptions.EQUIPMENT);
 
             return "exercises";
         } catch (Exception e) {
@@ -112,7 +114,7 @@ public class AppWebController {
             log.info("Generating workout: type={}, duration={}, fitnessLevel={}, goals={}",
                     type, duration, fitnessLevel, goals);
 
-            Workout workout = workoutService.generateWorkout(type, duration, fitnessLevel, goals);
+            Workout workout = workoutService.generateWorkout(type, duration, fitnessLevel, goals, null, GenerationMode.AI, false);
             WorkoutDto workoutDto = WorkoutDto.from(workout);
 
             model.addAttribute("workout", workoutDto);
@@ -160,7 +162,7 @@ public class AppWebController {
             log.info("Generating plan: duration={}, frequency={}, goals={}, experience={}",
                     duration, frequency, goals, experience);
 
-            Plan plan = planService.generatePlan(duration, frequency, goals, experience);
+            Plan plan = planService.generatePlan(duration, frequency, goals, experience, GenerationMode.AI, false, false);
             PlanDto planDto = PlanDto.from(plan);
 
             model.addAttribute("plan", planDto);
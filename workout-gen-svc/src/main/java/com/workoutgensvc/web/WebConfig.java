@@ -0,0 +1,25 @@
+package com.workoutgensvc.web;
+
+import com.workoutgensvc.web.ratelimit.GenerationRateLimitInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    private final GenerationRateLimitInterceptor generationRateLimitInterceptor;
+
+    public WebConfig(GenerationRateLimitInterceptor generationRateLimitInterceptor) {
+        this.generationRateLimitInterceptor = generationRateLimitInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Generation endpoints, and job submissions, which pay from the same bucket; the calorie recompute
+        // calls no LLM
+        registry.addInterceptor(generationRateLimitInterceptor).addPathPatterns(
+                "/api/v1/ai/exercises", "/api/v1/ai/workouts", "/api/v1/ai/workouts/stream", "/api/v1/ai/plans", "/api/v1/ai/plans/stream",
+                "/api/v1/ai/jobs/exercises", "/api/v1/ai/jobs/workouts", "/api/v1/ai/jobs/plans",
+                "/exercises/generate", "/workouts/generate", "/plans/generate");
+    }
+}
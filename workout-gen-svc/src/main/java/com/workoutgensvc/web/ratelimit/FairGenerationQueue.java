@@ -0,0 +1,155 @@
+package com.workoutgensvc.web.ratelimit;
+
+import com.workoutgensvc.web.ratelimit.enums.Admission;
+import com.workoutgensvc.web.ratelimit.enums.GenerationKind;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Weighted fair queue in front of generation. At most {@code maxConcurrent} generations run at once;
+ * when all slots are taken, requests wait and the next free slot goes to the waiter with the earliest
+ * virtual finish time. A request starts where its client's previous request finished, or at the
+ * current virtual time if that is later, and finishes its kind's cost later. A cheap exercise thus
+ * overtakes queued plans, and a client queueing many requests does not hold back one queueing a few.
+ * <p>
+ * A {@link ReentrantLock} rather than {@code synchronized}, so that waiting virtual threads do not pin
+ * their carrier threads.
+ */
+public class FairGenerationQueue {
+    private final int maxConcurrent;
+    private final int maxQueueLength;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> waiting = new PriorityQueue<>(Comparator.comparingDouble(Waiter::finish).thenComparingLong(Waiter::sequence));
+    private final Map<String, Double> lastFinish = new HashMap<>();
+
+    private int available;
+    private double virtualTime;
+    private long nextSequence;
+
+    public FairGenerationQueue(int maxConcurrent, int maxQueueLength) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueueLength = maxQueueLength;
+        this.available = maxConcurrent;
+    }
+
+    /**
+     * Takes a generation slot for {@code client}, waiting up to {@code maxWait} for one. Every
+     * {@link Admission#ADMITTED} must be followed by a {@link #release()}.
+     */
+    public Admission acquire(String client, GenerationKind kind, Duration maxWait) {
+        lock.lock();
+        try {
+            double start = Math.max(virtualTime, lastFinish.getOrDefault(client, virtualTime));
+            double finish = start + kind.getCost();
+            if (waiting.isEmpty() && available > 0) {
+                available--;
+                lastFinish.put(client, finish);
+                virtualTime = start;
+                return Admission.ADMITTED;
+            }
+            if (waiting.size() >= maxQueueLength) {
+                return Admission.QUEUE_FULL;
+            }
+
+            lastFinish.put(client, finish);
+            Waiter waiter = new Waiter(start, finish, nextSequence++, lock.newCondition());
+            waiting.add(waiter);
+            long remaining = maxWait.toNanos();
+            try {
+                while (!waiter.granted) {
+                    if (remaining <= 0) {
+                        waiting.remove(waiter);
+                        return Admission.TIMED_OUT;
+                    }
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (waiter.granted) {
+                    releaseLocked();
+                } else {
+                    waiting.remove(waiter);
+                }
+                return Admission.TIMED_OUT;
+            }
+            return Admission.ADMITTED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands the slot to the next waiter, or frees it.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            releaseLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInUse() {
+        lock.lock();
+        try {
+            return maxConcurrent - available;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseLocked() {
+        Waiter next = waiting.poll();
+        if (next != null) {
+            next.granted = true;
+            virtualTime = Math.max(virtualTime, next.start);
+            next.condition.signal();
+            return;
+        }
+        available++;
+        if (available == maxConcurrent) {
+            // Idle: nobody is owed anything, start the virtual clock over
+            lastFinish.clear();
+            virtualTime = 0;
+        }
+    }
+
+    private static final class Waiter {
+        private final double start;
+        private final double finish;
+        private final long sequence;
+        private final Condition condition;
+        private boolean granted;
+
+        private Waiter(double start, double finish, long sequence, Condition condition) {
+            this.start = start;
+            this.finish = finish;
+            this.sequence = sequence;
+            this.condition = condition;
+        }
+
+        double finish() {
+            return finish;
+        }
+
+        long sequence() {
+            return sequence;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.workoutgensvc.web.ratelimit;
+
+import com.workoutgensvc.web.ratelimit.enums.Admission;
+import com.workoutgensvc.web.ratelimit.enums.GenerationKind;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limiting for generation requests. Each client, known by its API key header if the key is a
+ * configured one or else by its remote address, has a {@link TokenBucket}; a request takes its {@link GenerationKind}'s cost or is
+ * refused with 429 and a Retry-After. Admitted requests then wait for a generation slot in the
+ * {@link FairGenerationQueue}, which answers 503 when it is full or the wait runs out. The slot is
+ * held until the response is complete, including the whole of an SSE stream. Job submissions pay
+ * from the bucket like the synchronous endpoints, but take no slot: the job executor bounds them.
+ * <p>
+ * API requests are refused with the same JSON body as other errors; form posts from the web UI are
+ * redirected back to their page with the message.
+ */
+@Slf4j
+public class GenerationRateLimitInterceptor implements HandlerInterceptor {
+    private static final String SLOT_ATTRIBUTE = GenerationRateLimitInterceptor.class.getName() + ".slot";
+    private static final String JOBS_PATH = "/api/v1/ai/jobs/";
+
+    private final RateLimitSettings settings;
+    private final FairGenerationQueue queue;
+    private final LongSupplier clock;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final Map<GenerationKind, Timer> queueWaits = new EnumMap<>(GenerationKind.class);
+    private final Map<GenerationKind, Counter> rateLimited = new EnumMap<>(GenerationKind.class);
+    private final Map<GenerationKind, Counter> queueFull = new EnumMap<>(GenerationKind.class);
+    private final Map<GenerationKind, Counter> queueTimeouts = new EnumMap<>(GenerationKind.class);
+
+    public GenerationRateLimitInterceptor(RateLimitSettings settings, MeterRegistry meterRegistry) {
+        this(settings, meterRegistry, System::nanoTime);
+    }
+
+    GenerationRateLimitInterceptor(RateLimitSettings settings, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.settings = settings;
+        this.queue = new FairGenerationQueue(settings.getMaxConcurrent(), settings.getMaxQueueLength());
+        this.clock = clock;
+
+        for (GenerationKind kind : GenerationKind.values()) {
+            String tag = kind.name().toLowerCase(Locale.ROOT);
+            queueWaits.put(kind, Timer.builder("ai.rate-limit.queue.wait").tag("kind", tag)
+                    .description("Time generation requests waited for a slot in the fair queue")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            rateLimited.put(kind, rejections(meterRegistry, kind, "rate_limited"));
+            queueFull.put(kind, rejections(meterRegistry, kind, "queue_full"));
+            queueTimeouts.put(kind, rejections(meterRegistry, kind, "queue_timeout"));
+        }
+        Gauge.builder("ai.rate-limit.queue.waiting", queue, FairGenerationQueue::getWaiting)
+                .description("Generation requests waiting for a slot").register(meterRegistry);
+        Gauge.builder("ai.rate-limit.queue.in-use", queue, FairGenerationQueue::getInUse)
+                .description("Generation slots taken").register(meterRegistry);
+        Gauge.builder("ai.rate-limit.queue.limit", settings, RateLimitSettings::getMaxConcurrent)
+                .description("Generation slots in the fair queue").register(meterRegistry);
+        Gauge.builder("ai.rate-limit.bucket.capacity", settings, RateLimitSettings::getBucketCapacity)
+                .description("Tokens in a full client bucket").register(meterRegistry);
+        Gauge.builder("ai.rate-limit.bucket.refill", settings, RateLimitSettings::getRefillPerMinute)
+                .description("Tokens added to each client bucket per minute").register(meterRegistry);
+        Gauge.builder("ai.rate-limit.clients", buckets, Map::size)
+                .description("Clients with a token bucket").register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        // An SSE stream completing dispatches again; its slot was taken on the first dispatch
+        if (!settings.isEnabled() || request.getDispatcherType() == DispatcherType.ASYNC || !"POST".equals(request.getMethod())) {
+            return true;
+        }
+        GenerationKind kind = GenerationKind.fromPath(request.getRequestURI());
+        if (kind == null) {
+            return true;
+        }
+
+        String client = clientId(request);
+        long now = clock.getAsLong();
+        long retryAfterNanos = buckets.computeIfAbsent(client, c -> new TokenBucket(settings.getBucketCapacity(), settings.getRefillPerMinute(), now))
+                .tryConsume(kind.getCost(), now);
+        if (retryAfterNanos > 0) {
+            rateLimited.get(kind).increment();
+            long retryAfterSeconds = Math.max(1, (retryAfterNanos + 999_999_999) / 1_000_000_000);
+            log.debug("Rate limited {} request from {}; retry after {} s", kind, request.getRemoteAddr(), retryAfterSeconds);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            refuse(request, response, HttpStatus.TOO_MANY_REQUESTS, "RATE_LIMITED", "Too many generation requests, try again in " + retryAfterSeconds + " s");
+            return false;
+        }
+        if (request.getRequestURI().startsWith(request.getContextPath() + JOBS_PATH)) {
+            return true;
+        }
+
+        Admission admission = queue.acquire(client, kind, settings.getMaxQueueWait());
+        queueWaits.get(kind).record(clock.getAsLong() - now, TimeUnit.NANOSECONDS);
+        switch (admission) {
+            case ADMITTED -> {
+                request.setAttribute(SLOT_ATTRIBUTE, kind);
+                return true;
+            }
+            case QUEUE_FULL -> queueFull.get(kind).increment();
+            case TIMED_OUT -> queueTimeouts.get(kind).increment();
+        }
+        log.warn("Refused {} request from {}: {}", kind, request.getRemoteAddr(), admission);
+        refuse(request, response, HttpStatus.SERVICE_UNAVAILABLE, "QUEUE_FULL", "Too many generation requests in progress, try again later");
+        return false;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        // Not called when an SSE stream starts, only once it has finished
+        if (request.getAttribute(SLOT_ATTRIBUTE) != null && !request.isAsyncStarted()) {
+            request.removeAttribute(SLOT_ATTRIBUTE);
+            queue.release();
+        }
+    }
+
+    /**
+     * Drops the buckets of clients that have been idle for {@code clientIdleTtl}.
+     */
+    @Scheduled(fixedDelayString = "${ai.rate-limit.cleanup-interval:60s}")
+    public void evictIdleClients() {
+        long now = clock.getAsLong();
+        long idleNanos = settings.getClientIdleTtl().toNanos();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+    }
+
+    private String clientId(HttpServletRequest request) {
+        String apiKey = request.getHeader(settings.getApiKeyHeader());
+        if (apiKey != null && settings.getApiKeys().contains(apiKey.trim())) {
+            return "key:" + apiKey.trim();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static void refuse(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String type, String message) throws IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith("/api/")) {
+            String page = request.getContextPath() + path.replaceFirst("/generate$", "");
+            RequestContextUtils.getOutputFlashMap(request).put("error", message);
+            RequestContextUtils.saveOutputFlashMap(page, request, response);
+            response.sendRedirect(page);
+            return;
+        }
+
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"error\":\"" + status.getReasonPhrase() + "\",\"message\":\"" + message + "\",\"type\":\"" + type + "\"}");
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, GenerationKind kind, String reason) {
+        return Counter.builder("ai.rate-limit.rejections").tag("kind", kind.name().toLowerCase(Locale.ROOT)).tag("reason", reason)
+                .description("Generation requests refused by the rate limiter or the fair queue").register(meterRegistry);
+    }
+}
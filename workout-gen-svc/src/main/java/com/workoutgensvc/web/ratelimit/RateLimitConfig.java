@@ -0,0 +1,46 @@
+package com.workoutgensvc.web.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Slf4j
+@Configuration
+public class RateLimitConfig {
+    @Bean
+    public GenerationRateLimitInterceptor generationRateLimitInterceptor(
+            MeterRegistry meterRegistry,
+            @Value("${ai.rate-limit.enabled:true}") boolean enabled,
+            @Value("${ai.rate-limit.bucket.capacity:20}") int bucketCapacity,
+            @Value("${ai.rate-limit.bucket.refill-per-minute:30}") double refillPerMinute,
+            @Value("${ai.rate-limit.api-key-header:X-API-Key}") String apiKeyHeader,
+            @Value("${ai.rate-limit.api-keys:}") Set<String> apiKeys,
+            @Value("${ai.rate-limit.client-idle-ttl:10m}") Duration clientIdleTtl,
+            @Value("${ai.rate-limit.queue.max-concurrent:8}") int maxConcurrent,
+            @Value("${ai.rate-limit.queue.max-length:50}") int maxQueueLength,
+            @Value("${ai.rate-limit.queue.max-wait:5s}") Duration maxQueueWait,
+            @Value("${server.tomcat.threads.max:200}") int maxServletThreads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        // Queued requests park platform servlet threads; with too many of them the rest of the API starves
+        if (enabled && !virtualThreads && maxConcurrent + maxQueueLength > maxServletThreads / 2) {
+            log.warn("ai.rate-limit.queue.max-concurrent + max-length ({}) is over half of server.tomcat.threads.max ({}); "
+                    + "a full generation queue can leave too few threads for other requests", maxConcurrent + maxQueueLength, maxServletThreads);
+        }
+        return new GenerationRateLimitInterceptor(RateLimitSettings.builder()
+                .enabled(enabled)
+                .bucketCapacity(bucketCapacity)
+                .refillPerMinute(refillPerMinute)
+                .apiKeyHeader(apiKeyHeader)
+                .apiKeys(apiKeys)
+                .clientIdleTtl(clientIdleTtl)
+                .maxConcurrent(maxConcurrent)
+                .maxQueueLength(maxQueueLength)
+                .maxQueueWait(maxQueueWait)
+                .build(), meterRegistry);
+    }
+}
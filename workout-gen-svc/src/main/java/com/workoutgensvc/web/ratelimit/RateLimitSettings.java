@@ -0,0 +1,39 @@
+package com.workoutgensvc.web.ratelimit;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Builder
+@Getter
+public class RateLimitSettings {
+    @Builder.Default
+    private boolean enabled = true;
+
+    // Token bucket per client: a full bucket allows a burst of this many tokens, refilled at a steady rate
+    @Builder.Default
+    private int bucketCapacity = 20;
+    @Builder.Default
+    private double refillPerMinute = 30;
+    // Clients are told apart by this header when it holds one of apiKeys, otherwise by remote address;
+    // an unknown key would otherwise buy a fresh bucket with every request
+    @Builder.Default
+    private String apiKeyHeader = "X-API-Key";
+    @Builder.Default
+    private Set<String> apiKeys = Set.of();
+    // Buckets of clients idle this long are dropped; they come back full
+    @Builder.Default
+    private Duration clientIdleTtl = Duration.ofMinutes(10);
+
+    // Fair queue: generations running at once, requests allowed to wait, and how long each may wait.
+    // A waiting request parks a servlet thread, so maxConcurrent + maxQueueLength must stay well under
+    // server.tomcat.threads.max, and a short wait frees threads sooner when chat2api is slow
+    @Builder.Default
+    private int maxConcurrent = 8;
+    @Builder.Default
+    private int maxQueueLength = 50;
+    @Builder.Default
+    private Duration maxQueueWait = Duration.ofSeconds(5);
+}
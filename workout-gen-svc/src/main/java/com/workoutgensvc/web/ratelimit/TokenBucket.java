@@ -0,0 +1,50 @@
+package com.workoutgensvc.web.ratelimit;
+
+/**
+ * One client's token bucket. Tokens refill continuously up to the capacity; a request takes its
+ * cost from the bucket or is refused.
+ */
+class TokenBucket {
+    private final double capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(int capacity, double refillPerMinute, long now) {
+        if (capacity <= 0 || refillPerMinute <= 0) {
+            throw new IllegalArgumentException("Token bucket needs a positive capacity and refill rate");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / 60_000_000_000.0;
+        this.tokens = capacity;
+        this.lastRefill = now;
+    }
+
+    /**
+     * Takes {@code cost} tokens if the bucket holds them. A cost above the capacity takes a full bucket.
+     *
+     * @return 0 if they were taken, otherwise nanoseconds until the bucket will hold them
+     */
+    synchronized long tryConsume(int cost, long now) {
+        refill(now);
+        double needed = Math.min(cost, capacity);
+        if (tokens >= needed) {
+            tokens -= needed;
+            return 0;
+        }
+        return (long) Math.ceil((needed - tokens) / tokensPerNano);
+    }
+
+    synchronized boolean isIdle(long now, long idleNanos) {
+        return now - lastRefill > idleNanos;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefill;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.workoutgensvc.web.ratelimit.enums;
+
+public enum Admission {
+    ADMITTED,
+    // As many requests are already waiting as the queue holds
+    QUEUE_FULL,
+    // No generation slot came free within the maximum wait
+    TIMED_OUT
+}
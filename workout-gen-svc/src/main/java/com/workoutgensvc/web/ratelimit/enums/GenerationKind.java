@@ -0,0 +1,31 @@
+package com.workoutgensvc.web.ratelimit.enums;
+
+import lombok.Getter;
+
+/**
+ * What a rate-limited request generates. The cost, roughly its share of LLM time, is what it takes
+ * from the client's token bucket and how far it moves the client along in the fair queue.
+ */
+@Getter
+public enum GenerationKind {
+    EXERCISE("/exercises", 1),
+    WORKOUT("/workouts", 3),
+    PLAN("/plans", 8);
+
+    private final String pathSegment;
+    private final int cost;
+
+    GenerationKind(String pathSegment, int cost) {
+        this.pathSegment = pathSegment;
+        this.cost = cost;
+    }
+
+    public static GenerationKind fromPath(String path) {
+        for (GenerationKind kind : values()) {
+            if (path.contains(kind.pathSegment)) {
+                return kind;
+            }
+        }
+        return null;
+    }
+}
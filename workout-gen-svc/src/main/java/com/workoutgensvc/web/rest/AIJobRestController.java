@@ -0,0 +1,117 @@
+package com.workoutgensvc.web.rest;
+
+import com.workoutgensvc.core.job.GenerationJob;
+import com.workoutgensvc.core.job.GenerationJobService;
+import com.workoutgensvc.core.job.dto.GenerationJobDto;
+import com.workoutgensvc.core.job.enums.JobType;
+import com.workoutgensvc.exercise.ExerciseService;
+import com.workoutgensvc.exercise.dto.ExerciseDto;
+import com.workoutgensvc.plan.PlanService;
+import com.workoutgensvc.plan.dto.PlanDto;
+import com.workoutgensvc.workout.WorkoutService;
+import com.workoutgensvc.workout.enums.GenerationMode;
+import com.workoutgensvc.workout.dto.WorkoutDto;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/ai/jobs")
+@Validated
+public class AIJobRestController {
+    private final GenerationJobService generationJobService;
+    private final ExerciseService exerciseService;
+    private final WorkoutService workoutService;
+    private final PlanService planService;
+    private final Duration maxWait;
+
+    @Autowired
+    public AIJobRestController(GenerationJobService generationJobService, ExerciseService exerciseService, WorkoutService workoutService, PlanService planService, @Value("${ai.jobs.max-wait:30s}") Duration maxWait) {
+        this.generationJobService = generationJobService;
+        this.exerciseService = exerciseService;
+        this.workoutService = workoutService;
+        this.planService = planService;
+        this.maxWait = maxWait;
+    }
+
+    @PostMapping("/exercises")
+    public ResponseEntity<GenerationJobDto> submitExercise(@RequestParam @NotBlank(message = "Muscle group is required") String muscleGroup, @RequestParam(defaultValue = "intermediate") String difficulty, @RequestParam(defaultValue = "bodyweight") String equipment, @RequestParam(defaultValue = "false") boolean noCache) {
+        log.info("Queueing AI exercise job for muscleGroup: {}, difficulty: {}, equipment: {}", muscleGroup, difficulty, equipment);
+
+        return accepted(generationJobService.submit(JobType.EXERCISE,
+                () -> ExerciseDto.from(exerciseService.generateExercise(muscleGroup, difficulty, equipment, noCache))));
+    }
+
+    @PostMapping("/workouts")
+    public ResponseEntity<GenerationJobDto> submitWorkout(@RequestParam @NotBlank(message = "Workout type is required") String type, @RequestParam(defaultValue = "45") String duration, @RequestParam(defaultValue = "intermediate") String fitnessLevel, @RequestParam @NotBlank(message = "Goals are required") String goals, @RequestParam(required = false) @Positive Double bodyWeightKg, @RequestParam(defaultValue = "ai") String mode, @RequestParam(defaultValue = "false") boolean noCache) {
+        GenerationMode generationMode = GenerationMode.parse(mode);
+        log.info("Queueing {} workout job - type: {}, duration: {}, fitnessLevel: {}, goals: {}", generationMode, type, duration, fitnessLevel, goals);
+
+        return accepted(generationJobService.submit(JobType.WORKOUT,
+                () -> WorkoutDto.from(workoutService.generateWorkout(type, duration, fitnessLevel, goals, bodyWeightKg, generationMode, noCache))));
+    }
+
+    @PostMapping("/plans")
+    public ResponseEntity<GenerationJobDto> submitPlan(@RequestParam(defaultValue = "4") String duration, @RequestParam(defaultValue = "3") String frequency, @RequestParam @NotBlank(message = "Goals are required") String goals, @RequestParam(defaultValue = "intermediate") String experience, @RequestParam(defaultValue = "ai") String mode, @RequestParam(defaultValue = "false") boolean describe, @RequestParam(defaultValue = "false") boolean noCache) {
+        GenerationMode generationMode = GenerationMode.parse(mode);
+        log.info("Queueing {} plan job - duration: {} weeks, frequency: {} days/week, goals: {}, experience: {}", generationMode, duration, frequency, goals, experience);
+
+        return accepted(generationJobService.submit(JobType.PLAN,
+                () -> PlanDto.from(planService.generatePlan(duration, frequency, goals, experience, generationMode, describe, noCache))));
+    }
+
+    /**
+     * Recomputes the calories of every stored workout exercise with the local calorie engine, in the
+     * background. The job result is the number of workout exercises updated.
+     */
+    @PostMapping("/workouts/calories")
+    public ResponseEntity<GenerationJobDto> submitCalorieRecompute(@RequestParam(required = false) @Positive Double bodyWeightKg) {
+        log.info("Queueing calorie recompute job - bodyWeightKg: {}", bodyWeightKg);
+
+        return accepted(generationJobService.submit(JobType.CALORIES,
+                () -> workoutService.recomputeCalories(bodyWeightKg)));
+    }
+
+    /**
+     * Returns the job status and, once finished, its result. With {@code waitSeconds > 0} the call
+     * long-polls until the job finishes or the wait (capped at {@code ai.jobs.max-wait}) elapses. The
+     * wait is asynchronous, so a long-polling client holds no servlet thread.
+     */
+    @GetMapping("/{id}")
+    public CompletableFuture<ResponseEntity<GenerationJobDto>> getJob(@PathVariable UUID id, @RequestParam(defaultValue = "0") long waitSeconds) {
+        Duration wait = Duration.ofSeconds(Math.max(0, waitSeconds));
+        if (wait.compareTo(maxWait) > 0) {
+            wait = maxWait;
+        }
+
+        return generationJobService.await(id, wait)
+                .thenApply(job -> job
+                        .map(found -> ResponseEntity.ok(GenerationJobDto.from(found)))
+                        .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    private static ResponseEntity<GenerationJobDto> accepted(GenerationJob job) {
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/v1/ai/jobs/{id}")
+                        .buildAndExpand(job.getId())
+                        .toUri())
+                .body(GenerationJobDto.from(job));
+    }
+}
@@ -3,21 +3,35 @@ package com.workoutgensvc.web.rest;
 import com.workoutgensvc.exercise.dto.ExerciseDto;
 import com.workoutgensvc.exercise.Exercise;
 import com.workoutgensvc.exercise.ExerciseService;
+import com.workoutgensvc.plan.dto.PlanDayDto;
 import com.workoutgensvc.plan.dto.PlanDto;
 import com.workoutgensvc.plan.Plan;
 import com.workoutgensvc.plan.PlanService;
 import com.workoutgensvc.workout.dto.WorkoutDto;
+import com.workoutgensvc.workout.dto.WorkoutExerciseDto;
 import com.workoutgensvc.workout.Workout;
 import com.workoutgensvc.workout.WorkoutService;
+import com.workoutgensvc.workout.enums.GenerationMode;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
 
 
 @Slf4j
@@ -28,20 +42,24 @@ public class AppRestController {
     private final ExerciseService exerciseService;
     private final WorkoutService workoutService;
     private final PlanService planService;
+    private final TaskExecutor aiTaskExecutor;
+    private final Duration streamTimeout;
 
     @Autowired
-    public AppRestController(ExerciseService exerciseService, WorkoutService workoutService, PlanService planService) {
+    public AppRestController(ExerciseService exerciseService, WorkoutService workoutService, PlanService planService, @Qualifier("aiTaskExecutor") TaskExecutor aiTaskExecutor, @Value("${ai.stream.timeout:180s}") Duration streamTimeout) {
         this.exerciseService = exerciseService;
         this.workoutService = workoutService;
         this.planService = planService;
+        this.aiTaskExecutor = aiTaskExecutor;
+        this.streamTimeout = streamTimeout;
     }
 
     @PostMapping("/exercises")
-    public ResponseEntity<ExerciseDto> generateExercise(@RequestParam @NotBlank(message = "Muscle group is required") String muscleGroup, @RequestParam(defaultValue = "intermediate") String difficulty, @RequestParam(defaultValue = "bodyweight") String equipment) {
+    public ResponseEntity<ExerciseDto> generateExercise(@RequestParam @NotBlank(message = "Muscle group is required") String muscleGroup, @RequestParam(defaultValue = "intermediate") String difficulty, @RequestParam(defaultValue = "bodyweight") String equipment, @RequestParam(defaultValue = "false") boolean noCache) {
         try {
             log.info("Generating AI exercise for muscleGroup: {}, difficulty: {}, equipment: {}", muscleGroup, difficulty, equipment);
 
-            Exercise exercise = exerciseService.generateExercise(muscleGroup, difficulty, equipment);
+            Exercise exercise = exerciseService.generateExercise(muscleGroup, difficulty, equipment, noCache);
             ExerciseDto exerciseDto = ExerciseDto.from(exercise);
 
             return ResponseEntity.ok(exerciseDto);
@@ -52,11 +70,12 @@ public class AppRestController {
     }
 
     @PostMapping("/workouts")
-    public ResponseEntity<WorkoutDto> generateWorkout(@RequestParam @NotBlank(message = "Workout type is required") String type, @RequestParam(defaultValue = "45") String duration, @RequestParam(defaultValue = "intermediate") String fitnessLevel, @RequestParam @NotBlank(message = "Goals are required") String goals) {
+    public ResponseEntity<WorkoutDto> generateWorkout(@RequestParam @NotBlank(message = "Workout type is required") String type, @RequestParam(defaultValue = "45") String duration, @RequestParam(defaultValue = "intermediate") String fitnessLevel, @RequestParam @NotBlank(message = "Goals are required") String goals, @RequestParam(required = false) @Positive Double bodyWeightKg, @RequestParam(defaultValue = "ai") String mode, @RequestParam(defaultValue = "false") boolean noCache) {
+        GenerationMode generationMode = GenerationMode.parse(mode);
         try {
-            log.info("Generating AI workout - type: {}, duration: {}, fitnessLevel: {}, goals: {}", type, duration, fitnessLevel, goals);
+            log.info("Generating {} workout - type: {}, duration: {}, fitnessLevel: {}, goals: {}", generationMode, type, duration, fitnessLevel, goals);
 
-            Workout workout = workoutService.generateWorkout(type, duration, fitnessLevel, goals);
+            Workout workout = workoutService.generateWorkout(type, duration, fitnessLevel, goals, bodyWeightKg, generationMode, noCache);
             WorkoutDto workoutDto = WorkoutDto.from(workout);
 
             return ResponseEntity.ok(workoutDto);
@@ -67,11 +86,12 @@ public class AppRestController {
     }
 
     @PostMapping("/plans")
-    public ResponseEntity<PlanDto> generatePlan(@RequestParam(defaultValue = "4") String duration, @RequestParam(defaultValue = "3") String frequency, @RequestParam @NotBlank(message = "Goals are required") String goals, @RequestParam(defaultValue = "intermediate") String experience) {
+    public ResponseEntity<PlanDto> generatePlan(@RequestParam(defaultValue = "4") String duration, @RequestParam(defaultValue = "3") String frequency, @RequestParam @NotBlank(message = "Goals are required") String goals, @RequestParam(defaultValue = "intermediate") String experience, @RequestParam(defaultValue = "ai") String mode, @RequestParam(defaultValue = "false") boolean describe, @RequestParam(defaultValue = "false") boolean noCache) {
+        GenerationMode generationMode = GenerationMode.parse(mode);
         try {
-            log.info("Generating AI plan - duration: {} weeks, frequency: {} days/week, goals: {}, experience: {}", duration, frequency, goals, experience);
+            log.info("Generating {} plan - duration: {} weeks, frequency: {} days/week, goals: {}, experience: {}", generationMode, duration, frequency, goals, experience);
 
-            Plan plan = planService.generatePlan(duration, frequency, goals, experience);
+            Plan plan = planService.generatePlan(duration, frequency, goals, experience, generationMode, describe, noCache);
             PlanDto planDto = PlanDto.from(plan);
 
             return ResponseEntity.ok(planDto);
@@ -80,4 +100,67 @@ public class AppRestController {
             return ResponseEntity.internalServerError().build();
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping(value = "/workouts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamWorkout(@RequestParam @NotBlank(message = "Workout type is required") String type, @RequestParam(defaultValue = "45") String duration, @RequestParam(defaultValue = "intermediate") String fitnessLevel, @RequestParam @NotBlank(message = "Goals are required") String goals, @RequestParam(required = false) @Positive Double bodyWeightKg, @RequestParam(defaultValue = "ai") String mode, @RequestParam(defaultValue = "false") boolean noCache) {
+        GenerationMode generationMode = GenerationMode.parse(mode);
+        log.info("Streaming {} workout - type: {}, duration: {}, fitnessLevel: {}, goals: {}", generationMode, type, duration, fitnessLevel, goals);
+
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        aiTaskExecutor.execute(() -> {
+            try {
+                Workout workout = workoutService.streamWorkout(type, duration, fitnessLevel, goals, bodyWeightKg, generationMode, noCache,
+                        workoutExercise -> send(emitter, "workoutExercise", WorkoutExerciseDto.from(workoutExercise)));
+
+                send(emitter, "workout", WorkoutDto.from(workout));
+                emitter.complete();
+            } catch (Exception e) {
+                log.error("Failed to stream workout", e);
+                sendErrorAndComplete(emitter, e);
+            }
+        });
+        return emitter;
+    }
+
+    @PostMapping(value = "/plans/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPlan(@RequestParam(defaultValue = "4") String duration, @RequestParam(defaultValue = "3") String frequency, @RequestParam @NotBlank(message = "Goals are required") String goals, @RequestParam(defaultValue = "intermediate") String experience, @RequestParam(defaultValue = "ai") String mode, @RequestParam(defaultValue = "false") boolean describe, @RequestParam(defaultValue = "false") boolean noCache) {
+        GenerationMode generationMode = GenerationMode.parse(mode);
+        log.info("Streaming {} plan - duration: {} weeks, frequency: {} days/week, goals: {}, experience: {}", generationMode, duration, frequency, goals, experience);
+
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        aiTaskExecutor.execute(() -> {
+            try {
+                Plan plan = planService.streamPlan(duration, frequency, goals, experience, generationMode, describe, noCache,
+                        planDay -> send(emitter, "planDay", PlanDayDto.from(planDay)));
+
+                send(emitter, "plan", PlanDto.from(plan));
+                emitter.complete();
+            } catch (Exception e) {
+                log.error("Failed to stream plan", e);
+                sendErrorAndComplete(emitter, e);
+            }
+        });
+        return emitter;
+    }
+
+    private static void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            // Client went away - abort the generation instead of reading the rest of the upstream stream
+            throw new UncheckedIOException("Stream client disconnected", e);
+        }
+    }
+
+    private static void sendErrorAndComplete(SseEmitter emitter, Exception e) {
+        try {
+            emitter.send(SseEmitter.event().name("error").data(Map.of(
+                    "error", "Internal Server Error",
+                    "message", String.valueOf(e.getMessage()),
+                    "type", "AI_GENERATION_ERROR"), MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (Exception sendFailure) {
+            emitter.completeWithError(e);
+        }
+    }
+}
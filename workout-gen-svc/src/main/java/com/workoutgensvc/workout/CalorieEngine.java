@@ -0,0 +1,83 @@
+package com.workoutgensvc.workout;
+
+import com.workoutgensvc.exercise.Exercise;
+import com.workoutgensvc.exercise.MuscleTarget;
+import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.exercise.enums.Intensity;
+import com.workoutgensvc.workout.enums.WorkoutType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Estimates the energy a workout exercise burns with the standard MET formula,
+ * kcal = MET x body weight (kg) x active time (h), so workouts no longer depend on the model for it.
+ * <p>
+ * An exercise's MET is its type's base MET averaged with the mean MET of the intensities it works its
+ * muscles at, then scaled by the workout type's multiplier. Active time is the exercise's duration, or
+ * {@value #SECONDS_PER_REP} seconds per rep when only reps are known.
+ */
+@Service
+public class CalorieEngine {
+    static final int SECONDS_PER_REP = 3;
+    static final int DEFAULT_ACTIVE_SECONDS = 60;
+    private static final double RESTING_MET = 1.0;
+
+    private final double defaultBodyWeightKg;
+
+    public CalorieEngine(@Value("${workout.calories.default-body-weight-kg:70}") double defaultBodyWeightKg) {
+        this.defaultBodyWeightKg = defaultBodyWeightKg;
+    }
+
+    /**
+     * Calories for one workout exercise, rounded to one decimal. A null or non-positive
+     * {@code bodyWeightKg} falls back to {@code workout.calories.default-body-weight-kg}.
+     */
+    public double burnedCalories(WorkoutType workoutType, Exercise exercise, Integer reps, Integer durationSeconds, Double bodyWeightKg) {
+        double kg = bodyWeightKg != null && bodyWeightKg > 0 ? bodyWeightKg : defaultBodyWeightKg;
+        double hours = activeSeconds(reps, durationSeconds) / 3600.0;
+        return Math.round(met(workoutType, exercise) * kg * hours * 10) / 10.0;
+    }
+
+    public double burnedCalories(WorkoutExercise workoutExercise, Double bodyWeightKg) {
+        return burnedCalories(workoutExercise.getWorkout().getType(), workoutExercise.getExercise(),
+                workoutExercise.getReps(), workoutExercise.getDuration(), bodyWeightKg);
+    }
+
+    double met(WorkoutType workoutType, Exercise exercise) {
+        ExerciseType exerciseType = exercise != null && exercise.getType() != null ? exercise.getType() : ExerciseType.STRENGTH;
+        double met = exerciseType.getBaseMet();
+
+        List<MuscleTarget> targets = exercise != null ? exercise.getMuscleGroupTarget() : null;
+        if (targets != null && !targets.isEmpty()) {
+            double intensityMet = 0;
+            int counted = 0;
+            for (MuscleTarget target : targets) {
+                Intensity intensity = target.getIntensity();
+                if (intensity != null) {
+                    intensityMet += intensity.getMet();
+                    counted++;
+                }
+            }
+            if (counted > 0) {
+                met = (met + intensityMet / counted) / 2;
+            }
+        }
+
+        if (workoutType != null) {
+            met *= workoutType.getMetMultiplier();
+        }
+        return Math.max(met, RESTING_MET);
+    }
+
+    static int activeSeconds(Integer reps, Integer durationSeconds) {
+        if (durationSeconds != null && durationSeconds > 0) {
+            return durationSeconds;
+        }
+        if (reps != null && reps > 0) {
+            return reps * SECONDS_PER_REP;
+        }
+        return DEFAULT_ACTIVE_SECONDS;
+    }
+}
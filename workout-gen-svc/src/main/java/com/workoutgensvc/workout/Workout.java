@@ -1,8 +1,10 @@
 package com.workoutgensvc.workout;
 
+import com.workoutgensvc.core.BatchNameResolver;
 import com.workoutgensvc.workout.enums.WorkoutType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -15,13 +17,17 @@ import java.util.UUID;
 @Setter
 
 @Entity
+@Table(indexes = @Index(name = "idx_workout_normalized_name", columnList = "normalized_name"))
 public class Workout {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
     private UUID id;
 
     @Column(nullable = false)
     private String name;
+    // Lower-cased, trimmed copy of name, so case-insensitive lookups can use the index
+    @Column(name = "normalized_name")
+    private String normalizedName;
     @Column(nullable = false)
     @Enumerated(EnumType.STRING)
     private WorkoutType type;
@@ -29,4 +35,10 @@ public class Workout {
     @Builder.Default
     @OneToMany(mappedBy = "workout", cascade = CascadeType.ALL)
     private Set<WorkoutExercise> workoutExercises = new HashSet<>();
+
+    @PrePersist
+    @PreUpdate
+    void normalizeName() {
+        normalizedName = BatchNameResolver.normalize(name);
+    }
 }
@@ -0,0 +1,155 @@
+package com.workoutgensvc.workout;
+
+import com.workoutgensvc.exercise.Exercise;
+import com.workoutgensvc.exercise.ExerciseService;
+import com.workoutgensvc.exercise.MuscleTarget;
+import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.exercise.enums.MuscleType;
+import com.workoutgensvc.workout.enums.WorkoutType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds a workout from stored exercises without the LLM, in well under a millisecond once the
+ * candidates are loaded. Used when chat2api is unavailable and for {@code mode=local} requests.
+ * <p>
+ * Candidates come from the {@link com.workoutgensvc.exercise.ExerciseIndex} in relevance order. They
+ * are picked greedily: each pick favours muscles the workout has not worked yet and penalises load on
+ * muscles it already has, with relevance as a tie-breaker. The time budget is split between the
+ * picks so their durations add up to the requested minutes exactly.
+ */
+@Service
+public class WorkoutComposer {
+    private static final int MAX_EXERCISES = 12;
+
+    private final ExerciseService exerciseService;
+    private final CalorieEngine calorieEngine;
+    private final int candidates;
+
+    @Autowired
+    public WorkoutComposer(ExerciseService exerciseService, CalorieEngine calorieEngine, @Value("${workout.composer.candidates:60}") int candidates) {
+        this.exerciseService = exerciseService;
+        this.calorieEngine = calorieEngine;
+        this.candidates = candidates;
+    }
+
+    /**
+     * Returns an unsaved workout. Throws {@link IllegalStateException} when there are no stored
+     * exercises to build it from.
+     */
+    public Workout compose(WorkoutType type, int durationMinutes, String fitnessLevel, String goals, Double bodyWeightKg) {
+        List<Exercise> exercises = exerciseService.getRelevantExercises(type, goals, fitnessLevel, candidates);
+        if (exercises.isEmpty()) {
+            throw new IllegalStateException("No stored exercises to compose a workout from");
+        }
+        return compose(type, durationMinutes, fitnessLevel, exercises, bodyWeightKg);
+    }
+
+    Workout compose(WorkoutType type, int durationMinutes, String fitnessLevel, List<Exercise> candidates, Double bodyWeightKg) {
+        if (durationMinutes <= 0) {
+            throw new IllegalArgumentException("Workout duration must be positive: " + durationMinutes);
+        }
+        Level level = Level.of(fitnessLevel);
+        int totalSeconds = durationMinutes * 60;
+        int count = Math.max(1, Math.min(Math.round((float) totalSeconds / level.blockSeconds), Math.min(MAX_EXERCISES, candidates.size())));
+
+        Workout workout = Workout.builder()
+                .name(level.displayName + " " + type.getDisplayName() + " " + durationMinutes + "-Minute Workout")
+                .type(type)
+                .build();
+
+        List<Exercise> picks = pick(candidates, count);
+        int baseSeconds = totalSeconds / picks.size();
+        int remainder = totalSeconds % picks.size();
+        for (int i = 0; i < picks.size(); i++) {
+            Exercise exercise = picks.get(i);
+            int seconds = baseSeconds + (i < remainder ? 1 : 0);
+            WorkoutExercise workoutExercise = WorkoutExercise.builder()
+                    .number(i + 1)
+                    .reps(isRepBased(exercise) ? level.reps : null)
+                    .duration(seconds)
+                    .workout(workout)
+                    .exercise(exercise)
+                    .build();
+            workoutExercise.setBurnedCalories(calorieEngine.burnedCalories(workoutExercise, bodyWeightKg));
+            workout.getWorkoutExercises().add(workoutExercise);
+        }
+        return workout;
+    }
+
+    private static List<Exercise> pick(List<Exercise> candidates, int count) {
+        Map<MuscleType, Double> load = new EnumMap<>(MuscleType.class);
+        Set<Integer> used = new HashSet<>();
+        List<Exercise> picks = new ArrayList<>(count);
+
+        while (picks.size() < count) {
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < candidates.size(); i++) {
+                if (used.contains(i)) {
+                    continue;
+                }
+                double score = 1.0 - (double) i / candidates.size();
+                for (MuscleTarget target : candidates.get(i).getMuscleGroupTarget()) {
+                    double intensity = target.getIntensity() != null ? target.getIntensity().getMet() : 1.0;
+                    Double current = load.get(target.getMuscle());
+                    score += current == null ? intensity : -current * intensity / 4;
+                }
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = i;
+                }
+            }
+
+            Exercise exercise = candidates.get(best);
+            used.add(best);
+            picks.add(exercise);
+            for (MuscleTarget target : exercise.getMuscleGroupTarget()) {
+                double intensity = target.getIntensity() != null ? target.getIntensity().getMet() : 1.0;
+                load.merge(target.getMuscle(), intensity, Double::sum);
+            }
+        }
+        return picks;
+    }
+
+    private static boolean isRepBased(Exercise exercise) {
+        return exercise.getType() == ExerciseType.STRENGTH || exercise.getType() == ExerciseType.PLYOMETRIC;
+    }
+
+    private enum Level {
+        BEGINNER("Beginner", 360, 8),
+        INTERMEDIATE("Intermediate", 300, 10),
+        ADVANCED("Advanced", 240, 12);
+
+        private final String displayName;
+        // Time spent per exercise, sets and rest included
+        private final int blockSeconds;
+        private final int reps;
+
+        Level(String displayName, int blockSeconds, int reps) {
+            this.displayName = displayName;
+            this.blockSeconds = blockSeconds;
+            this.reps = reps;
+        }
+
+        static Level of(String fitnessLevel) {
+            String level = fitnessLevel == null ? "" : fitnessLevel.toLowerCase(Locale.ROOT);
+            if (level.contains("begin")) {
+                return BEGINNER;
+            }
+            if (level.contains("adv") || level.contains("expert")) {
+                return ADVANCED;
+            }
+            return INTERMEDIATE;
+        }
+    }
+}
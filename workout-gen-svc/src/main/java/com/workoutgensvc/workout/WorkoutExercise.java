@@ -3,6 +3,7 @@ package com.workoutgensvc.workout;
 import com.workoutgensvc.exercise.Exercise;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.util.UUID;
 
@@ -16,7 +17,7 @@ import java.util.UUID;
 @Table(name = "workouts_exercises")
 public class WorkoutExercise {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
     private UUID id;
 
     @Column(nullable = false)
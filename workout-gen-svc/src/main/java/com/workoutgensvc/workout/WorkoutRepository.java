@@ -1,13 +1,40 @@
 package com.workoutgensvc.workout;
 
+import com.workoutgensvc.workout.enums.WorkoutType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface WorkoutRepository extends JpaRepository<Workout, UUID> {
-    List<Workout> findByNameIgnoreCase(String name);
+    List<Workout> findByNormalizedName(String normalizedName);
+
+    List<Workout> findByNormalizedNameIn(Collection<String> normalizedNames);
+
+    // Rows written before the normalized_name column existed
+    @Transactional
+    @Modifying
+    @Query("update Workout w set w.normalizedName = lower(trim(w.name)) where w.normalizedName is null")
+    int backfillNormalizedNames();
+
+    @Query("select w.name from Workout w")
+    List<String> findAllNames();
+
+    @Query("select w.id from Workout w order by w.id")
+    List<UUID> findIds(Pageable pageable);
+
+    @Query("select w.id from Workout w where w.type in :types order by w.id")
+    List<UUID> findIdsByTypeIn(Collection<WorkoutType> types, Pageable pageable);
+
+    // Everything WorkoutDto reads, for many workouts in one round trip
+    @Query("select w from Workout w left join fetch w.workoutExercises we left join fetch we.exercise where w.id in :ids")
+    List<Workout> fetchWorkoutExercises(Collection<UUID> ids);
 }
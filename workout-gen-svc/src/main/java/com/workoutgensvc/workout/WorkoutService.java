@@ -5,16 +5,30 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.workoutgensvc.core.AIService;
+import com.workoutgensvc.core.AIUnavailableException;
+import com.workoutgensvc.core.BatchNameResolver;
+import com.workoutgensvc.core.NameCatalog;
+import com.workoutgensvc.core.StreamingJsonArrayParser;
+import com.workoutgensvc.core.metrics.GenerationMetrics;
+import com.workoutgensvc.core.metrics.enums.DroppedElement;
+import com.workoutgensvc.core.metrics.enums.Pipeline;
+import com.workoutgensvc.core.metrics.enums.Stage;
 import com.workoutgensvc.exercise.Exercise;
 import com.workoutgensvc.exercise.ExerciseService;
 import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.workout.enums.GenerationMode;
 import com.workoutgensvc.workout.enums.WorkoutType;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -23,104 +37,286 @@ public class WorkoutService {
     private final AIService aiService;
     private final ExerciseService exerciseService;
     private final Gson gson;
+    private final CalorieEngine calorieEngine;
+    private final WorkoutComposer workoutComposer;
+    private final TransactionTemplate transactionTemplate;
+    private final GenerationMetrics generationMetrics;
+    private final int exerciseCandidates;
+    private final int recomputeBatchSize;
+    private final boolean localFallback;
+    private final NameCatalog nameCatalog = new NameCatalog("Available exercises: ", "No existing exercises available - you can suggest common exercises");
 
     @Autowired
-    public WorkoutService(WorkoutRepository workoutRepository, AIService aiService, ExerciseService exerciseService, Gson gson) {
+    public WorkoutService(
+            WorkoutRepository workoutRepository,
+            AIService aiService,
+            ExerciseService exerciseService,
+            Gson gson,
+            CalorieEngine calorieEngine,
+            WorkoutComposer workoutComposer,
+            TransactionTemplate transactionTemplate,
+            GenerationMetrics generationMetrics,
+            @Value("${ai.workout.exercise-candidates:40}") int exerciseCandidates,
+            @Value("${workout.calories.recompute-batch-size:200}") int recomputeBatchSize,
+            @Value("${ai.workout.local-fallback:true}") boolean localFallback) {
         this.workoutRepository = workoutRepository;
         this.aiService = aiService;
         this.exerciseService = exerciseService;
         this.gson = gson;
+        this.calorieEngine = calorieEngine;
+        this.workoutComposer = workoutComposer;
+        this.transactionTemplate = transactionTemplate;
+        this.generationMetrics = generationMetrics;
+        this.exerciseCandidates = exerciseCandidates;
+        this.recomputeBatchSize = recomputeBatchSize;
+        this.localFallback = localFallback;
     }
 
-    @Transactional
-    public Workout generateWorkout(String type, String duration, String fitnessLevel, String goals) {
+    @PostConstruct
+    void loadNameCatalog() {
+        int backfilled = workoutRepository.backfillNormalizedNames();
+        if (backfilled > 0) {
+            log.info("Backfilled normalized names for {} workouts", backfilled);
+        }
+        nameCatalog.load(workoutRepository.findAllNames());
+        log.info("Loaded {} workout names", nameCatalog.size());
+    }
+
+    /**
+     * Asks the LLM for a workout and saves it. The LLM call runs outside any transaction, so a slow
+     * answer holds no database connection; exercises are resolved and the workout saved in a short
+     * transaction once the answer is in.
+     */
+    public Workout generateWorkout(String type, String duration, String fitnessLevel, String goals, Double bodyWeightKg, GenerationMode mode, boolean noCache) {
+        if (mode == GenerationMode.LOCAL) {
+            return transactionTemplate.execute(status -> composeWorkout(type, duration, fitnessLevel, goals, bodyWeightKg));
+        }
+
         try {
-            String response = aiService.generateWorkout(type, duration, fitnessLevel, goals, exerciseService.getAllNames());
-            response = response.replaceAll("```", "").replace("json\n", "");
-            JsonObject jsonObject = gson.fromJson(response, JsonObject.class);
+            WorkoutType workoutType = parseWorkoutType(type);
+            String availableExercises = exerciseService.getRelevantNames(workoutType, goals, fitnessLevel, exerciseCandidates);
+            String response = aiService.generateWorkout(type, duration, fitnessLevel, goals, availableExercises, noCache);
+            JsonObject jsonObject = generationMetrics.parse(Pipeline.WORKOUT, () -> gson.fromJson(response.replaceAll("```", "").replace("json\n", ""), JsonObject.class));
 
-            Workout workout = Workout.builder()
-                    .name(jsonObject.get("name").getAsString())
-                    .type(parseWorkoutType(type))
-                    .build();
+            return transactionTemplate.execute(status -> saveWorkout(jsonObject, workoutType, bodyWeightKg));
 
-            Set<WorkoutExercise> workoutExercises = new HashSet<>();
-            if (jsonObject.has("workoutExercises")) {
-                JsonArray workoutExercisesArray = jsonObject.getAsJsonArray("workoutExercises");
+        } catch (AIUnavailableException e) {
+            return composeInstead(e, type, duration, fitnessLevel, goals, bodyWeightKg);
+        } catch (Exception e) {
+            log.error("Failed to parse AI response for workout generation", e);
+            throw new RuntimeException("Failed to generate workout from AI response", e);
+        }
+    }
+
+    private Workout saveWorkout(JsonObject jsonObject, WorkoutType workoutType, Double bodyWeightKg) {
+        Workout workout = Workout.builder()
+                .name(jsonObject.get("name").getAsString())
+                .type(workoutType)
+                .build();
+
+        Set<WorkoutExercise> workoutExercises = new HashSet<>();
+        if (jsonObject.has("workoutExercises")) {
+            JsonArray workoutExercisesArray = jsonObject.getAsJsonArray("workoutExercises");
+
+            // Resolve every referenced exercise in one query before building the workout
+            BatchNameResolver<Exercise> exercises = exerciseService.nameResolver();
+            List<String> exerciseNames = new ArrayList<>();
+            for (JsonElement workoutExerciseElement : workoutExercisesArray) {
+                // Malformed elements are skipped here and dropped one by one below
+                JsonElement exerciseName = workoutExerciseElement.isJsonObject() ? workoutExerciseElement.getAsJsonObject().get("exerciseName") : null;
+                if (exerciseName != null && exerciseName.isJsonPrimitive()) {
+                    exerciseNames.add(exerciseName.getAsString());
+                }
+            }
+            generationMetrics.time(Pipeline.WORKOUT, Stage.RESOLVE, () -> exercises.prefetch(exerciseNames));
 
+            generationMetrics.time(Pipeline.WORKOUT, Stage.MATERIALIZE, () -> {
                 for (JsonElement workoutExerciseElement : workoutExercisesArray) {
                     try {
-                        JsonObject jsonWorkoutExercise = workoutExerciseElement.getAsJsonObject();
-                        String exerciseName = jsonWorkoutExercise.get("exerciseName").getAsString();
-
-                        Optional<Exercise> optional = exerciseService.getByName(exerciseName);
-                        Exercise exercise;
-                        if (optional.isPresent()) {
-                            exercise = optional.get();
-                        } else {
-                            exercise = Exercise.builder()
-                                    .name(exerciseName)
-                                    .type(ExerciseType.STRENGTH) // Default type
-                                    .videoUrl("https://example.com/placeholder-video") // Placeholder URL
-                                    .build();
-                            log.info("Created new exercise '{}' referenced by AI-generated workout", exerciseName);
-                        }
-
-                        WorkoutExercise workoutExercise = WorkoutExercise.builder()
-                                .number(jsonWorkoutExercise.get("number").getAsInt())
-                                .reps(jsonWorkoutExercise.has("reps") ? jsonWorkoutExercise.get("reps").getAsInt() : null)
-                                .weight(jsonWorkoutExercise.has("weight") ? jsonWorkoutExercise.get("weight").getAsDouble() : null)
-                                .duration(jsonWorkoutExercise.has("duration") ? jsonWorkoutExercise.get("duration").getAsInt() : null)
-                                .burnedCalories(jsonWorkoutExercise.has("burnedCalories") ?
-                                    jsonWorkoutExercise.get("burnedCalories").getAsDouble() :
-                                    calculateCalories(jsonWorkoutExercise, Integer.parseInt(duration)))
-                                .workout(workout)
-                                .exercise(exercise)
-                                .build();
-
-                        workoutExercises.add(workoutExercise);
+                        workoutExercises.add(toWorkoutExercise(workoutExerciseElement.getAsJsonObject(), workout, bodyWeightKg, exercises));
                     } catch (Exception e) {
                         log.warn("Failed to process workout exercise: {}", workoutExerciseElement, e);
+                        generationMetrics.dropped(DroppedElement.WORKOUT_EXERCISE);
                     }
                 }
+            });
+        }
+
+        workout.setWorkoutExercises(workoutExercises);
+        Workout savedWorkout = generationMetrics.time(Pipeline.WORKOUT, Stage.PERSIST, () -> {
+            saveReferencedExercises(workout);
+            return workoutRepository.save(workout);
+        });
+        nameCatalog.addAfterCommit(savedWorkout.getName());
+        return savedWorkout;
+    }
+
+    /**
+     * Streaming variant of {@link #generateWorkout}: each workout exercise is built and passed to
+     * {@code onWorkoutExercise} as soon as the model finishes emitting it. Composed workouts pass all
+     * their exercises at once. Names are resolved in read-only transactions of their own while the
+     * stream runs, and the workout is saved in a short one after it ends.
+     */
+    public Workout streamWorkout(String type, String duration, String fitnessLevel, String goals, Double bodyWeightKg, GenerationMode mode, boolean noCache, Consumer<WorkoutExercise> onWorkoutExercise) {
+        if (mode == GenerationMode.LOCAL) {
+            return emitAll(transactionTemplate.execute(status -> composeWorkout(type, duration, fitnessLevel, goals, bodyWeightKg)), onWorkoutExercise);
+        }
+
+        Workout workout = Workout.builder()
+                .type(parseWorkoutType(type))
+                .build();
+
+        Set<WorkoutExercise> workoutExercises = new HashSet<>();
+        // Exercises arrive one at a time here, so names are resolved as they appear, each at most once
+        BatchNameResolver<Exercise> exercises = exerciseService.nameResolver();
+        StreamingJsonArrayParser parser = new StreamingJsonArrayParser("workoutExercises", jsonWorkoutExercise -> {
+            WorkoutExercise workoutExercise;
+            try {
+                workoutExercise = toWorkoutExercise(jsonWorkoutExercise, workout, bodyWeightKg, exercises);
+            } catch (Exception e) {
+                log.warn("Failed to process workout exercise: {}", jsonWorkoutExercise, e);
+                generationMetrics.dropped(DroppedElement.WORKOUT_EXERCISE);
+                return;
             }
+            workoutExercises.add(workoutExercise);
+            onWorkoutExercise.accept(workoutExercise);
+        });
+
+        try {
+            String availableExercises = exerciseService.getRelevantNames(workout.getType(), goals, fitnessLevel, exerciseCandidates);
+            aiService.streamWorkout(type, duration, fitnessLevel, goals, availableExercises, noCache, parser::feed);
+
+            JsonObject jsonObject = generationMetrics.parse(Pipeline.WORKOUT, () -> gson.fromJson(parser.getText().replaceAll("```", "").replace("json\n", ""), JsonObject.class));
 
+            workout.setName(jsonObject.get("name").getAsString());
             workout.setWorkoutExercises(workoutExercises);
-            return workoutRepository.save(workout);
+            return transactionTemplate.execute(status -> {
+                Workout savedWorkout = generationMetrics.time(Pipeline.WORKOUT, Stage.PERSIST, () -> {
+                    saveReferencedExercises(workout);
+                    return workoutRepository.save(workout);
+                });
+                nameCatalog.addAfterCommit(savedWorkout.getName());
+                return savedWorkout;
+            });
 
+        } catch (AIUnavailableException e) {
+            // Only when nothing has been sent yet; a half-streamed workout cannot be swapped for another
+            if (!workoutExercises.isEmpty()) {
+                throw new RuntimeException("Failed to generate workout from AI response", e);
+            }
+            return emitAll(composeInstead(e, type, duration, fitnessLevel, goals, bodyWeightKg), onWorkoutExercise);
         } catch (Exception e) {
-            log.error("Failed to parse AI response for workout generation", e);
+            log.error("Failed to parse streamed AI response for workout generation", e);
             throw new RuntimeException("Failed to generate workout from AI response", e);
         }
     }
 
-    private Double calculateCalories(JsonObject exerciseObj, int workoutDuration) {
-        // Basic calorie calculation - can be enhanced with more sophisticated logic
-        double baseCalories = 50.0; // Base calories per exercise
+    /**
+     * Builds and saves a workout with the {@link WorkoutComposer} from stored exercises, without calling
+     * the LLM.
+     */
+    @Transactional
+    public Workout composeWorkout(String type, String duration, String fitnessLevel, String goals, Double bodyWeightKg) {
+        Workout workout = workoutComposer.compose(parseWorkoutType(type), parseDuration(duration), fitnessLevel, goals, bodyWeightKg);
+        Workout savedWorkout = workoutRepository.save(workout);
+        nameCatalog.addAfterCommit(savedWorkout.getName());
+        return savedWorkout;
+    }
 
-        if (exerciseObj.has("sets") && exerciseObj.has("reps")) {
-            int sets = exerciseObj.get("sets").getAsInt();
-            int reps = exerciseObj.has("reps") ? exerciseObj.get("reps").getAsInt() : 10;
-            baseCalories = sets * reps * 2.0; // Rough estimate
+    private Workout composeInstead(AIUnavailableException e, String type, String duration, String fitnessLevel, String goals, Double bodyWeightKg) {
+        if (!localFallback) {
+            throw new RuntimeException("Failed to generate workout from AI response", e);
         }
+        log.warn("AI unavailable, composing the workout locally: {}", e.getMessage());
+        return transactionTemplate.execute(status -> composeWorkout(type, duration, fitnessLevel, goals, bodyWeightKg));
+    }
 
-        return Math.max(baseCalories, 25.0); // Minimum 25 calories per exercise
+    private static Workout emitAll(Workout workout, Consumer<WorkoutExercise> onWorkoutExercise) {
+        workout.getWorkoutExercises().stream()
+                .sorted(Comparator.comparing(WorkoutExercise::getNumber))
+                .forEach(onWorkoutExercise);
+        return workout;
     }
 
-    @Transactional(readOnly = true)
-    public String getAllNames() {
-        List<String> workouts = workoutRepository.findAll()
-                .stream().map(Workout::getName)
-                .toList();
+    // Exercises created in toWorkoutExercise are saved with the workout, each once
+    private void saveReferencedExercises(Workout workout) {
+        workout.getWorkoutExercises().stream()
+                .map(WorkoutExercise::getExercise)
+                .filter(exercise -> exercise.getId() == null)
+                .distinct()
+                .forEach(exerciseService::saveReferenced);
+    }
+
+    private WorkoutExercise toWorkoutExercise(JsonObject jsonWorkoutExercise, Workout workout, Double bodyWeightKg, BatchNameResolver<Exercise> exercises) {
+        String exerciseName = jsonWorkoutExercise.get("exerciseName").getAsString();
+
+        Optional<Exercise> optional = exercises.get(exerciseName);
+        Exercise exercise;
+        if (optional.isPresent()) {
+            exercise = optional.get();
+        } else {
+            exercise = Exercise.builder()
+                    .name(exerciseName)
+                    .type(ExerciseType.STRENGTH) // Default type
+                    .videoUrl("https://example.com/placeholder-video") // Placeholder URL
+                    .build();
+            exercises.put(exerciseName, exercise);
+            log.info("Created new exercise '{}' referenced by AI-generated workout", exerciseName);
+        }
 
-        return workouts.isEmpty()
-                ? "No existing exercises available - you can suggest common exercises"
-                : "Available exercises: " + String.join(", ", workouts);
+        WorkoutExercise workoutExercise = WorkoutExercise.builder()
+                .number(jsonWorkoutExercise.get("number").getAsInt())
+                .reps(jsonWorkoutExercise.has("reps") ? jsonWorkoutExercise.get("reps").getAsInt() : null)
+                .weight(jsonWorkoutExercise.has("weight") ? jsonWorkoutExercise.get("weight").getAsDouble() : null)
+                .duration(jsonWorkoutExercise.has("duration") ? jsonWorkoutExercise.get("duration").getAsInt() : null)
+                .workout(workout)
+                .exercise(exercise)
+                .build();
+        workoutExercise.setBurnedCalories(calorieEngine.burnedCalories(workoutExercise, bodyWeightKg));
+        return workoutExercise;
+    }
+
+    /**
+     * Recomputes {@code burnedCalories} of every stored workout exercise with the {@link CalorieEngine},
+     * {@code workout.calories.recompute-batch-size} workouts per transaction. Returns the number of
+     * workout exercises updated.
+     */
+    public int recomputeCalories(Double bodyWeightKg) {
+        int updated = 0;
+        for (int page = 0; ; page++) {
+            List<UUID> workoutIds = workoutRepository.findIds(PageRequest.of(page, recomputeBatchSize));
+            if (workoutIds.isEmpty()) {
+                break;
+            }
+            updated += transactionTemplate.execute(status -> {
+                List<Workout> workouts = workoutRepository.fetchWorkoutExercises(workoutIds);
+
+                // Muscle targets for every exercise on the page in one query, ahead of the MET lookups
+                Set<UUID> exerciseIds = new HashSet<>();
+                workouts.forEach(workout -> workout.getWorkoutExercises().forEach(workoutExercise -> exerciseIds.add(workoutExercise.getExercise().getId())));
+                exerciseService.fetchMuscleTargets(exerciseIds);
+
+                int count = 0;
+                for (Workout workout : workouts) {
+                    for (WorkoutExercise workoutExercise : workout.getWorkoutExercises()) {
+                        workoutExercise.setBurnedCalories(calorieEngine.burnedCalories(workoutExercise, bodyWeightKg));
+                        count++;
+                    }
+                }
+                return count;
+            });
+        }
+        log.info("Recomputed calories for {} workout exercises", updated);
+        return updated;
+    }
+
+    public String getAllNames() {
+        return nameCatalog.render();
     }
 
     @Transactional(readOnly = true)
     public Optional<Workout> getByName(String name) {
-        List<Workout> workouts = workoutRepository.findByNameIgnoreCase(name);
+        List<Workout> workouts = workoutRepository.findByNormalizedName(BatchNameResolver.normalize(name));
 
         if (workouts.isEmpty()) {
             return Optional.empty();
@@ -133,7 +329,93 @@ public class WorkoutService {
         }
     }
 
-    private WorkoutType parseWorkoutType(String type) {
+    /**
+     * Loads all the named workouts in one query, keyed by normalized name. When several rows share a
+     * name the first one wins, as in {@link #getByName}.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Workout> getByNames(Collection<String> names) {
+        Set<String> normalizedNames = new HashSet<>();
+        names.forEach(name -> normalizedNames.add(BatchNameResolver.normalize(name)));
+
+        Map<String, Workout> workoutsByName = new HashMap<>();
+        for (Workout workout : workoutRepository.findByNormalizedNameIn(normalizedNames)) {
+            workoutsByName.putIfAbsent(BatchNameResolver.normalize(workout.getName()), workout);
+        }
+        return workoutsByName;
+    }
+
+    /**
+     * As {@link #getByNames}, with each workout's exercises and the exercise each one refers to loaded
+     * as well, so the workouts can be mapped with {@link com.workoutgensvc.workout.dto.WorkoutDto#from}
+     * outside the transaction. Two queries however many workouts are named.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Workout> getByNamesWithExercises(Collection<String> names) {
+        Map<String, Workout> workoutsByName = getByNames(names);
+        if (!workoutsByName.isEmpty()) {
+            Set<UUID> workoutIds = new HashSet<>();
+            workoutsByName.values().forEach(workout -> workoutIds.add(workout.getId()));
+            workoutRepository.fetchWorkoutExercises(workoutIds);
+        }
+        return workoutsByName;
+    }
+
+    /**
+     * Initializes the exercises of the given workouts, and the exercise each one refers to, with a
+     * single fetch-join query. The workouts are returned as managed by the current persistence context.
+     */
+    @Transactional(readOnly = true)
+    public List<Workout> fetchWorkoutExercises(Collection<UUID> workoutIds) {
+        return workoutRepository.fetchWorkoutExercises(workoutIds);
+    }
+
+    /**
+     * Up to {@code limit} stored workouts for the plan scheduler, those of the given types first, with
+     * their exercises and the exercises' muscle targets loaded. Four queries however many are returned.
+     */
+    @Transactional(readOnly = true)
+    public List<Workout> getScheduleCandidates(Collection<WorkoutType> types, int limit) {
+        Set<UUID> workoutIds = new LinkedHashSet<>();
+        if (types != null && !types.isEmpty()) {
+            workoutIds.addAll(workoutRepository.findIdsByTypeIn(types, PageRequest.of(0, limit)));
+        }
+        if (workoutIds.size() < limit) {
+            for (UUID id : workoutRepository.findIds(PageRequest.of(0, limit))) {
+                if (workoutIds.size() == limit) {
+                    break;
+                }
+                workoutIds.add(id);
+            }
+        }
+        if (workoutIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, Workout> workoutsById = new HashMap<>();
+        workoutRepository.fetchWorkoutExercises(workoutIds).forEach(workout -> workoutsById.put(workout.getId(), workout));
+        Set<UUID> exerciseIds = new HashSet<>();
+        workoutsById.values().forEach(workout -> workout.getWorkoutExercises().forEach(workoutExercise -> exerciseIds.add(workoutExercise.getExercise().getId())));
+        exerciseService.fetchMuscleTargets(exerciseIds);
+
+        List<Workout> workouts = new ArrayList<>(workoutIds.size());
+        workoutIds.forEach(id -> workouts.add(workoutsById.get(id)));
+        return workouts;
+    }
+
+    public BatchNameResolver<Workout> nameResolver() {
+        return new BatchNameResolver<>(this::getByNames);
+    }
+
+    private static int parseDuration(String duration) {
+        try {
+            return Integer.parseInt(duration.trim());
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IllegalArgumentException("Workout duration must be a whole number of minutes: " + duration);
+        }
+    }
+
+    static WorkoutType parseWorkoutType(String type) {
         if (type == null || type.trim().isEmpty()) {
             throw new IllegalArgumentException("Workout type cannot be null or empty");
         }
@@ -0,0 +1,22 @@
+package com.workoutgensvc.workout.enums;
+
+import java.util.Locale;
+
+public enum GenerationMode {
+    // Ask the LLM, falling back to the local composer when it is unavailable
+    AI,
+    // Compose from stored exercises only, without a network call
+    LOCAL;
+
+    public static GenerationMode parse(String mode) {
+        if (mode == null || mode.isBlank()) {
+            return AI;
+        }
+        try {
+            return valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown generation mode: " + mode +
+                ". Valid modes are: " + java.util.Arrays.toString(values()));
+        }
+    }
+}
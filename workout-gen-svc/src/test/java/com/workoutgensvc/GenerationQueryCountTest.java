@@ -0,0 +1,259 @@
+package com.workoutgensvc;
+
+import com.workoutgensvc.exercise.Exercise;
+import com.workoutgensvc.exercise.ExerciseRepository;
+import com.workoutgensvc.exercise.ExerciseService;
+import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.plan.Plan;
+import com.workoutgensvc.plan.PlanDay;
+import com.workoutgensvc.plan.PlanService;
+import com.workoutgensvc.plan.dto.PlanDto;
+import com.workoutgensvc.plan.enums.PlanDayType;
+import com.workoutgensvc.support.Chat2ApiStubServer;
+import com.workoutgensvc.workout.Workout;
+import com.workoutgensvc.workout.WorkoutExercise;
+import com.workoutgensvc.workout.WorkoutRepository;
+import com.workoutgensvc.workout.WorkoutService;
+import com.workoutgensvc.workout.enums.GenerationMode;
+import com.workoutgensvc.workout.enums.WorkoutType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks how many queries it takes to turn AI output into entities, using Hibernate's statistics.
+ */
+@SpringBootTest
+class GenerationQueryCountTest {
+    private static final int EXERCISES = 12;
+    private static final int WORKOUTS = 6;
+    private static final int PLAN_WEEKS = 12;
+
+    private static final Chat2ApiStubServer stub = startStub();
+
+    @Autowired
+    private ExerciseRepository exerciseRepository;
+    @Autowired
+    private WorkoutRepository workoutRepository;
+    @Autowired
+    private ExerciseService exerciseService;
+    @Autowired
+    private WorkoutService workoutService;
+    @Autowired
+    private PlanService planService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @DynamicPropertySource
+    static void chat2api(DynamicPropertyRegistry registry) {
+        registry.add("chat2api.base-url", stub::getBaseUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @BeforeEach
+    void seed() {
+        if (exerciseRepository.count() > 0) {
+            return;
+        }
+        List<Exercise> exercises = new ArrayList<>();
+        for (int i = 0; i < EXERCISES; i++) {
+            exercises.add(exerciseRepository.save(Exercise.builder()
+                    .name("Exercise " + i)
+                    .type(ExerciseType.STRENGTH)
+                    .build()));
+        }
+        for (int i = 0; i < WORKOUTS; i++) {
+            Workout workout = Workout.builder()
+                    .name("Workout " + i)
+                    .type(WorkoutType.STRENGTH)
+                    .build();
+            for (int number = 1; number <= 4; number++) {
+                workout.getWorkoutExercises().add(WorkoutExercise.builder()
+                        .number(number)
+                        .reps(10)
+                        .burnedCalories(20.0)
+                        .workout(workout)
+                        .exercise(exercises.get((i + number) % EXERCISES))
+                        .build());
+            }
+            workoutRepository.save(workout);
+        }
+    }
+
+    @Test
+    void workoutResolvesAllExercisesInOneQuery() {
+        // Names come back in whatever case the model chose
+        stub.withResponder(prompt -> workoutJson(EXERCISES, "EXERCISE "));
+
+        Statistics statistics = statistics();
+        Workout workout = workoutService.generateWorkout("STRENGTH", "30", "Beginner", "Build strength", null, GenerationMode.AI, true);
+
+        assertEquals(EXERCISES, workout.getWorkoutExercises().size());
+        assertEquals(1, statistics.getQueryExecutionCount());
+        // The calorie engine reads muscle targets, which come with the name lookup
+        assertEquals(0, statistics.getCollectionFetchCount());
+    }
+
+    @Test
+    void planResolvesWorkoutsAndLoadsItsTreeInTwoQueries() {
+        stub.withResponder(prompt -> planJson(PLAN_WEEKS * 7));
+
+        Statistics statistics = statistics();
+        Plan plan = planService.generatePlan(String.valueOf(PLAN_WEEKS), "7", "STRENGTH", "Beginner", GenerationMode.AI, false, true);
+
+        // One query resolves the workout names, one loads the workouts' exercises; nothing is lazily fetched
+        assertEquals(2, statistics.getQueryExecutionCount());
+        assertEquals(0, statistics.getEntityFetchCount());
+        assertEquals(0, statistics.getCollectionFetchCount());
+
+        // Mapped outside the transaction, as the controllers do
+        PlanDto planDto = PlanDto.from(plan);
+        assertEquals(PLAN_WEEKS * 7, planDto.getPlanDays().size());
+        planDto.getPlanDays().forEach(planDay -> {
+            assertEquals(2, planDay.getWorkouts().size());
+            planDay.getWorkouts().forEach(workout -> assertEquals(4, workout.getExercises().size()));
+        });
+    }
+
+    @Test
+    void malformedWorkoutExerciseIsDroppedAlone() {
+        stub.withResponder(prompt -> workoutJson(3, "Exercise ").replace("\"exerciseName\": \"Exercise 1\"", "\"exerciseName\": {\"name\": \"Exercise 1\"}"));
+
+        Workout workout = workoutService.generateWorkout("STRENGTH", "30", "Beginner", "Build strength", null, GenerationMode.AI, true);
+
+        assertEquals(List.of("Exercise 0", "Exercise 2"), workout.getWorkoutExercises().stream()
+                .map(workoutExercise -> workoutExercise.getExercise().getName())
+                .sorted()
+                .toList());
+    }
+
+    @Test
+    void exerciseCreatedForAWorkoutIsOfferedToLaterPrompts() {
+        stub.withResponder(prompt -> workoutJson(1, "Placeholder Lunge "));
+
+        Workout workout = workoutService.generateWorkout("STRENGTH", "30", "Beginner", "Build strength", null, GenerationMode.AI, true);
+
+        Exercise created = workout.getWorkoutExercises().iterator().next().getExercise();
+        assertEquals("Placeholder Lunge 0", created.getName());
+        assertTrue(exerciseRepository.existsById(created.getId()));
+        assertTrue(exerciseService.getAllNames().contains("Placeholder Lunge 0"));
+        assertTrue(exerciseService.getRelevantNames(WorkoutType.STRENGTH, "Build strength", "Beginner", 1000).contains("Placeholder Lunge 0"));
+    }
+
+    @Test
+    void malformedPlanDayIsDroppedAlone() {
+        stub.withResponder(prompt -> planJson(3).replace("\"workoutNames\": [\"Workout 2\", \"workout 3\"]", "\"workoutNames\": \"Workout 2\""));
+
+        Plan plan = planService.generatePlan("1", "3", "STRENGTH", "Beginner", GenerationMode.AI, false, true);
+
+        assertEquals(List.of(1, 3), plan.getPlanDays().stream().map(PlanDay::getDayNumber).toList());
+        assertEquals(2, plan.getPlanDays().get(1).getWorkouts().size());
+    }
+
+    @Test
+    void savedPlanLoadsInThreeQueries() {
+        stub.withResponder(prompt -> planJson(PLAN_WEEKS * 7));
+        UUID planId = planService.generatePlan(String.valueOf(PLAN_WEEKS), "7", "STRENGTH", "Beginner", GenerationMode.AI, false, true).getId();
+
+        Statistics statistics = statistics();
+        PlanDto planDto = PlanDto.from(planService.getPlan(planId).orElseThrow());
+
+        assertEquals(3, statistics.getQueryExecutionCount());
+        assertEquals(0, statistics.getEntityFetchCount());
+        assertEquals(0, statistics.getCollectionFetchCount());
+        assertEquals(PLAN_WEEKS * 7, planDto.getPlanDays().size());
+        assertEquals(1, planDto.getPlanDays().get(0).getDayNumber());
+        assertEquals("Exercise 2", planDto.getPlanDays().get(0).getWorkouts().get(0).getExercises().get(0).getExerciseName());
+    }
+
+    @Test
+    void scheduledPlanSkipsTheLlmAndLoadsItsWorkoutsInFiveQueries() {
+        stub.withResponder(prompt -> {
+            throw new IllegalStateException("A scheduled plan must not call the LLM");
+        });
+
+        Statistics statistics = statistics();
+        Plan plan = planService.generatePlan(String.valueOf(PLAN_WEEKS), "4", "STRENGTH", "Beginner", GenerationMode.LOCAL, false, true);
+
+        // Candidate ids by type, topped up with any type, their exercises, the muscle targets; then the save's exercise fetch
+        assertEquals(5, statistics.getQueryExecutionCount());
+        assertEquals(0, statistics.getCollectionFetchCount());
+
+        PlanDto planDto = PlanDto.from(plan);
+        assertEquals(PLAN_WEEKS * 7, planDto.getPlanDays().size());
+        assertEquals(PLAN_WEEKS * 4, planDto.getPlanDays().stream().filter(planDay -> planDay.getType().equals(PlanDayType.ACTIVE.name())).count());
+        assertEquals("Beginner Strength 12-Week Plan", planDto.getName());
+    }
+
+    @Test
+    void recomputeCaloriesLoadsEachPageWithoutLazyFetches() {
+        Statistics statistics = statistics();
+        int updated = workoutService.recomputeCalories(null);
+
+        assertTrue(updated >= WORKOUTS * 4);
+        assertEquals(0, statistics.getEntityFetchCount());
+        assertEquals(0, statistics.getCollectionFetchCount());
+
+        // Seeded exercises are untargeted strength moves: 7.0 MET x 70 kg x 10 reps x 3 s
+        List<UUID> seeded = workoutRepository.findAll().stream()
+                .filter(workout -> workout.getName().startsWith("Workout "))
+                .map(Workout::getId)
+                .toList();
+        workoutService.fetchWorkoutExercises(seeded).forEach(workout -> workout.getWorkoutExercises()
+                .forEach(workoutExercise -> assertEquals(4.1, workoutExercise.getBurnedCalories())));
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private static String workoutJson(int exercises, String namePrefix) {
+        List<String> workoutExercises = new ArrayList<>();
+        for (int i = 0; i < exercises; i++) {
+            workoutExercises.add(String.format(
+                    "{\"exerciseName\": \"%s%d\", \"number\": %d, \"reps\": 10, \"weight\": 0, \"duration\": 150, \"burnedCalories\": 20}",
+                    namePrefix, i, i + 1));
+        }
+        return "{\"name\": \"Generated Workout\", \"type\": \"STRENGTH\", \"workoutExercises\": [" + String.join(",", workoutExercises) + "]}";
+    }
+
+    private static String planJson(int days) {
+        List<String> planDays = new ArrayList<>();
+        for (int day = 1; day <= days; day++) {
+            planDays.add(String.format(
+                    "{\"dayNumber\": %d, \"type\": \"ACTIVE\", \"workoutNames\": [\"Workout %d\", \"workout %d\"]}",
+                    day, day % WORKOUTS, (day + 1) % WORKOUTS));
+        }
+        return "{\"name\": \"Generated Plan\", \"type\": \"STRENGTH\", \"planDays\": [" + String.join(",", planDays) + "]}";
+    }
+
+    private static Chat2ApiStubServer startStub() {
+        try {
+            return new Chat2ApiStubServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.workoutgensvc.core;
+
+import com.workoutgensvc.core.metrics.enums.Pipeline;
+import com.workoutgensvc.support.Chat2ApiStubServer;
+import com.workoutgensvc.support.TestAIServices;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AIServiceSingleFlightTest {
+    private static final int CALLERS = 16;
+
+    @Test
+    void concurrentIdenticalRequestsShareOneUpstreamCall() throws Exception {
+        try (Chat2ApiStubServer stub = new Chat2ApiStubServer().withLatency(500).withResponder(prompt -> "{\"name\":\"Push Up\"}")) {
+            AIService aiService = TestAIServices.create(stub.getBaseUrl(), new RestTemplate());
+
+            for (Future<String> result : callConcurrently(() -> aiService.generateResponse(Pipeline.EXERCISE, "chest", false))) {
+                assertEquals("{\"name\":\"Push Up\"}", result.get());
+            }
+            assertEquals(1, stub.getRequestCount());
+
+            // Once the flight has landed the next call goes upstream again (the cache is off here)
+            aiService.generateResponse(Pipeline.EXERCISE, "chest", false);
+            assertEquals(2, stub.getRequestCount());
+        }
+    }
+
+    @Test
+    void waitersReceiveTheSharedFailure() throws Exception {
+        try (Chat2ApiStubServer stub = new Chat2ApiStubServer().withLatency(500).withResponder(prompt -> {
+            throw new IllegalStateException("model overloaded");
+        })) {
+            AIService aiService = TestAIServices.create(stub.getBaseUrl(), new RestTemplate());
+
+            for (Future<String> result : callConcurrently(() -> aiService.generateResponse(Pipeline.EXERCISE, "chest", false))) {
+                ExecutionException failure = assertThrows(ExecutionException.class, result::get);
+                assertInstanceOf(RuntimeException.class, failure.getCause());
+            }
+            assertEquals(1, stub.getRequestCount());
+        }
+    }
+
+    private static List<Future<String>> callConcurrently(Callable<String> call) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return call.call();
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        return results;
+    }
+}
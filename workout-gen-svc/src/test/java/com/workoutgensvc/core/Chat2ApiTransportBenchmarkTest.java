@@ -0,0 +1,82 @@
+package com.workoutgensvc.core;
+
+import com.workoutgensvc.core.client.Chat2ApiTransport;
+import com.workoutgensvc.core.client.Chat2ApiTransportSettings;
+import com.workoutgensvc.core.metrics.enums.Pipeline;
+import com.workoutgensvc.support.Chat2ApiStubServer;
+import com.workoutgensvc.support.TestAIServices;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the Chat2API transports against a local stub: mvn -Pbenchmark test
+ */
+@Tag("benchmark")
+class Chat2ApiTransportBenchmarkTest {
+    private static final int THREADS = 16;
+    private static final int WARMUP_CALLS = 200;
+    private static final int MEASURED_CALLS = 4000;
+
+    @Test
+    void compareTransports() throws Exception {
+        try (Chat2ApiStubServer stub = new Chat2ApiStubServer().withResponder(prompt -> "{\"name\":\"Push Up\"}")) {
+            System.out.printf("%-8s %12s %10s %10s %10s%n", "type", "calls/s", "p50 ms", "p99 ms", "max ms");
+
+            for (Chat2ApiTransport.Type type : Chat2ApiTransport.Type.values()) {
+                try (Chat2ApiTransport transport = Chat2ApiTransport.create(Chat2ApiTransportSettings.builder()
+                        .type(type)
+                        .maxConnectionsPerRoute(THREADS)
+                        .maxConnectionsTotal(THREADS)
+                        .build())) {
+                    AIService aiService = TestAIServices.create(stub.getBaseUrl(), transport.restTemplate());
+
+                    run(aiService, WARMUP_CALLS);
+                    long start = System.nanoTime();
+                    List<Long> latencies = run(aiService, MEASURED_CALLS);
+                    double seconds = (System.nanoTime() - start) / 1e9;
+
+                    Collections.sort(latencies);
+                    System.out.printf("%-8s %12.0f %10.2f %10.2f %10.2f%n", type,
+                            MEASURED_CALLS / seconds,
+                            percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0));
+                }
+            }
+        }
+    }
+
+    private static List<Long> run(AIService aiService, int calls) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < calls; i++) {
+                futures.add(executor.submit(() -> {
+                    long start = System.nanoTime();
+                    assertEquals("{\"name\":\"Push Up\"}", aiService.generateResponse(Pipeline.EXERCISE, "benchmark", false));
+                    return System.nanoTime() - start;
+                }));
+            }
+
+            List<Long> latencies = new ArrayList<>();
+            for (Future<Long> future : futures) {
+                latencies.add(future.get());
+            }
+            return latencies;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static double percentile(List<Long> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)) / 1e6;
+    }
+}
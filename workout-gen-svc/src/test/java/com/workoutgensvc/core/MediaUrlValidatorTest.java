@@ -0,0 +1,88 @@
+package com.workoutgensvc.core;
+
+import com.sun.net.httpserver.HttpServer;
+import com.workoutgensvc.support.TestAIServices;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MediaUrlValidatorTest {
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/push-up.png", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "image/png");
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext("/slow.mp4", exchange -> {
+            try {
+                Thread.sleep(3000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext("/wrong-type.png", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "text/html");
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void returnsAsSoonAsOneUrlIsValid() {
+        MediaUrlValidator validator = TestAIServices.mediaUrlValidator();
+
+        long start = System.nanoTime();
+        assertTrue(validator.anyValid(List.of(baseUrl + "/slow.mp4", baseUrl + "/push-up.png"), Duration.ofSeconds(5)));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+    }
+
+    @Test
+    void rejectsWhenNoUrlIsValidBeforeTheDeadline() {
+        MediaUrlValidator validator = TestAIServices.mediaUrlValidator(Duration.ofSeconds(10));
+
+        assertFalse(validator.anyValid(List.of(baseUrl + "/wrong-type.png", baseUrl + "/slow.mp4"), Duration.ofMillis(500)));
+        assertFalse(validator.anyValid(List.of(), Duration.ofMillis(500)));
+        assertFalse(validator.isValid("not a url"));
+    }
+
+    @Test
+    void answersRepeatedUrlsFromTheCache() {
+        MediaUrlValidator validator = TestAIServices.mediaUrlValidator();
+
+        assertTrue(validator.isValid(baseUrl + "/push-up.png"));
+        server.removeContext("/push-up.png");
+        assertTrue(validator.isValid(baseUrl.replace("http:", "HTTP:") + "/push-up.png#frame"));
+    }
+
+    @Test
+    void skipsHostsThatRecentlyTimedOut() {
+        MediaUrlValidator validator = TestAIServices.mediaUrlValidator(Duration.ofMillis(200));
+
+        assertFalse(validator.isValid(baseUrl + "/slow.mp4"));
+        assertFalse(validator.isValid(baseUrl + "/push-up.png"));
+    }
+}
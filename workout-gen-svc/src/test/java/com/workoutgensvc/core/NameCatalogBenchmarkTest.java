@@ -0,0 +1,63 @@
+package com.workoutgensvc.core;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cost of building the "available names" prompt fragment as the table grows: the old per-request
+ * join over every row versus the catalog's cached render. mvn -Pbenchmark test
+ */
+@Tag("benchmark")
+class NameCatalogBenchmarkTest {
+    private static final int[] SIZES = {1_000, 10_000, 100_000};
+    private static final int RENDER_CALLS = 200;
+
+    @Test
+    void compareWithJoinPerRequest() {
+        System.out.printf("%-8s %16s %16s %16s%n", "names", "join/call us", "render/call us", "add+render us");
+
+        for (int size : SIZES) {
+            List<String> names = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                names.add("Exercise " + i);
+            }
+            NameCatalog catalog = new NameCatalog("Available exercises: ", "No existing exercises");
+            catalog.load(names);
+
+            // Warm up both paths before timing
+            long sink = 0;
+            for (int i = 0; i < RENDER_CALLS; i++) {
+                sink += ("Available exercises: " + String.join(", ", names)).length();
+                sink += catalog.render().length();
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < RENDER_CALLS; i++) {
+                sink += ("Available exercises: " + String.join(", ", names)).length();
+            }
+            double joinMicros = (System.nanoTime() - start) / 1e3 / RENDER_CALLS;
+
+            start = System.nanoTime();
+            for (int i = 0; i < RENDER_CALLS; i++) {
+                sink += catalog.render().length();
+            }
+            double renderMicros = (System.nanoTime() - start) / 1e3 / RENDER_CALLS;
+
+            // A save invalidates the rendered text once; every later request is a cached read again
+            start = System.nanoTime();
+            for (int i = 0; i < RENDER_CALLS; i++) {
+                catalog.add("New exercise " + size + "-" + i);
+                sink += catalog.render().length();
+            }
+            double addMicros = (System.nanoTime() - start) / 1e3 / RENDER_CALLS;
+
+            System.out.printf("%-8d %16.2f %16.3f %16.2f%n", size, joinMicros, renderMicros, addMicros);
+            if (sink == 42) {
+                System.out.println();
+            }
+        }
+    }
+}
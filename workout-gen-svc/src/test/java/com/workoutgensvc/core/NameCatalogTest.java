@@ -0,0 +1,28 @@
+package com.workoutgensvc.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class NameCatalogTest {
+    @Test
+    void rendersOnceAndRebuildsOnlyAfterChanges() {
+        NameCatalog catalog = new NameCatalog("Available exercises: ", "No existing exercises");
+        assertEquals("No existing exercises", catalog.render());
+
+        catalog.load(List.of("Push Up", "Squat", "Push Up"));
+        String rendered = catalog.render();
+        assertEquals("Available exercises: Push Up, Squat", rendered);
+        assertSame(rendered, catalog.render());
+
+        long version = catalog.getVersion();
+        catalog.add("Squat");
+        assertEquals(version, catalog.getVersion());
+
+        catalog.add("Lunge");
+        assertEquals("Available exercises: Push Up, Squat, Lunge", catalog.render());
+    }
+}
@@ -0,0 +1,60 @@
+package com.workoutgensvc.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the prompts with {@code String.format}. The workout prompt lists 200 exercises
+ * and the plan prompt 50 workouts, as a well-filled database would.
+ * mvn -Pjmh test-compile exec:exec -Djmh.includes=PromptJmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptJmh {
+    private String exercises;
+    private String workouts;
+
+    @Setup
+    public void setUp() {
+        exercises = names("Exercise", 200);
+        workouts = names("Workout", 50);
+    }
+
+    @Benchmark
+    public String exercisePrompt() {
+        return AIService.exercisePrompt("Chest", "intermediate", "dumbbells");
+    }
+
+    @Benchmark
+    public String workoutPrompt() {
+        return AIService.workoutPrompt("STRENGTH", "45", "intermediate", "Build strength", exercises);
+    }
+
+    @Benchmark
+    public String planPrompt() {
+        return AIService.planPrompt("4", "3", "STRENGTH", "intermediate", workouts);
+    }
+
+    private static String names(String prefix, int count) {
+        StringJoiner names = new StringJoiner(", ");
+        for (int i = 1; i <= count; i++) {
+            names.add(prefix + " " + i);
+        }
+        return names.toString();
+    }
+}
@@ -0,0 +1,88 @@
+package com.workoutgensvc.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning an LLM answer into JSON the way the services do: strip the Markdown fence with
+ * {@code replaceAll("```", "")}, then {@code gson.fromJson}. Answers are a single exercise, an
+ * 8-exercise workout and a 4-week plan.
+ * mvn -Pjmh test-compile exec:exec -Djmh.includes=ResponseParsingJmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseParsingJmh {
+    @Param({"exercise", "workout", "plan"})
+    private String answer;
+
+    private final Gson gson = new Gson();
+    private String response;
+
+    @Setup
+    public void setUp() {
+        String json = switch (answer) {
+            case "exercise" -> exercise();
+            case "workout" -> workout(8);
+            case "plan" -> plan(28);
+            default -> throw new IllegalArgumentException(answer);
+        };
+        response = "```json\n" + json + "\n```";
+    }
+
+    @Benchmark
+    public String cleanup() {
+        return response.replaceAll("```", "").replace("json\n", "");
+    }
+
+    @Benchmark
+    public JsonObject cleanupAndParse() {
+        return gson.fromJson(response.replaceAll("```", "").replace("json\n", ""), JsonObject.class);
+    }
+
+    private static String exercise() {
+        return "{\"name\": \"Incline Dumbbell Press\", \"type\": \"STRENGTH\", \"muscleTargets\": ["
+                + "{\"muscle\": \"UPPER_CHEST\", \"intensity\": \"HIGH\"},"
+                + "{\"muscle\": \"FRONT_DELTOID\", \"intensity\": \"MODERATE\"},"
+                + "{\"muscle\": \"LONG_HEAD_TRICEPS\", \"intensity\": \"LOW\"}],"
+                + "\"imageUrl\": \"https://example.org/media/incline-dumbbell-press.jpg\","
+                + "\"videoUrl\": \"https://example.org/media/incline-dumbbell-press.mp4\"}";
+    }
+
+    private static String workout(int exercises) {
+        StringJoiner workoutExercises = new StringJoiner(",\n");
+        for (int i = 1; i <= exercises; i++) {
+            workoutExercises.add("{\"exerciseName\": \"Exercise " + i + "\", \"number\": " + i
+                    + ", \"reps\": 12, \"weight\": 22.5, \"duration\": 225}");
+        }
+        return "{\"name\": \"Upper Body Strength\", \"type\": \"STRENGTH\", \"workoutExercises\": [\n" + workoutExercises + "\n]}";
+    }
+
+    private static String plan(int days) {
+        StringJoiner planDays = new StringJoiner(",\n");
+        for (int day = 1; day <= days; day++) {
+            boolean rest = day % 7 == 0 || day % 7 == 4;
+            planDays.add("{\"dayNumber\": " + day + ", \"type\": \"" + (rest ? "REST" : "ACTIVE") + "\", \"workoutNames\": "
+                    + (rest ? "[]" : "[\"Workout " + (day % 5) + "\"]") + "}");
+        }
+        return "{\"name\": \"Four Week Strength\", \"description\": \"Progressive full body strength plan\", \"type\": \"STRENGTH\", \"planDays\": [\n"
+                + planDays + "\n]}";
+    }
+}
@@ -0,0 +1,58 @@
+package com.workoutgensvc.core;
+
+import com.google.gson.JsonObject;
+import com.workoutgensvc.core.client.Chat2ApiTransport;
+import com.workoutgensvc.core.client.Chat2ApiTransportSettings;
+import com.workoutgensvc.core.metrics.enums.Pipeline;
+import com.workoutgensvc.support.Chat2ApiStubServer;
+import com.workoutgensvc.support.TestAIServices;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreamingJsonArrayParserTest {
+    private static final String PLAN = "```json\n{\n" +
+            "  \"name\": \"Push [Pull] {Legs}\",\n" +
+            "  \"meta\": {\"planDays\": [{\"dayNumber\": 99}]},\n" +
+            "  \"planDays\": [\n" +
+            "    {\"dayNumber\": 1, \"type\": \"ACTIVE\", \"workoutNames\": [\"Upper \\\"A\\\"\"]},\n" +
+            "    {\"dayNumber\": 2, \"type\": \"REST\", \"workoutNames\": []}\n" +
+            "  ]\n" +
+            "}\n```";
+
+    @Test
+    void emitsEachElementAsSoonAsItCloses() {
+        List<JsonObject> elements = new ArrayList<>();
+        StreamingJsonArrayParser parser = new StreamingJsonArrayParser("planDays", elements::add);
+
+        int firstDayEnd = PLAN.indexOf("\"]},") + 3;
+        parser.feed(PLAN.substring(0, firstDayEnd - 1));
+        assertEquals(0, elements.size());
+
+        parser.feed(PLAN.substring(firstDayEnd - 1, firstDayEnd));
+        assertEquals(1, elements.size());
+        assertEquals("Upper \"A\"", elements.get(0).getAsJsonArray("workoutNames").get(0).getAsString());
+
+        parser.feed(PLAN.substring(firstDayEnd));
+        assertEquals(2, elements.size());
+        assertEquals(2, elements.get(1).get("dayNumber").getAsInt());
+        assertEquals(PLAN, parser.getText());
+    }
+
+    @Test
+    void parsesServerSentEventStreamFromChat2Api() throws Exception {
+        try (Chat2ApiStubServer stub = new Chat2ApiStubServer().withResponder(prompt -> PLAN);
+             Chat2ApiTransport transport = Chat2ApiTransport.create(Chat2ApiTransportSettings.builder().build())) {
+            AIService aiService = TestAIServices.create(stub.getBaseUrl(), transport.restTemplate());
+
+            List<JsonObject> elements = new ArrayList<>();
+            StreamingJsonArrayParser parser = new StreamingJsonArrayParser("planDays", elements::add);
+
+            assertEquals(PLAN, aiService.streamResponse(Pipeline.PLAN, "plan", false, parser::feed));
+            assertEquals(2, elements.size());
+        }
+    }
+}
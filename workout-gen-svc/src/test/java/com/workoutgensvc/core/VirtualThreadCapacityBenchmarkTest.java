@@ -0,0 +1,90 @@
+package com.workoutgensvc.core;
+
+import com.workoutgensvc.core.client.Chat2ApiTransport;
+import com.workoutgensvc.core.client.Chat2ApiTransportSettings;
+import com.workoutgensvc.core.metrics.enums.Pipeline;
+import com.workoutgensvc.support.Chat2ApiStubServer;
+import com.workoutgensvc.support.TestAIServices;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Concurrent-request capacity against a stub LLM that sleeps: a 200-thread pool (Tomcat's default
+ * max-threads) versus one virtual thread per request. mvn -Pbenchmark test
+ */
+@Tag("benchmark")
+class VirtualThreadCapacityBenchmarkTest {
+    private static final int CONCURRENT_REQUESTS = 2000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final long UPSTREAM_LATENCY_MS = 500;
+
+    @Test
+    void compareThreadingModes() throws Exception {
+        try (Chat2ApiStubServer stub = new Chat2ApiStubServer().withLatency(UPSTREAM_LATENCY_MS).withResponder(prompt -> "{}");
+             Chat2ApiTransport transport = Chat2ApiTransport.create(Chat2ApiTransportSettings.builder()
+                     .maxConnectionsPerRoute(CONCURRENT_REQUESTS)
+                     .maxConnectionsTotal(CONCURRENT_REQUESTS)
+                     .connectionRequestTimeout(Duration.ofMinutes(1))
+                     .build())) {
+            AIService aiService = TestAIServices.create(stub.getBaseUrl(), transport.restTemplate());
+
+            System.out.printf("%-10s %10s %12s %10s %10s%n", "mode", "requests", "requests/s", "p50 ms", "p99 ms");
+
+            ThreadPoolTaskExecutor platform = new ThreadPoolTaskExecutor();
+            platform.setCorePoolSize(PLATFORM_THREADS);
+            platform.setMaxPoolSize(PLATFORM_THREADS);
+            platform.setQueueCapacity(CONCURRENT_REQUESTS);
+            platform.initialize();
+            try {
+                report("platform", run(aiService, platform));
+            } finally {
+                platform.shutdown();
+            }
+
+            if (JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+                report("virtual", run(aiService, new VirtualThreadTaskExecutor("bench-vt-")));
+            } else {
+                System.out.printf("%-10s skipped, Java %s has no virtual threads%n", "virtual", JavaVersion.getJavaVersion());
+            }
+        }
+    }
+
+    private static Result run(AIService aiService, AsyncTaskExecutor executor) throws Exception {
+        long start = System.nanoTime();
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            futures.add(executor.submit(() -> {
+                long requestStart = System.nanoTime();
+                aiService.generateResponse(Pipeline.EXERCISE, "capacity", false);
+                return System.nanoTime() - requestStart;
+            }));
+        }
+
+        List<Long> latencies = new ArrayList<>();
+        for (Future<Long> future : futures) {
+            latencies.add(future.get());
+        }
+        Collections.sort(latencies);
+        return new Result(latencies, (System.nanoTime() - start) / 1e9);
+    }
+
+    private static void report(String mode, Result result) {
+        System.out.printf("%-10s %10d %12.0f %10.0f %10.0f%n", mode, result.latencies.size(),
+                result.latencies.size() / result.seconds,
+                result.latencies.get(result.latencies.size() / 2) / 1e6,
+                result.latencies.get((int) (result.latencies.size() * 0.99) - 1) / 1e6);
+    }
+
+    private record Result(List<Long> latencies, double seconds) {
+    }
+}
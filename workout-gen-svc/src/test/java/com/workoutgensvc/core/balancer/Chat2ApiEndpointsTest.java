@@ -0,0 +1,171 @@
+package com.workoutgensvc.core.balancer;
+
+import com.workoutgensvc.core.AIService;
+import com.workoutgensvc.core.AIUnavailableException;
+import com.workoutgensvc.core.balancer.enums.EndpointState;
+import com.workoutgensvc.core.metrics.enums.Pipeline;
+import com.workoutgensvc.support.Chat2ApiStubServer;
+import com.workoutgensvc.support.TestAIServices;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Chat2ApiEndpointsTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void slowInstanceGetsLessTraffic() throws Exception {
+        try (Chat2ApiStubServer fast = new Chat2ApiStubServer();
+             Chat2ApiStubServer slow = new Chat2ApiStubServer().withLatency(150)) {
+            Chat2ApiEndpoints endpoints = new Chat2ApiEndpoints(List.of(fast.getBaseUrl(), slow.getBaseUrl()), BalancerSettings.builder().build(), meterRegistry);
+            AIService aiService = TestAIServices.create(endpoints, new RestTemplate());
+
+            for (int i = 0; i < 20; i++) {
+                aiService.generateResponse(Pipeline.EXERCISE, "prompt " + i, true);
+            }
+            // One call to learn its latency, then it loses to the fast instance every time
+            assertEquals(1, slow.getRequestCount());
+            assertEquals(19, fast.getRequestCount());
+        }
+        assertEquals(20, meterRegistry.get("ai.upstream.endpoint.latency").timers().stream().mapToLong(timer -> timer.count()).sum());
+    }
+
+    @Test
+    void concurrentCallsGoToTheLeastBusyInstances() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try (Chat2ApiStubServer a = new Chat2ApiStubServer().withLatency(300);
+             Chat2ApiStubServer b = new Chat2ApiStubServer().withLatency(300);
+             Chat2ApiStubServer c = new Chat2ApiStubServer().withLatency(300)) {
+            Chat2ApiEndpoints endpoints = new Chat2ApiEndpoints(List.of(a.getBaseUrl(), b.getBaseUrl(), c.getBaseUrl()), BalancerSettings.builder().build(), meterRegistry);
+            AIService aiService = TestAIServices.create(endpoints, new RestTemplate());
+
+            List<Future<String>> calls = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                int call = i;
+                calls.add(executor.submit(() -> aiService.generateResponse(Pipeline.EXERCISE, "prompt " + call, true)));
+            }
+            for (Future<String> call : calls) {
+                call.get();
+            }
+            for (Chat2ApiStubServer stub : List.of(a, b, c)) {
+                assertTrue(stub.getRequestCount() >= 1, "every instance takes a share");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failingInstanceIsEjectedAndReadmittedAfterAPassingProbe() throws Exception {
+        AtomicLong now = new AtomicLong();
+        try (Chat2ApiStubServer healthy = new Chat2ApiStubServer();
+             Chat2ApiStubServer failing = new Chat2ApiStubServer().withFailures(1.0, 503)) {
+            Chat2ApiEndpoints endpoints = new Chat2ApiEndpoints(List.of(healthy.getBaseUrl(), failing.getBaseUrl()), BalancerSettings.builder()
+                    .ejectionFailures(3)
+                    .ejectionDuration(Duration.ofSeconds(30))
+                    .build(), meterRegistry, now::get);
+            AIService aiService = TestAIServices.create(endpoints, new RestTemplate());
+
+            int failures = 0;
+            for (int i = 0; i < 10; i++) {
+                try {
+                    aiService.generateResponse(Pipeline.EXERCISE, "prompt " + i, true);
+                } catch (AIUnavailableException e) {
+                    failures++;
+                }
+            }
+            assertEquals(3, failures);
+            assertEquals(3, failing.getRequestCount());
+            assertEquals(7, healthy.getRequestCount());
+            assertEquals(0.0, meterRegistry.get("ai.upstream.endpoint.healthy").tag("endpoint", failing.getBaseUrl()).gauge().value());
+
+            // The instance answers again, but stays out until its ejection has run
+            failing.withFailures(0, 503);
+            endpoints.checkHealth();
+            assertFalse(endpoints.getEndpoints().get(1).isHealthy());
+
+            now.addAndGet(Duration.ofSeconds(30).toNanos());
+            endpoints.checkHealth();
+            assertTrue(endpoints.getEndpoints().get(1).isHealthy());
+            for (int i = 0; i < 4; i++) {
+                aiService.generateResponse(Pipeline.EXERCISE, "again " + i, true);
+            }
+            assertTrue(failing.getRequestCount() > 3, "readmitted instance takes traffic again");
+            assertEquals(1.0, meterRegistry.get("ai.upstream.endpoint.ejections").tag("endpoint", failing.getBaseUrl()).counter().count());
+        }
+    }
+
+    @Test
+    void unreachableInstanceFailsItsProbeAndIsSkipped() throws Exception {
+        Chat2ApiStubServer dead = new Chat2ApiStubServer();
+        String deadUrl = dead.getBaseUrl();
+        dead.close();
+
+        try (Chat2ApiStubServer live = new Chat2ApiStubServer()) {
+            Chat2ApiEndpoints endpoints = new Chat2ApiEndpoints(Chat2ApiEndpoints.parse(live.getBaseUrl() + "/, " + deadUrl + ","), BalancerSettings.builder()
+                    .healthTimeout(Duration.ofMillis(500))
+                    .build(), meterRegistry);
+            assertEquals(List.of(live.getBaseUrl(), deadUrl), endpoints.getEndpoints().stream().map(Chat2ApiEndpoint::getBaseUrl).toList());
+
+            endpoints.checkHealth();
+            assertTrue(endpoints.getEndpoints().get(0).isHealthy());
+            assertFalse(endpoints.getEndpoints().get(1).isHealthy());
+
+            AIService aiService = TestAIServices.create(endpoints, new RestTemplate());
+            for (int i = 0; i < 5; i++) {
+                aiService.generateResponse(Pipeline.EXERCISE, "prompt " + i, true);
+            }
+            assertEquals(5, live.getRequestCount());
+        }
+        assertEquals(1.0, meterRegistry.get("ai.upstream.endpoint.ejections").tag("endpoint", deadUrl).counter().count());
+    }
+
+    @Test
+    void everyInstanceEjectedStillServesCalls() throws Exception {
+        try (Chat2ApiStubServer stub = new Chat2ApiStubServer().withFailures(1.0, 503)) {
+            Chat2ApiEndpoints endpoints = new Chat2ApiEndpoints(List.of(stub.getBaseUrl()), BalancerSettings.builder().ejectionFailures(1).build(), meterRegistry);
+            AIService aiService = TestAIServices.create(endpoints, new RestTemplate());
+
+            assertThrows(AIUnavailableException.class, () -> aiService.generateResponse(Pipeline.EXERCISE, "prompt", true));
+            assertFalse(endpoints.getEndpoints().get(0).isHealthy());
+
+            stub.withFailures(0, 503);
+            assertEquals("{}", aiService.generateResponse(Pipeline.EXERCISE, "prompt", true));
+        }
+    }
+
+    @Test
+    void streamConsumerFailureDoesNotEjectTheInstance() throws Exception {
+        try (Chat2ApiStubServer stub = new Chat2ApiStubServer().withResponder(prompt -> "{\"name\": \"Push Up\"}")) {
+            Chat2ApiEndpoints endpoints = new Chat2ApiEndpoints(List.of(stub.getBaseUrl()), BalancerSettings.builder().ejectionFailures(1).build(), meterRegistry);
+            AIService aiService = TestAIServices.create(endpoints, new RestTemplate());
+
+            // What AppRestController throws when the browser closed the SSE stream
+            for (int i = 0; i < 3; i++) {
+                assertThrows(RuntimeException.class, () -> aiService.streamResponse(Pipeline.WORKOUT, "prompt", true, token -> {
+                    throw new UncheckedIOException("Stream client disconnected", new IOException("Broken pipe"));
+                }));
+            }
+
+            Chat2ApiEndpoint endpoint = endpoints.getEndpoints().get(0);
+            assertEquals(EndpointState.HEALTHY, endpoint.getState());
+            assertEquals(0, endpoint.getOutstanding());
+            assertEquals(0.0, meterRegistry.get("ai.upstream.endpoint.ejections").tag("endpoint", stub.getBaseUrl()).counter().count());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.workoutgensvc.core.cache;
+
+import com.workoutgensvc.core.AIService;
+import com.workoutgensvc.core.cache.enums.EvictionPolicy;
+import com.workoutgensvc.core.metrics.enums.Pipeline;
+import com.workoutgensvc.support.Chat2ApiStubServer;
+import com.workoutgensvc.support.TestAIServices;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class AIResponseCacheTest {
+    @Test
+    void servesRepeatedPromptsFromTheCacheUnlessBypassed() throws Exception {
+        AIResponseCache cache = cache(AIResponseCacheSettings.builder().build());
+
+        try (Chat2ApiStubServer stub = new Chat2ApiStubServer().withResponder(prompt -> "{\"name\":\"Push Up\"}")) {
+            AIService aiService = TestAIServices.create(stub.getBaseUrl(), new RestTemplate(), cache);
+
+            aiService.generateResponse(Pipeline.EXERCISE, "chest", false);
+            aiService.generateResponse(Pipeline.EXERCISE, "chest", false);
+            assertEquals(1, stub.getRequestCount());
+
+            aiService.generateResponse(Pipeline.EXERCISE, "chest", true);
+            aiService.generateResponse(Pipeline.EXERCISE, "back", false);
+            assertEquals(3, stub.getRequestCount());
+        }
+    }
+
+    @Test
+    void evictsByPolicyWhenFull() {
+        AIResponseCache lru = cache(AIResponseCacheSettings.builder().maxEntries(2).evictionPolicy(EvictionPolicy.LRU).build());
+        AIResponseCache lfu = cache(AIResponseCacheSettings.builder().maxEntries(2).evictionPolicy(EvictionPolicy.LFU).build());
+
+        for (AIResponseCache cache : new AIResponseCache[]{lru, lfu}) {
+            cache.put("a", "A");
+            cache.put("b", "B");
+            cache.get("a");
+            cache.get("a");
+            cache.get("b");
+            cache.put("c", "C");
+        }
+
+        // LRU drops "a" (touched before "b"), LFU drops "b" (fewer hits)
+        assertEquals(Optional.empty(), lru.get("a"));
+        assertEquals(Optional.of("B"), lru.get("b"));
+        assertEquals(Optional.of("A"), lfu.get("a"));
+        assertEquals(Optional.empty(), lfu.get("b"));
+    }
+
+    @Test
+    void survivesARestartThroughThePersistenceFile(@TempDir Path dir) {
+        AIResponseCacheSettings settings = AIResponseCacheSettings.builder().persistencePath(dir.resolve("responses.json")).build();
+        String key = AIResponseCache.key("gpt-3.5-turbo", "chest", 2000, 0.7);
+
+        try (AIResponseCache cache = cache(settings)) {
+            cache.put(key, "{\"name\":\"Push Up\"}");
+        }
+
+        assertEquals(Optional.of("{\"name\":\"Push Up\"}"), cache(settings).get(key));
+        assertNotEquals(key, AIResponseCache.key("gpt-3.5-turbo", "chest", 2000, 0.2));
+    }
+
+    private static AIResponseCache cache(AIResponseCacheSettings settings) {
+        return new AIResponseCache(settings, new SimpleMeterRegistry());
+    }
+}
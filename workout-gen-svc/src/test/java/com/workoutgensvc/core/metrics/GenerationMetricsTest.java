@@ -0,0 +1,88 @@
+package com.workoutgensvc.core.metrics;
+
+import com.workoutgensvc.exercise.Exercise;
+import com.workoutgensvc.exercise.ExerciseRepository;
+import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.support.Chat2ApiStubServer;
+import com.workoutgensvc.workout.WorkoutService;
+import com.workoutgensvc.workout.enums.GenerationMode;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "ai.workout.local-fallback=false")
+class GenerationMetricsTest {
+    private static final Chat2ApiStubServer stub = startStub();
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private WorkoutService workoutService;
+    @Autowired
+    private ExerciseRepository exerciseRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void chat2api(DynamicPropertyRegistry registry) {
+        registry.add("chat2api.base-url", stub::getBaseUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void workoutGenerationIsTimedStageByStageAndScraped() throws Exception {
+        exerciseRepository.save(Exercise.builder().name("Push Up").type(ExerciseType.STRENGTH).build());
+        // The second exercise has no number and is dropped
+        stub.withResponder(prompt -> "{\"name\": \"Metered Workout\", \"workoutExercises\": ["
+                + "{\"exerciseName\": \"Push Up\", \"number\": 1, \"reps\": 10},"
+                + "{\"exerciseName\": \"Push Up\", \"reps\": 10}]}");
+        workoutService.generateWorkout("STRENGTH", "30", "Beginner", "Build strength", null, GenerationMode.AI, true);
+
+        for (String stage : new String[]{"prompt", "upstream", "parse", "resolve", "materialize", "persist"}) {
+            assertEquals(1, meterRegistry.get("ai.pipeline.stage").tag("pipeline", "workout").tag("stage", stage).timer().count(), stage);
+        }
+        assertEquals(1.0, meterRegistry.get("ai.pipeline.dropped").tag("element", "workout_exercise").counter().count());
+        assertEquals(3, meterRegistry.get("ai.pipeline.stage").tag("pipeline", "workout").tag("stage", "upstream").timer()
+                .takeSnapshot().percentileValues().length);
+        assertTrue(meterRegistry.get("ai.prompt.size").tag("pipeline", "workout").summary().totalAmount() > 1000);
+
+        stub.withResponder(prompt -> "Sorry, I can't help with that.");
+        assertThrows(RuntimeException.class, () -> workoutService.generateWorkout("STRENGTH", "30", "Beginner", "Build strength", null, GenerationMode.AI, true));
+        assertEquals(1.0, meterRegistry.get("ai.pipeline.invalid-responses").tag("pipeline", "workout").counter().count());
+
+        HttpResponse<String> scrape = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/prometheus")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, scrape.statusCode());
+        assertTrue(scrape.body().contains("ai_pipeline_stage_seconds_bucket{"), "percentile histogram is exported");
+        assertTrue(scrape.body().contains("ai_prompt_size_characters"), "prompt sizes are exported");
+    }
+
+    private static Chat2ApiStubServer startStub() {
+        try {
+            return new Chat2ApiStubServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.workoutgensvc.core.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveLimiterTest {
+    private final AdaptiveLimiter limiter = new AdaptiveLimiter(ResilienceSettings.builder()
+            .initialLimit(1)
+            .minLimit(1)
+            .maxConcurrent(4)
+            .build());
+
+    @Test
+    void waiterIsRefusedOnceItsWaitRunsOut() throws Exception {
+        assertTrue(limiter.tryAcquire());
+
+        long start = System.nanoTime();
+        assertFalse(limiter.tryAcquire(Duration.ofMillis(100).toNanos()));
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(100).toNanos());
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void releaseWakesAWaiter() throws Exception {
+        assertTrue(limiter.tryAcquire());
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.tryAcquire(Duration.ofSeconds(30).toNanos());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+
+        Thread.sleep(100);
+        assertFalse(waiter.isDone());
+        limiter.onIgnored();
+
+        assertTrue(waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(1, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,112 @@
+package com.workoutgensvc.core.resilience;
+
+import com.workoutgensvc.core.resilience.enums.CircuitState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CircuitBreakerTest {
+    private final AtomicLong now = new AtomicLong();
+    private final List<CircuitState> transitions = new ArrayList<>();
+    private final CircuitBreaker breaker = new CircuitBreaker(ResilienceSettings.builder()
+            .slidingWindowSize(10)
+            .minimumCalls(4)
+            .failureRateThreshold(0.5)
+            .openDuration(Duration.ofSeconds(30))
+            .halfOpenCalls(2)
+            .build(), (from, to) -> transitions.add(to), now::get);
+
+    @Test
+    void opensOnceEnoughOfTheWindowFailed() {
+        // Three failures out of three calls stay closed below the minimum
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure(acquire());
+        }
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+
+        breaker.onSuccess(acquire());
+        breaker.onFailure(acquire());
+
+        assertEquals(CircuitState.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REFUSED, breaker.tryAcquire());
+    }
+
+    @Test
+    void successesAgeFailuresOutOfTheWindow() {
+        breaker.onFailure(acquire());
+        for (int i = 0; i < 10; i++) {
+            breaker.onSuccess(acquire());
+        }
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(acquire());
+        }
+        // 4 of the last 10 calls failed
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void halfOpenTrialsDecideWhetherItCloses() {
+        open();
+        now.addAndGet(Duration.ofSeconds(29).toNanos());
+        assertEquals(CircuitBreaker.REFUSED, breaker.tryAcquire());
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        long first = acquire();
+        long second = acquire();
+        assertEquals(CircuitBreaker.REFUSED, breaker.tryAcquire(), "only halfOpenCalls trials at a time");
+        assertEquals(CircuitState.HALF_OPEN, breaker.getState());
+
+        breaker.onSuccess(first);
+        breaker.onFailure(second);
+        assertEquals(CircuitState.OPEN, breaker.getState());
+
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        first = acquire();
+        second = acquire();
+        breaker.onSuccess(first);
+        breaker.onSuccess(second);
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+        assertEquals(List.of(CircuitState.OPEN, CircuitState.HALF_OPEN, CircuitState.OPEN, CircuitState.HALF_OPEN, CircuitState.CLOSED), transitions);
+    }
+
+    @Test
+    void callsFromBeforeTheCircuitOpenedAreNotTrials() {
+        long slow = acquire();
+        long slowest = acquire();
+        open();
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        long trial = acquire();
+        assertEquals(CircuitState.HALF_OPEN, breaker.getState());
+
+        // Settling the closed-era calls neither frees trial slots nor counts towards closing
+        breaker.onSuccess(slow);
+        breaker.onIgnored(slowest);
+        assertEquals(CircuitState.HALF_OPEN, breaker.getState());
+        long secondTrial = acquire();
+        assertEquals(CircuitBreaker.REFUSED, breaker.tryAcquire(), "only halfOpenCalls trials at a time");
+
+        breaker.onSuccess(trial);
+        assertEquals(CircuitState.HALF_OPEN, breaker.getState());
+        breaker.onSuccess(secondTrial);
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+    }
+
+    private long acquire() {
+        long permit = breaker.tryAcquire();
+        assertNotEquals(CircuitBreaker.REFUSED, permit);
+        return permit;
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(acquire());
+        }
+        assertEquals(CircuitState.OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,215 @@
+package com.workoutgensvc.core.resilience;
+
+import com.workoutgensvc.core.AIService;
+import com.workoutgensvc.core.AIUnavailableException;
+import com.workoutgensvc.core.metrics.enums.Pipeline;
+import com.workoutgensvc.core.resilience.enums.CircuitState;
+import com.workoutgensvc.support.Chat2ApiStubServer;
+import com.workoutgensvc.support.TestAIServices;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpstreamGuardTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void failingUpstreamOpensTheCircuitAndLaterCallsNeverLeave() throws Exception {
+        UpstreamGuard guard = new UpstreamGuard(ResilienceSettings.builder()
+                .minimumCalls(5)
+                .openDuration(Duration.ofMinutes(1))
+                .build(), meterRegistry);
+
+        try (Chat2ApiStubServer stub = new Chat2ApiStubServer().withFailures(1.0, 503)) {
+            AIService aiService = TestAIServices.create(stub.getBaseUrl(), new RestTemplate(), guard);
+            for (int i = 0; i < 5; i++) {
+                assertThrows(AIUnavailableException.class, () -> aiService.generateResponse(Pipeline.EXERCISE, "prompt", true));
+            }
+            assertEquals(CircuitState.OPEN, guard.getCircuitState());
+
+            for (int i = 0; i < 20; i++) {
+                assertThrows(AIRejectedException.class, () -> aiService.generateResponse(Pipeline.EXERCISE, "prompt", true));
+            }
+            assertEquals(5, stub.getRequestCount());
+        }
+
+        assertEquals(1.0, meterRegistry.get("ai.circuit.transitions").tag("to", "open").counter().count());
+        assertEquals(1.0, meterRegistry.get("ai.circuit.state").tag("state", "open").gauge().value());
+        assertEquals(20.0, meterRegistry.get("ai.upstream.rejections").tag("reason", "circuit_open").counter().count());
+        // Every failure cut the limit by a quarter, down to the minimum
+        assertEquals(1.0, meterRegistry.get("ai.upstream.concurrency.limit").gauge().value());
+    }
+
+    @Test
+    void clientDisconnectsNeitherOpenTheCircuitNorShrinkTheLimit() throws Exception {
+        UpstreamGuard guard = new UpstreamGuard(ResilienceSettings.builder()
+                .minimumCalls(5)
+                .initialLimit(8)
+                .build(), meterRegistry);
+
+        try (Chat2ApiStubServer stub = new Chat2ApiStubServer().withResponder(prompt -> "{\"name\": \"Push Up\"}")) {
+            AIService aiService = TestAIServices.create(stub.getBaseUrl(), new RestTemplate(), guard);
+            for (int i = 0; i < 10; i++) {
+                assertThrows(RuntimeException.class, () -> aiService.streamResponse(Pipeline.WORKOUT, "prompt", true, token -> {
+                    throw new UncheckedIOException("Stream client disconnected", new IOException("Broken pipe"));
+                }));
+            }
+            assertEquals(10, stub.getRequestCount());
+        }
+
+        assertEquals(CircuitState.CLOSED, guard.getCircuitState());
+        assertEquals(8, guard.getLimit());
+        assertEquals(0.0, meterRegistry.get("ai.upstream.concurrency.in-flight").gauge().value());
+    }
+
+    @Test
+    void bulkheadRefusesCallsBeyondItsCapacity() throws Exception {
+        UpstreamGuard guard = new UpstreamGuard(ResilienceSettings.builder()
+                .maxConcurrent(2)
+                .initialLimit(2)
+                .maxWait(Duration.ZERO)
+                .build(), meterRegistry);
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try (Chat2ApiStubServer stub = new Chat2ApiStubServer().withLatency(300).withResponder(prompt -> "ok")) {
+            AIService aiService = TestAIServices.create(stub.getBaseUrl(), new RestTemplate(), guard);
+            List<Future<String>> calls = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                int call = i;
+                calls.add(executor.submit(() -> aiService.generateResponse(Pipeline.EXERCISE, "prompt " + call, true)));
+            }
+
+            int answered = 0;
+            int rejected = 0;
+            for (Future<String> call : calls) {
+                try {
+                    call.get();
+                    answered++;
+                } catch (Exception e) {
+                    assertTrue(e.getCause() instanceof AIRejectedException, e.toString());
+                    rejected++;
+                }
+            }
+            assertEquals(2, answered);
+            assertEquals(4, rejected);
+            assertEquals(2, stub.getRequestCount());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(CircuitState.CLOSED, guard.getCircuitState());
+    }
+
+    @Test
+    void limitGrowsWhileLatencyHoldsAndBacksOffWhenItClimbs() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(ResilienceSettings.builder()
+                .initialLimit(4)
+                .maxConcurrent(16)
+                .latencyTolerance(2.0)
+                .backoffRatio(0.5)
+                .build());
+
+        long now = 0;
+        for (int i = 0; i < 40; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.onSuccess(Pipeline.EXERCISE, now, now += millis(100));
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > 4, "limit " + grown);
+
+        assertTrue(limiter.tryAcquire());
+        limiter.onSuccess(Pipeline.EXERCISE, now, now += millis(500));
+        assertEquals(grown / 2, limiter.getLimit(), 1);
+
+        for (int i = 0; i < limiter.getLimit(); i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire(), "callers over the limit are refused");
+    }
+
+    @Test
+    void eachPipelineIsJudgedAgainstItsOwnLatency() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(ResilienceSettings.builder()
+                .initialLimit(8)
+                .maxConcurrent(16)
+                .latencyTolerance(2.0)
+                .build());
+
+        long now = 0;
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.onSuccess(Pipeline.EXERCISE, now, now += millis(1000));
+            // A plan takes a minute, which is normal for a plan
+            assertTrue(limiter.tryAcquire());
+            limiter.onSuccess(Pipeline.PLAN, now, now += millis(60_000));
+        }
+        assertTrue(limiter.getLimit() > 8, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void slowCallsInFlightTogetherBackOffOnce() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(ResilienceSettings.builder()
+                .initialLimit(8)
+                .maxConcurrent(16)
+                .backoffRatio(0.5)
+                .build());
+
+        long now = 0;
+        assertTrue(limiter.tryAcquire());
+        limiter.onSuccess(Pipeline.WORKOUT, now, now += millis(100));
+
+        // Six calls start together and all meet the same slow spell
+        long start = now;
+        for (int i = 0; i < 6; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        for (int i = 0; i < 6; i++) {
+            limiter.onDropped(start, now += millis(1000));
+        }
+        assertEquals(4, limiter.getLimit());
+
+        // A call started after that back-off counts again
+        assertTrue(limiter.tryAcquire());
+        limiter.onDropped(now, now += millis(1000));
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void callerOverTheLimitWaitsForASlot() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(ResilienceSettings.builder()
+                .initialLimit(1)
+                .maxConcurrent(1)
+                .build());
+        assertTrue(limiter.tryAcquire());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> waiting = executor.submit(() -> limiter.tryAcquire(Duration.ofSeconds(5).toNanos()));
+            Thread.sleep(100);
+            assertFalse(waiting.isDone(), "waits while the slot is taken");
+            limiter.onIgnored();
+            assertTrue(waiting.get(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertFalse(limiter.tryAcquire(Duration.ofMillis(50).toNanos()), "refused once the wait runs out");
+    }
+
+    private static long millis(long millis) {
+        return Duration.ofMillis(millis).toNanos();
+    }
+}
@@ -0,0 +1,101 @@
+package com.workoutgensvc.core.retry;
+
+import com.google.gson.JsonSyntaxException;
+import com.workoutgensvc.core.AIService;
+import com.workoutgensvc.core.AIUnavailableException;
+import com.workoutgensvc.core.metrics.enums.Pipeline;
+import com.workoutgensvc.core.resilience.AIRejectedException;
+import com.workoutgensvc.core.retry.enums.FailureCause;
+import com.workoutgensvc.support.Chat2ApiStubServer;
+import com.workoutgensvc.support.TestAIServices;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPolicyTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void serverErrorsAreRetriedWithBackoffUntilAttemptsRunOut() throws Exception {
+        RetryPolicy retryPolicy = policy(RetrySettings.builder().initialBackoff(Duration.ofMillis(20)).build());
+
+        try (Chat2ApiStubServer stub = new Chat2ApiStubServer().withFailures(1.0, 503)) {
+            AIService aiService = TestAIServices.create(stub.getBaseUrl(), new RestTemplate(), retryPolicy);
+            assertThrows(AIUnavailableException.class, () -> aiService.generateResponse(Pipeline.EXERCISE, "prompt", true));
+            assertEquals(3, stub.getRequestCount());
+        }
+        assertEquals(2.0, meterRegistry.get("ai.retries").tag("cause", "server_error").counter().count());
+        assertEquals(1.0, meterRegistry.get("ai.retry.exhausted").tag("cause", "server_error").counter().count());
+    }
+
+    @Test
+    void clientErrorsAndSpentBudgetsAreNotRetried() throws Exception {
+        try (Chat2ApiStubServer stub = new Chat2ApiStubServer().withFailures(1.0, 400)) {
+            AIService aiService = TestAIServices.create(stub.getBaseUrl(), new RestTemplate(), policy(RetrySettings.builder().build()));
+            assertThrows(AIUnavailableException.class, () -> aiService.generateResponse(Pipeline.EXERCISE, "prompt", true));
+            assertEquals(1, stub.getRequestCount());
+        }
+
+        try (Chat2ApiStubServer stub = new Chat2ApiStubServer().withFailures(1.0, 503)) {
+            AIService aiService = TestAIServices.create(stub.getBaseUrl(), new RestTemplate(), policy(RetrySettings.builder().budget(Duration.ZERO).build()));
+            assertThrows(AIUnavailableException.class, () -> aiService.generateResponse(Pipeline.EXERCISE, "prompt", true));
+            assertEquals(1, stub.getRequestCount());
+        }
+    }
+
+    @Test
+    void unusableExercisesAreRegeneratedAndNeverReturned() throws Exception {
+        RetryPolicy retryPolicy = policy(RetrySettings.builder().build());
+
+        try (Chat2ApiStubServer stub = new Chat2ApiStubServer()) {
+            AtomicInteger calls = new AtomicInteger();
+            String valid = "{\"name\":\"Push Up\",\"type\":\"STRENGTH\",\"imageUrl\":\"" + stub.getMediaUrl("push-up.png") + "\"}";
+            stub.withResponder(prompt -> switch (calls.incrementAndGet()) {
+                case 1 -> "Sure! Here is your exercise";
+                case 2 -> "{\"type\":\"STRENGTH\",\"imageUrl\":\"" + stub.getMediaUrl("push-up.png") + "\"}";
+                default -> valid;
+            });
+            AIService aiService = TestAIServices.create(stub.getBaseUrl(), new RestTemplate(), retryPolicy);
+
+            assertEquals(valid, aiService.generateValidExercise("Chest", "Beginner", "Bodyweight", 3, true));
+            assertEquals(3, stub.getRequestCount());
+
+            // Links that never resolve: three attempts, then nothing rather than the unvalidated answer
+            stub.withResponder(prompt -> "{\"name\":\"Push Up\",\"type\":\"STRENGTH\",\"imageUrl\":\"http://127.0.0.1:1/push-up.png\"}");
+            AIGenerationException failure = assertThrows(AIGenerationException.class,
+                    () -> aiService.generateValidExercise("Chest", "Beginner", "Bodyweight", 3, true));
+            assertEquals(FailureCause.INVALID_MEDIA, failure.getFailureCause());
+            assertEquals(6, stub.getRequestCount());
+            assertTrue(aiService.tryGenerateValidExercise("Chest", "Beginner", "Bodyweight", 1, true).isEmpty());
+        }
+        assertEquals(1.0, meterRegistry.get("ai.retries").tag("cause", "invalid_json").counter().count());
+        assertEquals(1.0, meterRegistry.get("ai.retries").tag("cause", "schema_failure").counter().count());
+        assertEquals(2.0, meterRegistry.get("ai.retries").tag("cause", "invalid_media").counter().count());
+    }
+
+    @Test
+    void classifiesByTheFirstRecognisableCause() {
+        assertEquals(FailureCause.CONNECTION_REFUSED, RetryPolicy.classify(new AIUnavailableException("down", new ResourceAccessException("I/O error", new ConnectException("Connection refused")))));
+        assertEquals(FailureCause.TIMEOUT, RetryPolicy.classify(new RuntimeException(new SocketTimeoutException("Read timed out"))));
+        assertEquals(FailureCause.RATE_LIMITED, RetryPolicy.classify(new RuntimeException(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "", null, null, null))));
+        assertEquals(FailureCause.REJECTED, RetryPolicy.classify(new AIRejectedException("open")));
+        assertEquals(FailureCause.INVALID_JSON, RetryPolicy.classify(new JsonSyntaxException("unterminated object")));
+        assertEquals(FailureCause.UNKNOWN, RetryPolicy.classify(new NullPointerException()));
+    }
+
+    private RetryPolicy policy(RetrySettings settings) {
+        return new RetryPolicy(settings, meterRegistry);
+    }
+}
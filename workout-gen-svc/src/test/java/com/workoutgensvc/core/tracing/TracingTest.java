@@ -0,0 +1,121 @@
+package com.workoutgensvc.core.tracing;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.workoutgensvc.exercise.Exercise;
+import com.workoutgensvc.exercise.ExerciseRepository;
+import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.support.Chat2ApiStubServer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "ai.workout.local-fallback=false")
+class TracingTest {
+    private static final Chat2ApiStubServer stub = startStub();
+    private static final Path spanFile = tempFile();
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private ExerciseRepository exerciseRepository;
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("chat2api.base-url", stub::getBaseUrl);
+        registry.add("ai.tracing.file", spanFile::toString);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void workoutRequestIsOneTraceFromControllerToRepositories() throws Exception {
+        exerciseRepository.save(Exercise.builder().name("Push Up").type(ExerciseType.STRENGTH).build());
+        stub.withResponder(prompt -> "{\"name\": \"Traced Workout\", \"workoutExercises\": ["
+                + "{\"exerciseName\": \"Push Up\", \"number\": 1, \"reps\": 10}]}");
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/ai/workouts?type=STRENGTH&goals=strength&noCache=true"))
+                        .POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+
+        List<JsonObject> spans = Files.readAllLines(spanFile).stream().map(line -> JsonParser.parseString(line).getAsJsonObject()).toList();
+        JsonObject server = span(spans, "http post /api/v1/ai/workouts");
+        String traceId = server.get("traceId").getAsString();
+
+        JsonObject generation = span(spans, "ai.generation");
+        assertEquals(traceId, generation.get("traceId").getAsString());
+        assertEquals("gpt-3.5-turbo", attribute(generation, "ai.model"));
+        assertEquals("miss", attribute(generation, "ai.cache"));
+        assertTrue(Integer.parseInt(attribute(generation, "ai.prompt.length")) > 1000);
+
+        JsonObject upstream = span(spans, "ai.upstream.call");
+        assertEquals(generation.get("spanId").getAsString(), upstream.get("parentSpanId").getAsString());
+        assertEquals("1", attribute(upstream, "ai.retry.attempt"));
+        // The chat2api exchange itself, with the trace context passed on to the stub
+        assertTrue(spans.stream().anyMatch(span -> upstream.get("spanId").getAsString().equals(parent(span))
+                && span.get("kind").getAsString().equals("CLIENT")));
+
+        JsonObject lookup = span(spans, "ExerciseRepository.findByNormalizedNameIn");
+        assertEquals(traceId, lookup.get("traceId").getAsString());
+        assertEquals("1", attribute(lookup, "db.rows"));
+        assertEquals(traceId, span(spans, "WorkoutRepository.save").get("traceId").getAsString());
+    }
+
+    private static JsonObject span(List<JsonObject> spans, String name) {
+        return spans.stream().filter(span -> span.get("name").getAsString().equals(name)).findFirst()
+                .orElseThrow(() -> new AssertionError("No span named " + name + " in " + spans.stream().map(span -> span.get("name").getAsString()).toList()));
+    }
+
+    private static String attribute(JsonObject span, String key) {
+        return span.getAsJsonObject("attributes").get(key).getAsString();
+    }
+
+    private static String parent(JsonObject span) {
+        return span.has("parentSpanId") ? span.get("parentSpanId").getAsString() : null;
+    }
+
+    private static Chat2ApiStubServer startStub() {
+        try {
+            return new Chat2ApiStubServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path tempFile() {
+        try {
+            Path file = Files.createTempFile("spans", ".jsonl");
+            file.toFile().deleteOnExit();
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
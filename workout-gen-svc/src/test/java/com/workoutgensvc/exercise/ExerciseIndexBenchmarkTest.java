@@ -0,0 +1,66 @@
+package com.workoutgensvc.exercise;
+
+import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.exercise.enums.Intensity;
+import com.workoutgensvc.exercise.enums.MuscleType;
+import com.workoutgensvc.workout.enums.WorkoutType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Workout prompt size and selection time with the whole library in the prompt versus the top-K
+ * relevant exercises. mvn -Pbenchmark test
+ */
+@Tag("benchmark")
+class ExerciseIndexBenchmarkTest {
+    private static final int[] SIZES = {1_000, 10_000, 100_000};
+    private static final int LIMIT = 40;
+    private static final int QUERIES = 500;
+
+    @Test
+    void comparePromptSizeAndSelectionTime() {
+        System.out.printf("%-8s %14s %14s %14s %14s%n", "library", "full chars", "top-K chars", "~tokens saved", "select us");
+
+        for (int size : SIZES) {
+            Random random = new Random(size);
+            ExerciseIndex index = new ExerciseIndex(null);
+            List<String> allNames = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String name = "Exercise variation " + i;
+                Map<MuscleType, Intensity> muscles = new EnumMap<>(MuscleType.class);
+                for (int m = 0; m < 1 + random.nextInt(3); m++) {
+                    muscles.put(pick(random, MuscleType.values()), pick(random, Intensity.values()));
+                }
+                index.add(name, pick(random, ExerciseType.values()), muscles);
+                allNames.add(name);
+            }
+
+            int fullChars = ("Available exercises: " + String.join(", ", allNames)).length();
+            int selectedChars = 0;
+            WorkoutType[] types = WorkoutType.values();
+            String[] goals = {"Build Muscle", "Lose Weight", "Improve Endurance", "Increase Strength", "Tone Body"};
+
+            for (int i = 0; i < QUERIES; i++) {
+                index.select(types[i % types.length], goals[i % goals.length], "Intermediate", LIMIT);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                List<String> selected = index.select(types[i % types.length], goals[i % goals.length], "Intermediate", LIMIT);
+                selectedChars = ("Available exercises: " + String.join(", ", selected)).length();
+            }
+            double selectMicros = (System.nanoTime() - start) / 1e3 / QUERIES;
+
+            System.out.printf("%-8d %14d %14d %14d %14.1f%n", size, fullChars, selectedChars, (fullChars - selectedChars) / 4, selectMicros);
+        }
+    }
+
+    private static <T> T pick(Random random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,40 @@
+package com.workoutgensvc.exercise;
+
+import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.exercise.enums.Intensity;
+import com.workoutgensvc.exercise.enums.MuscleType;
+import com.workoutgensvc.workout.enums.WorkoutType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExerciseIndexTest {
+    @Test
+    void selectsExercisesMatchingTheWorkoutTypeGoalsAndLevel() {
+        ExerciseIndex index = new ExerciseIndex(null);
+        index.add("Bench Press", ExerciseType.STRENGTH, Map.of(MuscleType.MIDDLE_CHEST, Intensity.HIGH));
+        index.add("Push Up", ExerciseType.STRENGTH, Map.of(MuscleType.MIDDLE_CHEST, Intensity.MODERATE));
+        index.add("Squat", ExerciseType.STRENGTH, Map.of(MuscleType.QUADRICEPS, Intensity.HIGH));
+        index.add("Downward Dog", ExerciseType.FLEXIBILITY, Map.of(MuscleType.HAMSTRINGS, Intensity.LOW));
+        index.add("Tree Pose", ExerciseType.BALANCE, Map.of(MuscleType.CALVES, Intensity.LOW));
+        index.add("Burpee", ExerciseType.PLYOMETRIC, Map.of(MuscleType.QUADRICEPS, Intensity.EXTREME));
+        index.add("push up", ExerciseType.STRENGTH, Map.of());
+
+        assertEquals(6, index.size());
+        assertEquals(List.of("Downward Dog", "Tree Pose"), index.select(WorkoutType.YOGA, "Flexibility", "Beginner", 2));
+
+        List<String> chest = index.select(WorkoutType.STRENGTH, "Build chest muscle", "Intermediate", 3);
+        assertEquals(List.of("Bench Press", "Push Up"), chest.subList(0, 2));
+
+        List<String> beginner = index.select(WorkoutType.STRENGTH, "Build chest muscle", "Beginner", 2);
+        assertEquals(List.of("Push Up", "Bench Press"), beginner);
+
+        // Fewer relevant exercises than requested: the rest of the library fills the gap
+        assertTrue(index.select(WorkoutType.MOBILITY, "", "Beginner", 4).containsAll(List.of("Downward Dog", "Tree Pose")));
+        assertEquals(4, index.select(WorkoutType.MOBILITY, "", "Beginner", 4).size());
+    }
+}
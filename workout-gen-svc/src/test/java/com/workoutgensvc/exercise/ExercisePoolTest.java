@@ -0,0 +1,40 @@
+package com.workoutgensvc.exercise;
+
+import com.workoutgensvc.core.AIService;
+import com.workoutgensvc.support.Chat2ApiStubServer;
+import com.workoutgensvc.support.TestAIServices;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExercisePoolTest {
+    @Test
+    void servesPreGeneratedExercisesWithoutCallingTheModel() throws Exception {
+        try (Chat2ApiStubServer stub = new Chat2ApiStubServer()) {
+            stub.withResponder(prompt -> "{\"name\":\"Push Up\",\"type\":\"STRENGTH\",\"imageUrl\":\"" + stub.getMediaUrl("push-up.png") + "\"}");
+            AIService aiService = TestAIServices.create(stub.getBaseUrl(), new RestTemplate());
+            // Runs the refill batch inline
+            ExercisePool pool = new ExercisePool(aiService, Runnable::run, new SimpleMeterRegistry(), true, 1, 3);
+
+            pool.refill();
+            assertEquals(3, pool.size());
+            assertEquals(3, stub.getRequestCount());
+
+            Optional<String> pooled = pool.take("chest", "beginner", "bodyweight");
+            assertTrue(pooled.isPresent());
+            assertTrue(pooled.get().contains("Push Up"));
+            assertEquals(Optional.empty(), pool.take("Chest", "Beginner", "Bodyweight"));
+            assertEquals(Optional.empty(), pool.take("Neck", "Beginner", "Bodyweight"));
+            assertEquals(3, stub.getRequestCount());
+
+            // The next refill starts with the combination that was just emptied
+            pool.refill();
+            assertTrue(pool.take("Chest", "Beginner", "Bodyweight").isPresent());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.workoutgensvc.exercise.enums;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the muscle display names: formatting all of them, as the enum does once when it is
+ * loaded, against reading the cached names.
+ * mvn -Pjmh test-compile exec:exec -Djmh.includes=MuscleTypeJmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MuscleTypeJmh {
+    private static final MuscleType[] MUSCLES = MuscleType.values();
+
+    @Benchmark
+    public void formatAll(Blackhole blackhole) {
+        for (MuscleType muscle : MUSCLES) {
+            blackhole.consume(MuscleType.formatDisplayName(muscle.name()));
+        }
+    }
+
+    @Benchmark
+    public void cachedAll(Blackhole blackhole) {
+        for (MuscleType muscle : MUSCLES) {
+            blackhole.consume(muscle.getDisplayName());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.workoutgensvc.loadtest;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Replays a weighted mix of generation requests against a running service from a fixed number of
+ * virtual users, each sending its next request as soon as the previous one completes. Requests that
+ * complete during the warm-up are not recorded.
+ */
+@Builder
+public class LoadTestDriver {
+    /**
+     * The endpoints the driver can call, each with a few argument choices so requests differ.
+     */
+    public enum Endpoint {
+        EXERCISE("exercise", random -> "/api/v1/ai/exercises?muscleGroup=" + pick(random, "Chest", "Back", "Legs", "Shoulders", "Core")),
+        WORKOUT("workout", random -> "/api/v1/ai/workouts?type=" + pick(random, "STRENGTH", "FULL_BODY", "HIIT") + "&goals=" + pick(random, "Build+strength", "Lose+weight")),
+        WORKOUT_STREAM("workout-stream", random -> "/api/v1/ai/workouts/stream?type=" + pick(random, "STRENGTH", "FULL_BODY", "HIIT") + "&goals=Build+strength"),
+        PLAN("plan", random -> "/api/v1/ai/plans?goals=" + pick(random, "STRENGTH", "WEIGHT_LOSS", "ENDURANCE") + "&duration=" + pick(random, "2", "4")),
+        PLAN_STREAM("plan-stream", random -> "/api/v1/ai/plans/stream?goals=STRENGTH&duration=4");
+
+        @Getter
+        private final String label;
+        private final Function<ThreadLocalRandom, String> path;
+
+        Endpoint(String label, Function<ThreadLocalRandom, String> path) {
+            this.label = label;
+            this.path = path;
+        }
+
+        public boolean isStream() {
+            return this == WORKOUT_STREAM || this == PLAN_STREAM;
+        }
+
+        public static Endpoint fromLabel(String label) {
+            for (Endpoint endpoint : values()) {
+                if (endpoint.label.equalsIgnoreCase(label.trim())) {
+                    return endpoint;
+                }
+            }
+            throw new IllegalArgumentException("Unknown endpoint: " + label);
+        }
+
+        private static String pick(ThreadLocalRandom random, String... choices) {
+            return choices[random.nextInt(choices.length)];
+        }
+    }
+
+    private final String baseUrl;
+    private final Map<Endpoint, Integer> mix;
+    @Builder.Default
+    private final int users = 8;
+    @Builder.Default
+    private final Duration warmup = Duration.ofSeconds(10);
+    @Builder.Default
+    private final Duration duration = Duration.ofSeconds(60);
+    @Builder.Default
+    private final Duration requestTimeout = Duration.ofMinutes(3);
+
+    /**
+     * Parses a mix such as {@code exercise=3,workout=4,plan=2} into endpoint weights.
+     */
+    public static Map<Endpoint, Integer> parseMix(String spec) {
+        Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.split("=");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(Endpoint.fromLabel(parts[0]), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no endpoint with a positive weight: " + spec);
+        }
+        return mix;
+    }
+
+    public LoadTestReport run() throws InterruptedException {
+        List<Endpoint> weighted = new ArrayList<>();
+        mix.forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(endpoint);
+            }
+        });
+
+        Map<Endpoint, LoadTestReport.Recorder> recorders = new EnumMap<>(Endpoint.class);
+        mix.keySet().forEach(endpoint -> recorders.put(endpoint, new LoadTestReport.Recorder()));
+
+        long recordFrom = System.nanoTime() + warmup.toNanos();
+        long stopAt = recordFrom + duration.toNanos();
+
+        // One platform thread per user, since each blocks on its request for the whole upstream latency
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        try {
+            List<Callable<Void>> sessions = new ArrayList<>();
+            for (int user = 0; user < users; user++) {
+                sessions.add(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < stopAt) {
+                        Endpoint endpoint = weighted.get(random.nextInt(weighted.size()));
+                        long start = System.nanoTime();
+                        boolean ok = send(client, endpoint, random);
+                        long end = System.nanoTime();
+                        if (start >= recordFrom && end <= stopAt) {
+                            recorders.get(endpoint).record(end - start, ok);
+                        }
+                    }
+                    return null;
+                });
+            }
+            executor.invokeAll(sessions);
+        } finally {
+            executor.shutdownNow();
+        }
+        return new LoadTestReport(duration, recorders);
+    }
+
+    private boolean send(HttpClient client, Endpoint endpoint, ThreadLocalRandom random) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint.path.apply(random)))
+                .timeout(requestTimeout)
+                .header("Accept", endpoint.isStream() ? "text/event-stream" : "application/json")
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            // Streams report failures as an error event after a 200
+            return response.statusCode() == 200 && !(endpoint.isStream() && response.body().contains("event:error"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
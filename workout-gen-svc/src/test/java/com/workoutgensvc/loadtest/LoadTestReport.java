@@ -0,0 +1,104 @@
+package com.workoutgensvc.loadtest;
+
+import com.workoutgensvc.loadtest.LoadTestDriver.Endpoint;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Throughput, latency percentiles of successful requests and error rate per endpoint, and for all
+ * endpoints together, over the measured part of a {@link LoadTestDriver} run.
+ */
+public class LoadTestReport {
+    private final Duration duration;
+    private final Map<Endpoint, Recorder> recorders;
+
+    LoadTestReport(Duration duration, Map<Endpoint, Recorder> recorders) {
+        this.duration = duration;
+        this.recorders = recorders;
+    }
+
+    public int getRequests() {
+        return recorders.values().stream().mapToInt(Recorder::count).sum();
+    }
+
+    public int getErrors() {
+        return recorders.values().stream().mapToInt(Recorder::errors).sum();
+    }
+
+    public double getErrorRate() {
+        int requests = getRequests();
+        return requests == 0 ? 0 : (double) getErrors() / requests;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%-16s %10s %12s %10s %10s %10s %8s%n", "endpoint", "requests", "requests/s", "p50 ms", "p95 ms", "p99 ms", "errors");
+        Recorder all = new Recorder();
+        recorders.forEach((endpoint, recorder) -> {
+            printRow(out, endpoint.getLabel(), recorder);
+            all.addAll(recorder);
+        });
+        printRow(out, "total", all);
+    }
+
+    private void printRow(PrintStream out, String label, Recorder recorder) {
+        long[] latencies = recorder.sortedLatencies();
+        int requests = recorder.count();
+        out.printf("%-16s %10d %12.1f %10.0f %10.0f %10.0f %7.1f%%%n",
+                label, requests, requests / (duration.toMillis() / 1000.0),
+                percentileMs(latencies, 0.50), percentileMs(latencies, 0.95), percentileMs(latencies, 0.99),
+                requests == 0 ? 0 : 100.0 * recorder.errors() / requests);
+    }
+
+    private static double percentileMs(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    /**
+     * Latencies of successful requests only: a request the service sheds fails within milliseconds,
+     * and counting it would pull the percentiles below what callers that get a result see.
+     */
+    static class Recorder {
+        private long[] latencies = new long[1024];
+        private int successes;
+        private int errors;
+
+        synchronized void record(long latencyNanos, boolean ok) {
+            if (!ok) {
+                errors++;
+                return;
+            }
+            if (successes == latencies.length) {
+                latencies = Arrays.copyOf(latencies, successes * 2);
+            }
+            latencies[successes++] = latencyNanos;
+        }
+
+        synchronized void addAll(Recorder other) {
+            for (long latency : other.sortedLatencies()) {
+                record(latency, true);
+            }
+            errors += other.errors();
+        }
+
+        synchronized int count() {
+            return successes + errors;
+        }
+
+        synchronized int errors() {
+            return errors;
+        }
+
+        synchronized long[] sortedLatencies() {
+            long[] sorted = Arrays.copyOf(latencies, successes);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
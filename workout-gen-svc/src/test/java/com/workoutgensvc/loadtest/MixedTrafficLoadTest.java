@@ -0,0 +1,105 @@
+package com.workoutgensvc.loadtest;
+
+import com.workoutgensvc.exercise.ExerciseService;
+import com.workoutgensvc.support.CannedCompletions;
+import com.workoutgensvc.support.Chat2ApiStubServer;
+import com.workoutgensvc.support.StubLatency;
+import com.workoutgensvc.workout.WorkoutService;
+import com.workoutgensvc.workout.enums.GenerationMode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays mixed generation traffic against the whole service, on an in-memory database, with a
+ * chat2api stub that answers with canned JSON after a configurable latency and error rate.
+ * mvn -Ploadtest test, with any of these to change the run:
+ * <ul>
+ *     <li>{@code -Dloadtest.users=8} concurrent users</li>
+ *     <li>{@code -Dloadtest.warmup=10s}, {@code -Dloadtest.duration=60s}</li>
+ *     <li>{@code -Dloadtest.mix=exercise=3,workout=4,workout-stream=1,plan=2} endpoint weights</li>
+ *     <li>{@code -Dloadtest.latency=lognormal:800-4000} stub latency, also {@code fixed:<ms>} or {@code uniform:<min>-<max>}</li>
+ *     <li>{@code -Dloadtest.error-rate=0.02} share of stub responses that are 503s</li>
+ *     <li>{@code -Dloadtest.max-error-rate=0.05} error rate above which the run fails; by default it only reports</li>
+ * </ul>
+ */
+@Tag("loadtest")
+@ActiveProfiles("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MixedTrafficLoadTest {
+    private static final int SEED_EXERCISES = 12;
+    private static final int SEED_WORKOUTS = 4;
+
+    private static final Chat2ApiStubServer stub = startStub();
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private ExerciseService exerciseService;
+    @Autowired
+    private WorkoutService workoutService;
+
+    @DynamicPropertySource
+    static void chat2api(DynamicPropertyRegistry registry) {
+        registry.add("chat2api.base-url", stub::getBaseUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void mixedTraffic() throws Exception {
+        // Seeded through the services so the prompts list the names, as they would in a used database, and
+        // at the configured latency so the adaptive limit starts from a realistic average
+        stub.withResponder(new CannedCompletions(stub))
+                .withLatency(StubLatency.parse(System.getProperty("loadtest.latency", "lognormal:800-4000")));
+        for (int i = 0; i < SEED_EXERCISES; i++) {
+            exerciseService.generateExercise("Chest", "intermediate", "bodyweight", true);
+        }
+        for (int i = 0; i < SEED_WORKOUTS; i++) {
+            workoutService.generateWorkout("STRENGTH", "45", "intermediate", "Build strength", null, GenerationMode.AI, true);
+        }
+
+        stub.withFailures(Double.parseDouble(System.getProperty("loadtest.error-rate", "0.02")), 503);
+        int stubRequestsBefore = stub.getRequestCount();
+
+        LoadTestDriver driver = LoadTestDriver.builder()
+                .baseUrl("http://localhost:" + port)
+                .mix(LoadTestDriver.parseMix(System.getProperty("loadtest.mix", "exercise=3,workout=4,workout-stream=1,plan=2")))
+                .users(Integer.getInteger("loadtest.users", 8))
+                .warmup(DurationStyle.detectAndParse(System.getProperty("loadtest.warmup", "10s")))
+                .duration(DurationStyle.detectAndParse(System.getProperty("loadtest.duration", "60s")))
+                .build();
+        LoadTestReport report = driver.run();
+
+        report.print(System.out);
+        System.out.printf("chat2api stub calls: %d%n", stub.getRequestCount() - stubRequestsBefore);
+
+        double maxErrorRate = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "1.0"));
+        assertTrue(report.getRequests() > 0, "no request completed within the measured window");
+        assertTrue(report.getErrorRate() <= maxErrorRate,
+                String.format("error rate %.1f%% is above %.1f%%", report.getErrorRate() * 100, maxErrorRate * 100));
+    }
+
+    private static Chat2ApiStubServer startStub() {
+        try {
+            return new Chat2ApiStubServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.workoutgensvc.plan;
+
+import com.workoutgensvc.exercise.Exercise;
+import com.workoutgensvc.exercise.MuscleTarget;
+import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.exercise.enums.Intensity;
+import com.workoutgensvc.exercise.enums.MuscleType;
+import com.workoutgensvc.plan.dto.PlanDayDto;
+import com.workoutgensvc.plan.dto.PlanDto;
+import com.workoutgensvc.plan.enums.PlanDayType;
+import com.workoutgensvc.plan.enums.PlanType;
+import com.workoutgensvc.workout.Workout;
+import com.workoutgensvc.workout.WorkoutExercise;
+import com.workoutgensvc.workout.dto.WorkoutDto;
+import com.workoutgensvc.workout.enums.WorkoutType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Batched, ordered inserts store the same plan tree as one statement per row: the same days in
+ * order, the same workouts on each day and the same exercises in each workout, in order.
+ */
+@SpringBootTest
+class PlanBatchInsertTest {
+    private static final int WEEKS = 2;
+    private static final int WORKOUTS = 5;
+    private static final int[] EXERCISE_NUMBERS = {3, 1, 4, 2};
+
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private PlanService planService;
+
+    @Test
+    void batchedSaveStoresTheSameTree() {
+        List<String> unbatched = describe(PlanDto.from(planService.getPlan(savePlanTree("unbatched", 1)).orElseThrow()));
+        List<String> batched = describe(PlanDto.from(planService.getPlan(savePlanTree("batched", 50)).orElseThrow()));
+
+        assertEquals(describe(PlanDto.from(planTree("expected", new ArrayList<>()))), unbatched);
+        assertEquals(unbatched, batched);
+    }
+
+    private UUID savePlanTree(String prefix, int batchSize) {
+        return transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            List<Object> entities = new ArrayList<>();
+            Plan plan = planTree(prefix, entities);
+            entities.forEach(entityManager::persist);
+            entityManager.persist(plan);
+            return plan.getId();
+        });
+    }
+
+    /**
+     * The plan, with its exercises and workouts added to {@code entities} in the order they must be
+     * persisted. Names carry {@code prefix} only on the workouts' exercises, so trees compare equal.
+     */
+    private static Plan planTree(String prefix, List<Object> entities) {
+        List<Workout> workouts = new ArrayList<>();
+        for (int w = 0; w < WORKOUTS; w++) {
+            Workout workout = Workout.builder()
+                    .name("Workout " + w)
+                    .type(w % 2 == 0 ? WorkoutType.STRENGTH : WorkoutType.HIIT)
+                    .build();
+            for (int number : EXERCISE_NUMBERS) {
+                Exercise exercise = Exercise.builder()
+                        .name(prefix + " exercise " + w + "-" + number)
+                        .type(ExerciseType.STRENGTH)
+                        .muscleGroupTarget(new ArrayList<>(List.of(new MuscleTarget(MuscleType.MIDDLE_CHEST, Intensity.HIGH))))
+                        .build();
+                entities.add(exercise);
+                workout.getWorkoutExercises().add(WorkoutExercise.builder()
+                        .number(number)
+                        .reps(8 + number)
+                        .burnedCalories(10.0 * number)
+                        .workout(workout)
+                        .exercise(exercise)
+                        .build());
+            }
+            entities.add(workout);
+            workouts.add(workout);
+        }
+
+        Plan plan = Plan.builder()
+                .name("Batched Plan")
+                .type(PlanType.STRENGTH)
+                .build();
+        for (int day = 1; day <= WEEKS * 7; day++) {
+            PlanDay planDay = PlanDay.builder()
+                    .dayNumber(day)
+                    .type(day % 7 == 0 ? PlanDayType.REST : PlanDayType.ACTIVE)
+                    .plan(plan)
+                    .build();
+            if (planDay.getType() == PlanDayType.ACTIVE) {
+                planDay.getWorkouts().add(workouts.get(day % WORKOUTS));
+                planDay.getWorkouts().add(workouts.get((day + 2) % WORKOUTS));
+            }
+            plan.getPlanDays().add(planDay);
+        }
+        return plan;
+    }
+
+    /**
+     * One line per day, workout and exercise, with the run-specific part of exercise names removed.
+     * Workouts of a day are sorted by name, since the join table keeps no order.
+     */
+    private static List<String> describe(PlanDto plan) {
+        List<String> lines = new ArrayList<>();
+        lines.add(plan.getName() + " " + plan.getType());
+        for (PlanDayDto planDay : plan.getPlanDays()) {
+            lines.add("day " + planDay.getDayNumber() + " " + planDay.getType());
+            planDay.getWorkouts().stream().sorted(Comparator.comparing(WorkoutDto::getName)).forEach(workout -> {
+                lines.add("  " + workout.getName() + " " + workout.getType());
+                workout.getExercises().forEach(exercise -> lines.add("    " + exercise.getNumber() + " "
+                        + exercise.getExerciseName().substring(exercise.getExerciseName().indexOf(" exercise "))
+                        + " x" + exercise.getReps() + " " + exercise.getBurnedCalories()));
+            });
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,136 @@
+package com.workoutgensvc.plan;
+
+import com.workoutgensvc.exercise.Exercise;
+import com.workoutgensvc.exercise.MuscleTarget;
+import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.exercise.enums.Intensity;
+import com.workoutgensvc.exercise.enums.MuscleType;
+import com.workoutgensvc.plan.enums.PlanDayType;
+import com.workoutgensvc.plan.enums.PlanType;
+import com.workoutgensvc.workout.Workout;
+import com.workoutgensvc.workout.WorkoutExercise;
+import com.workoutgensvc.workout.enums.WorkoutType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Insert throughput for generated plan trees (exercises with muscle targets, workouts with their
+ * exercises, the plan and its days) saved one tree per transaction, with and without JDBC batching.
+ * Runs on the in-memory test database, so it shows the statement count saved rather than MySQL's
+ * round-trip cost. mvn -Pbenchmark test
+ */
+@Tag("benchmark")
+@SpringBootTest
+class PlanInsertBenchmarkTest {
+    private static final int[] WEEKS = {4, 8, 12};
+    private static final int[] BATCH_SIZES = {1, 50};
+    private static final int WORKOUTS_PER_WEEK = 4;
+    private static final int EXERCISES_PER_WORKOUT = 5;
+    private static final int PLANS = 20;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void insertThroughput() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Warm up Hibernate and the JIT before timing
+        for (int batchSize : BATCH_SIZES) {
+            for (int i = 0; i < PLANS; i++) {
+                savePlanTree(4, batchSize);
+            }
+        }
+
+        System.out.printf("%-6s %-6s %8s %14s %12s %14s%n", "weeks", "batch", "rows", "prepares/plan", "plans/s", "rows/s");
+        for (int weeks : WEEKS) {
+            for (int batchSize : BATCH_SIZES) {
+                statistics.clear();
+                long start = System.nanoTime();
+                int rows = 0;
+                for (int i = 0; i < PLANS; i++) {
+                    rows = savePlanTree(weeks, batchSize);
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                System.out.printf("%-6d %-6d %8d %14d %12.1f %14.0f%n", weeks, batchSize, rows,
+                        statistics.getPrepareStatementCount() / PLANS, PLANS / seconds, rows * PLANS / seconds);
+            }
+        }
+    }
+
+    /**
+     * Persists one plan tree and returns how many rows it wrote.
+     */
+    private int savePlanTree(int weeks, int batchSize) {
+        return transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+
+            int rows = 0;
+            List<Workout> workouts = new ArrayList<>();
+            for (int w = 0; w < weeks * WORKOUTS_PER_WEEK; w++) {
+                Workout workout = Workout.builder()
+                        .name("Workout " + w)
+                        .type(WorkoutType.STRENGTH)
+                        .build();
+                for (int e = 1; e <= EXERCISES_PER_WORKOUT; e++) {
+                    Exercise exercise = Exercise.builder()
+                            .name("Exercise " + w + "-" + e)
+                            .type(ExerciseType.STRENGTH)
+                            .muscleGroupTarget(new ArrayList<>(List.of(
+                                    new MuscleTarget(MuscleType.MIDDLE_CHEST, Intensity.HIGH),
+                                    new MuscleTarget(MuscleType.LONG_HEAD_TRICEPS, Intensity.MODERATE))))
+                            .build();
+                    entityManager.persist(exercise);
+                    workout.getWorkoutExercises().add(WorkoutExercise.builder()
+                            .number(e)
+                            .reps(10)
+                            .burnedCalories(20.0)
+                            .workout(workout)
+                            .exercise(exercise)
+                            .build());
+                    rows += 4;
+                }
+                entityManager.persist(workout);
+                workouts.add(workout);
+                rows++;
+            }
+
+            Plan plan = Plan.builder()
+                    .name("Plan " + weeks + " weeks")
+                    .type(PlanType.STRENGTH)
+                    .build();
+            for (int day = 1; day <= weeks * 7; day++) {
+                PlanDay planDay = PlanDay.builder()
+                        .dayNumber(day)
+                        .type(day % 7 < WORKOUTS_PER_WEEK ? PlanDayType.ACTIVE : PlanDayType.REST)
+                        .plan(plan)
+                        .build();
+                if (planDay.getType() == PlanDayType.ACTIVE) {
+                    planDay.getWorkouts().add(workouts.get((day - 1) % workouts.size()));
+                    rows++;
+                }
+                plan.getPlanDays().add(planDay);
+                rows++;
+            }
+            entityManager.persist(plan);
+            return rows + 1;
+        });
+    }
+}
@@ -0,0 +1,88 @@
+package com.workoutgensvc.plan;
+
+import com.workoutgensvc.exercise.Exercise;
+import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.plan.dto.PlanDto;
+import com.workoutgensvc.plan.enums.PlanDayType;
+import com.workoutgensvc.plan.enums.PlanType;
+import com.workoutgensvc.workout.Workout;
+import com.workoutgensvc.workout.WorkoutExercise;
+import com.workoutgensvc.workout.enums.WorkoutType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of parsing plan goals, for a type name and for a phrase such as "lose weight" that is only
+ * matched after {@code valueOf} has thrown, and of converting a 4-week plan to its DTO. The plan
+ * has 20 training days rotating 5 workouts of 8 exercises.
+ * mvn -Pjmh test-compile exec:exec -Djmh.includes=PlanMappingJmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanMappingJmh {
+    private static final int DAYS = 28;
+    private static final int WORKOUTS = 5;
+    private static final int WORKOUT_SIZE = 8;
+
+    private Plan plan;
+
+    @Setup
+    public void setUp() {
+        List<Workout> workouts = new ArrayList<>();
+        for (int w = 0; w < WORKOUTS; w++) {
+            Workout workout = Workout.builder().name("Workout " + w).type(WorkoutType.FULL_BODY).build();
+            for (int i = 1; i <= WORKOUT_SIZE; i++) {
+                workout.getWorkoutExercises().add(WorkoutExercise.builder()
+                        .number(i)
+                        .reps(10)
+                        .duration(200)
+                        .burnedCalories(12.0)
+                        .workout(workout)
+                        .exercise(Exercise.builder().name("Exercise " + w + "-" + i).type(ExerciseType.STRENGTH).build())
+                        .build());
+            }
+            workouts.add(workout);
+        }
+
+        plan = Plan.builder().name("Four Week Strength").description("Progressive full body strength plan").type(PlanType.STRENGTH).build();
+        for (int day = 1; day <= DAYS; day++) {
+            boolean rest = day % 7 == 0 || day % 7 == 4;
+            PlanDay planDay = PlanDay.builder().dayNumber(day).type(rest ? PlanDayType.REST : PlanDayType.ACTIVE).plan(plan).build();
+            if (!rest) {
+                planDay.getWorkouts().add(workouts.get(day % WORKOUTS));
+            }
+            plan.getPlanDays().add(planDay);
+        }
+    }
+
+    @Benchmark
+    public PlanType parsePlanType() {
+        return PlanService.parsePlanType("Strength");
+    }
+
+    @Benchmark
+    public PlanType parsePlanTypePhrase() {
+        return PlanService.parsePlanType("lose weight");
+    }
+
+    @Benchmark
+    public PlanDto planDto() {
+        return PlanDto.from(plan);
+    }
+}
@@ -0,0 +1,113 @@
+package com.workoutgensvc.plan;
+
+import com.workoutgensvc.exercise.Exercise;
+import com.workoutgensvc.exercise.MuscleTarget;
+import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.exercise.enums.Intensity;
+import com.workoutgensvc.exercise.enums.MuscleType;
+import com.workoutgensvc.plan.enums.PlanDayType;
+import com.workoutgensvc.plan.enums.PlanType;
+import com.workoutgensvc.workout.Workout;
+import com.workoutgensvc.workout.WorkoutExercise;
+import com.workoutgensvc.workout.enums.WorkoutType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlanSchedulerTest {
+    private final PlanScheduler scheduler = new PlanScheduler(null, 30);
+
+    @Test
+    void laysOutEveryDayOfEveryWeek() {
+        Plan plan = scheduler.schedule(PlanType.STRENGTH, 4, 3, "intermediate", workouts());
+
+        assertEquals("Intermediate Strength 4-Week Plan", plan.getName());
+        assertEquals(28, plan.getPlanDays().size());
+        for (int day = 0; day < 28; day++) {
+            PlanDay planDay = plan.getPlanDays().get(day);
+            assertEquals(day + 1, planDay.getDayNumber());
+            assertEquals(planDay.getType() == PlanDayType.ACTIVE ? 1 : 0, planDay.getWorkouts().size());
+        }
+        for (int week = 0; week < 4; week++) {
+            assertEquals(3, plan.getPlanDays().subList(week * 7, week * 7 + 7).stream()
+                    .filter(planDay -> planDay.getType() == PlanDayType.ACTIVE)
+                    .count());
+        }
+    }
+
+    @Test
+    void recoversAfterSessionsOnlyWhenTrainingOftenEnough() {
+        // Four sessions a week land on days 1, 2, 4 and 6
+        List<PlanDayType> frequent = types(scheduler.schedule(PlanType.STRENGTH, 1, 4, "advanced", workouts()));
+        assertEquals(List.of(PlanDayType.ACTIVE, PlanDayType.ACTIVE, PlanDayType.RECOVERY, PlanDayType.ACTIVE,
+                PlanDayType.RECOVERY, PlanDayType.ACTIVE, PlanDayType.RECOVERY), frequent);
+
+        List<PlanDayType> occasional = types(scheduler.schedule(PlanType.STRENGTH, 1, 2, "advanced", workouts()));
+        assertEquals(List.of(PlanDayType.ACTIVE, PlanDayType.REST, PlanDayType.REST, PlanDayType.ACTIVE,
+                PlanDayType.REST, PlanDayType.REST, PlanDayType.REST), occasional);
+    }
+
+    @Test
+    void backToBackSessionsWorkDifferentMuscles() {
+        Plan plan = scheduler.schedule(PlanType.STRENGTH, 2, 7, "intermediate", workouts());
+
+        Workout previous = null;
+        for (PlanDay planDay : plan.getPlanDays()) {
+            Workout workout = planDay.getWorkouts().get(0);
+            if (previous != null) {
+                assertNotEquals(previous.getName(), workout.getName());
+                assertEquals(0.0, PlanScheduler.overlap(PlanScheduler.muscleProfile(previous), PlanScheduler.muscleProfile(workout)));
+            }
+            previous = workout;
+        }
+    }
+
+    @Test
+    void prefersWorkoutTypesThatSuitTheGoal() {
+        List<Workout> workouts = workouts();
+        workouts.add(workout("Morning Yoga", WorkoutType.YOGA, MuscleType.LOWER_BACK));
+
+        Plan plan = scheduler.schedule(PlanType.FLEXIBILITY, 1, 1, "beginner", workouts);
+
+        assertEquals("Morning Yoga", plan.getPlanDays().get(0).getWorkouts().get(0).getName());
+        assertTrue(plan.getDescription().startsWith("1 training day a week"));
+    }
+
+    private static List<PlanDayType> types(Plan plan) {
+        return plan.getPlanDays().stream().map(PlanDay::getType).toList();
+    }
+
+    private static List<Workout> workouts() {
+        List<Workout> workouts = new ArrayList<>();
+        workouts.add(workout("Push", WorkoutType.STRENGTH, MuscleType.MIDDLE_CHEST, MuscleType.LONG_HEAD_TRICEPS));
+        workouts.add(workout("Pull", WorkoutType.STRENGTH, MuscleType.LATS, MuscleType.SHORT_HEAD_BICEPS));
+        workouts.add(workout("Legs", WorkoutType.STRENGTH, MuscleType.QUADRICEPS, MuscleType.HAMSTRINGS));
+        return workouts;
+    }
+
+    private static Workout workout(String name, WorkoutType type, MuscleType... muscles) {
+        Workout workout = Workout.builder()
+                .name(name)
+                .type(type)
+                .build();
+        List<MuscleTarget> targets = new ArrayList<>();
+        for (MuscleType muscle : muscles) {
+            targets.add(new MuscleTarget(muscle, Intensity.HIGH));
+        }
+        workout.getWorkoutExercises().add(WorkoutExercise.builder()
+                .number(1)
+                .workout(workout)
+                .exercise(Exercise.builder()
+                        .name(name + " Exercise")
+                        .type(ExerciseType.STRENGTH)
+                        .muscleGroupTarget(targets)
+                        .build())
+                .build());
+        return workout;
+    }
+}
@@ -0,0 +1,130 @@
+package com.workoutgensvc.support;
+
+import com.google.gson.Gson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link Chat2ApiStubServer} responder that answers each of the service's prompts with valid JSON,
+ * so exercise, workout and plan generation run end to end without a model. Workouts and plans only
+ * use names from the prompt's list, as the prompts require.
+ */
+public class CannedCompletions implements Function<String, String> {
+    private static final Pattern PLAN_SIZE = Pattern.compile("(\\d+)-week workout plan.*?(\\d+) days per week", Pattern.DOTALL);
+    private static final String[] MUSCLES = {"UPPER_CHEST", "MIDDLE_CHEST", "LATS", "FRONT_DELTOID", "QUADRICEPS", "HAMSTRINGS", "GLUTES", "UPPER_ABS"};
+    private static final String[] INTENSITIES = {"LOW", "MODERATE", "HIGH"};
+
+    private final Chat2ApiStubServer stub;
+    private final Gson gson = new Gson();
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    public CannedCompletions(Chat2ApiStubServer stub) {
+        this.stub = stub;
+    }
+
+    @Override
+    public String apply(String prompt) {
+        if (prompt.contains("Generate ONE exercise")) {
+            return exercise();
+        }
+        if (prompt.contains("Create a complete workout")) {
+            return workout(listedNames(prompt, "Available exercises:"));
+        }
+        if (prompt.contains("Name and describe")) {
+            return gson.toJson(Map.of("name", "Stub Plan " + sequence.incrementAndGet(), "description", "A canned plan description."));
+        }
+        if (prompt.contains("workout plan")) {
+            return plan(prompt, listedNames(prompt, "Available workouts:"));
+        }
+        return "{}";
+    }
+
+    private String exercise() {
+        int n = sequence.incrementAndGet();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Map<String, String>> targets = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            targets.add(Map.of("muscle", MUSCLES[(n + i) % MUSCLES.length], "intensity", INTENSITIES[random.nextInt(INTENSITIES.length)]));
+        }
+
+        Map<String, Object> exercise = new LinkedHashMap<>();
+        exercise.put("name", "Stub Exercise " + n);
+        exercise.put("type", "STRENGTH");
+        exercise.put("muscleTargets", targets);
+        exercise.put("imageUrl", stub.getMediaUrl("exercise-" + n + ".png"));
+        return gson.toJson(exercise);
+    }
+
+    private String workout(List<String> exercises) {
+        List<Map<String, Object>> workoutExercises = new ArrayList<>();
+        int count = Math.min(exercises.size(), 6);
+        for (int i = 0; i < count; i++) {
+            workoutExercises.add(Map.of(
+                    "exerciseName", exercises.get(ThreadLocalRandom.current().nextInt(exercises.size())),
+                    "number", i + 1,
+                    "reps", 12,
+                    "weight", 0,
+                    "duration", 300));
+        }
+
+        Map<String, Object> workout = new LinkedHashMap<>();
+        workout.put("name", "Stub Workout " + sequence.incrementAndGet());
+        workout.put("type", "STRENGTH");
+        workout.put("workoutExercises", workoutExercises);
+        return gson.toJson(workout);
+    }
+
+    private String plan(String prompt, List<String> workouts) {
+        Matcher size = PLAN_SIZE.matcher(prompt);
+        boolean sized = size.find();
+        int weeks = sized ? Integer.parseInt(size.group(1)) : 4;
+        int frequency = sized ? Integer.parseInt(size.group(2)) : 3;
+
+        List<Map<String, Object>> planDays = new ArrayList<>();
+        for (int day = 1; day <= weeks * 7; day++) {
+            boolean active = (day - 1) % 7 < frequency && !workouts.isEmpty();
+            planDays.add(Map.of(
+                    "dayNumber", day,
+                    "type", active ? "ACTIVE" : "REST",
+                    "workoutNames", active ? List.of(workouts.get(ThreadLocalRandom.current().nextInt(workouts.size()))) : List.of()));
+        }
+
+        Map<String, Object> plan = new LinkedHashMap<>();
+        plan.put("name", "Stub Plan " + sequence.incrementAndGet());
+        plan.put("description", "A canned plan.");
+        plan.put("type", "STRENGTH");
+        plan.put("planDays", planDays);
+        return gson.toJson(plan);
+    }
+
+    /**
+     * Names from the line after {@code heading}. The catalogs render as one comma-separated line
+     * that may repeat a heading of its own, which is dropped.
+     */
+    private static List<String> listedNames(String prompt, String heading) {
+        int start = prompt.indexOf(heading + "\n");
+        if (start < 0) {
+            return List.of();
+        }
+        start += heading.length() + 1;
+        int end = prompt.indexOf('\n', start);
+        String line = prompt.substring(start, end < 0 ? prompt.length() : end);
+        int colon = line.indexOf(": ");
+        if (colon >= 0) {
+            line = line.substring(colon + 2);
+        }
+        if (line.startsWith("No existing")) {
+            return List.of();
+        }
+        return Arrays.stream(line.split(", ")).map(String::trim).filter(name -> !name.isEmpty()).toList();
+    }
+}
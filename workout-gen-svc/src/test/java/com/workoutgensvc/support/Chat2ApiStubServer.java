@@ -0,0 +1,170 @@
+package com.workoutgensvc.support;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal local stand-in for chat2api's {@code /v1/chat/completions}, used by tests and benchmarks.
+ */
+public class Chat2ApiStubServer implements AutoCloseable {
+    static {
+        // Without TCP_NODELAY the JDK server's split header/body writes add ~40ms of Nagle delay per response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Gson gson = new Gson();
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    private volatile LongSupplier latencyMs = () -> 0;
+    private volatile double failureRate;
+    private volatile int failureStatus = 503;
+    private volatile Function<String, String> responder = prompt -> "{}";
+
+    public Chat2ApiStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/v1/chat/completions", this::handleCompletion);
+        server.createContext("/media/", this::handleMedia);
+        server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * A link the media URL validator accepts, for responders that generate exercises.
+     */
+    public String getMediaUrl(String fileName) {
+        return getBaseUrl() + "/media/" + fileName;
+    }
+
+    public Chat2ApiStubServer withLatency(long latencyMs) {
+        return withLatency(() -> latencyMs);
+    }
+
+    /**
+     * Draws each completion's latency from {@code latencyMs}, e.g. one of the {@link StubLatency}
+     * distributions.
+     */
+    public Chat2ApiStubServer withLatency(LongSupplier latencyMs) {
+        this.latencyMs = latencyMs;
+        return this;
+    }
+
+    /**
+     * Fault injection: answers this share of completion requests (0 to 1) with {@code status} and no
+     * completion, after the configured latency, the way an overloaded chat2api does.
+     */
+    public Chat2ApiStubServer withFailures(double failureRate, int status) {
+        this.failureRate = failureRate;
+        this.failureStatus = status;
+        return this;
+    }
+
+    public Chat2ApiStubServer withResponder(Function<String, String> responder) {
+        this.responder = responder;
+        return this;
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    private void handleCompletion(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        JsonObject request = JsonParser.parseString(body).getAsJsonObject();
+        String prompt = request.getAsJsonArray("messages").get(0).getAsJsonObject().get("content").getAsString();
+
+        sleep(latencyMs.getAsLong());
+
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            exchange.sendResponseHeaders(failureStatus, -1);
+            exchange.close();
+            return;
+        }
+
+        String content = responder.apply(prompt);
+        if (request.has("stream") && request.get("stream").getAsBoolean()) {
+            streamCompletion(exchange, content);
+            return;
+        }
+
+        Map<String, Object> completion = Map.of(
+                "id", "chatcmpl-stub",
+                "object", "chat.completion",
+                "choices", List.of(Map.of(
+                        "index", 0,
+                        "message", Map.of("role", "assistant", "content", content),
+                        "finish_reason", "stop")));
+
+        byte[] response = gson.toJson(completion).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private void handleMedia(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", exchange.getRequestURI().getPath().endsWith(".mp4") ? "video/mp4" : "image/png");
+        exchange.sendResponseHeaders(200, -1);
+        exchange.close();
+    }
+
+    private void streamCompletion(HttpExchange exchange, String content) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            // Split the content into small deltas the way a real model streams tokens
+            for (int i = 0; i < content.length(); i += 8) {
+                String token = content.substring(i, Math.min(content.length(), i + 8));
+                Map<String, Object> chunk = Map.of(
+                        "object", "chat.completion.chunk",
+                        "choices", List.of(Map.of("index", 0, "delta", Map.of("content", token))));
+                out.write(("data: " + gson.toJson(chunk) + "\n\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+            out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,94 @@
+package com.workoutgensvc.support;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH run with the recorded baseline, both in JMH's JSON result format, and exits with 1
+ * when any benchmark got slower than the baseline by more than the tolerance. Benchmarks missing from
+ * either file are listed but never fail the comparison, so a run filtered with {@code jmh.includes}
+ * can be checked on its own.
+ * <p>
+ * Usage: {@code JmhBaselineComparator <baseline.json> <result.json> [tolerance]}, tolerance as a
+ * fraction (default 0.25).
+ */
+public final class JmhBaselineComparator {
+    private JmhBaselineComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: JmhBaselineComparator <baseline.json> <result.json> [tolerance]");
+            System.exit(2);
+        }
+        Map<String, Score> baseline = read(Path.of(args[0]));
+        Map<String, Score> current = read(Path.of(args[1]));
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.25;
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14s %9s%n", entry.getKey(), "-", now, "new");
+                continue;
+            }
+
+            // Positive change is always worse: slower for times, fewer operations for throughput
+            double change = now.lowerIsBetter() ? now.value() / before.value() - 1 : before.value() / now.value() - 1;
+            boolean regressed = change > tolerance;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-70s %14s %14s %+8.1f%%%s%n", entry.getKey(), before, now, change * 100, regressed ? "  REGRESSED" : "");
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) {
+                System.out.printf("%-70s %14s %14s %9s%n", missing, baseline.get(missing), "-", "not run");
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.0f%%%n", regressions, tolerance * 100);
+            System.exit(1);
+        }
+        System.out.printf("No regressions beyond %.0f%%%n", tolerance * 100);
+    }
+
+    private static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonElement element : JsonParser.parseString(Files.readString(file, StandardCharsets.UTF_8)).getAsJsonArray()) {
+            JsonObject run = element.getAsJsonObject();
+            JsonObject metric = run.getAsJsonObject("primaryMetric");
+            scores.put(key(run), new Score(metric.get("score").getAsDouble(), metric.get("scoreUnit").getAsString(), !"thrpt".equals(run.get("mode").getAsString())));
+        }
+        return scores;
+    }
+
+    private static String key(JsonObject run) {
+        String benchmark = run.get("benchmark").getAsString().replace("com.workoutgensvc.", "");
+        if (!run.has("params")) {
+            return benchmark;
+        }
+        Map<String, String> params = new TreeMap<>();
+        run.getAsJsonObject("params").entrySet().forEach(param -> params.put(param.getKey(), param.getValue().getAsString()));
+        return benchmark + params;
+    }
+
+    private record Score(double value, String unit, boolean lowerIsBetter) {
+        @Override
+        public String toString() {
+            return String.format("%.3f %s", value, unit);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.workoutgensvc.support;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Latency distributions for {@link Chat2ApiStubServer#withLatency(LongSupplier)}, in milliseconds.
+ * Model latency is long-tailed, so {@link #logNormal} is closer to a real chat2api than a fixed delay.
+ */
+public final class StubLatency {
+    // z-score of the 99th percentile of a standard normal distribution
+    private static final double Z_99 = 2.3263;
+
+    private StubLatency() {
+    }
+
+    public static LongSupplier fixed(long millis) {
+        return () -> millis;
+    }
+
+    public static LongSupplier uniform(long minMillis, long maxMillis) {
+        return () -> ThreadLocalRandom.current().nextLong(minMillis, maxMillis + 1);
+    }
+
+    /**
+     * Log-normal latency with the given median and 99th percentile.
+     */
+    public static LongSupplier logNormal(long medianMillis, long p99Millis) {
+        double mu = Math.log(medianMillis);
+        double sigma = (Math.log(p99Millis) - mu) / Z_99;
+        return () -> Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    /**
+     * Parses {@code fixed:200}, {@code uniform:100-400} or {@code lognormal:800-4000} (median and p99).
+     */
+    public static LongSupplier parse(String spec) {
+        String[] parts = spec.trim().split(":", 2);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Latency must be fixed:<ms>, uniform:<min>-<max> or lognormal:<median>-<p99>, was: " + spec);
+        }
+        String[] values = parts[1].split("-");
+        return switch (parts[0].toLowerCase()) {
+            case "fixed" -> fixed(Long.parseLong(values[0]));
+            case "uniform" -> uniform(Long.parseLong(values[0]), Long.parseLong(values[1]));
+            case "lognormal" -> logNormal(Long.parseLong(values[0]), Long.parseLong(values[1]));
+            default -> throw new IllegalArgumentException("Unknown latency distribution: " + parts[0]);
+        };
+    }
+}
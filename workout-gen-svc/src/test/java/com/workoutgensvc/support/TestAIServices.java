@@ -0,0 +1,84 @@
+package com.workoutgensvc.support;
+
+import com.workoutgensvc.core.AIService;
+import com.workoutgensvc.core.MediaUrlValidator;
+import com.workoutgensvc.core.UrlValidationCache;
+import com.workoutgensvc.core.balancer.BalancerSettings;
+import com.workoutgensvc.core.balancer.Chat2ApiEndpoints;
+import com.workoutgensvc.core.cache.AIResponseCache;
+import com.workoutgensvc.core.cache.AIResponseCacheSettings;
+import com.workoutgensvc.core.metrics.GenerationMetrics;
+import com.workoutgensvc.core.resilience.ResilienceSettings;
+import com.workoutgensvc.core.resilience.UpstreamGuard;
+import com.workoutgensvc.core.retry.RetryPolicy;
+import com.workoutgensvc.core.retry.RetrySettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Builds an {@link AIService} outside the Spring context, pointed at a stub server.
+ */
+public final class TestAIServices {
+    private TestAIServices() {
+    }
+
+    public static MediaUrlValidator mediaUrlValidator() {
+        return mediaUrlValidator(Duration.ofSeconds(1));
+    }
+
+    public static MediaUrlValidator mediaUrlValidator(Duration probeTimeout) {
+        UrlValidationCache cache = new UrlValidationCache(1000, Duration.ofHours(1), Duration.ofMinutes(10), Duration.ofMinutes(2));
+        return new MediaUrlValidator(Duration.ofSeconds(1), probeTimeout, cache, new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+    }
+
+    /**
+     * The response cache, the upstream guard and retries are disabled, so every call reaches the stub
+     * exactly once.
+     */
+    public static AIService create(String baseUrl, RestTemplate restTemplate) {
+        return create(baseUrl, restTemplate, disabledCache(), disabledGuard(), noRetries());
+    }
+
+    public static AIService create(String baseUrl, RestTemplate restTemplate, AIResponseCache responseCache) {
+        return create(baseUrl, restTemplate, responseCache, disabledGuard(), noRetries());
+    }
+
+    public static AIService create(String baseUrl, RestTemplate restTemplate, UpstreamGuard upstreamGuard) {
+        return create(baseUrl, restTemplate, disabledCache(), upstreamGuard, noRetries());
+    }
+
+    public static AIService create(String baseUrl, RestTemplate restTemplate, RetryPolicy retryPolicy) {
+        return create(baseUrl, restTemplate, disabledCache(), disabledGuard(), retryPolicy);
+    }
+
+    public static AIService create(String baseUrl, RestTemplate restTemplate, AIResponseCache responseCache, UpstreamGuard upstreamGuard, RetryPolicy retryPolicy) {
+        return create(new Chat2ApiEndpoints(List.of(baseUrl), BalancerSettings.builder().build(), new SimpleMeterRegistry()), restTemplate, responseCache, upstreamGuard, retryPolicy);
+    }
+
+    /**
+     * Spreads calls over several stubs; cache, guard and retries are disabled as above.
+     */
+    public static AIService create(Chat2ApiEndpoints endpoints, RestTemplate restTemplate) {
+        return create(endpoints, restTemplate, disabledCache(), disabledGuard(), noRetries());
+    }
+
+    public static AIService create(Chat2ApiEndpoints endpoints, RestTemplate restTemplate, AIResponseCache responseCache, UpstreamGuard upstreamGuard, RetryPolicy retryPolicy) {
+        return new AIService("gpt-3.5-turbo", endpoints, "", restTemplate, mediaUrlValidator(), Duration.ofSeconds(2), responseCache, upstreamGuard, retryPolicy, new GenerationMetrics(new SimpleMeterRegistry()), new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+    }
+
+    private static AIResponseCache disabledCache() {
+        return new AIResponseCache(AIResponseCacheSettings.builder().enabled(false).build(), new SimpleMeterRegistry());
+    }
+
+    private static UpstreamGuard disabledGuard() {
+        return new UpstreamGuard(ResilienceSettings.builder().enabled(false).build(), new SimpleMeterRegistry());
+    }
+
+    private static RetryPolicy noRetries() {
+        return new RetryPolicy(RetrySettings.builder().maxAttempts(1).build(), new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,168 @@
+package com.workoutgensvc.web.ratelimit;
+
+import com.workoutgensvc.web.ratelimit.enums.Admission;
+import com.workoutgensvc.web.ratelimit.enums.GenerationKind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.FlashMap;
+import org.springframework.web.servlet.support.SessionFlashMapManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GenerationRateLimitInterceptorTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void bucketRefusesRequestsOverTheClientsBudgetWithRetryAfter() throws Exception {
+        GenerationRateLimitInterceptor interceptor = interceptor(RateLimitSettings.builder()
+                .bucketCapacity(10)
+                .refillPerMinute(60)
+                .apiKeys(Set.of("alice", "bob"))
+                .build());
+
+        assertTrue(handle(interceptor, post("/api/v1/ai/plans", "alice")).admitted);
+
+        Handled refused = handle(interceptor, post("/api/v1/ai/plans", "alice"));
+        assertFalse(refused.admitted);
+        assertEquals(429, refused.response.getStatus());
+        // 2 tokens left, 8 needed at one a second
+        assertEquals("6", refused.response.getHeader("Retry-After"));
+        assertTrue(refused.response.getContentAsString().contains("\"type\":\"RATE_LIMITED\""));
+
+        // Cheaper requests still fit, and other clients have their own bucket
+        assertTrue(handle(interceptor, post("/api/v1/ai/exercises", "alice")).admitted);
+        assertTrue(handle(interceptor, post("/api/v1/ai/plans", "bob")).admitted);
+
+        now.addAndGet(Duration.ofSeconds(7).toNanos());
+        assertTrue(handle(interceptor, post("/api/v1/ai/plans", "alice")).admitted);
+        assertEquals(1.0, meterRegistry.get("ai.rate-limit.rejections").tag("kind", "plan").tag("reason", "rate_limited").counter().count());
+        assertEquals(2.0, meterRegistry.get("ai.rate-limit.clients").gauge().value());
+    }
+
+    @Test
+    void unknownApiKeysShareTheirAddressBucket() throws Exception {
+        GenerationRateLimitInterceptor interceptor = interceptor(RateLimitSettings.builder()
+                .bucketCapacity(10)
+                .apiKeys(Set.of("alice"))
+                .build());
+
+        assertTrue(handle(interceptor, post("/api/v1/ai/plans", "mallory-1")).admitted);
+        // A new made-up key does not buy a new bucket
+        assertFalse(handle(interceptor, post("/api/v1/ai/plans", "mallory-2")).admitted);
+        assertTrue(handle(interceptor, post("/api/v1/ai/plans", "alice")).admitted);
+        assertEquals(2.0, meterRegistry.get("ai.rate-limit.clients").gauge().value());
+    }
+
+    @Test
+    void jobSubmissionsPayFromTheBucketButTakeNoSlot() throws Exception {
+        GenerationRateLimitInterceptor interceptor = interceptor(RateLimitSettings.builder()
+                .bucketCapacity(10)
+                .maxConcurrent(1)
+                .maxQueueLength(0)
+                .build());
+
+        MockHttpServletRequest running = post("/api/v1/ai/plans", "alice");
+        assertTrue(interceptor.preHandle(running, new MockHttpServletResponse(), null));
+
+        // The only slot is taken, yet the job is accepted; the next one is over budget
+        assertTrue(handle(interceptor, post("/api/v1/ai/jobs/exercises", "alice")).admitted);
+        Handled refused = handle(interceptor, post("/api/v1/ai/jobs/workouts", "alice"));
+        assertFalse(refused.admitted);
+        assertEquals(429, refused.response.getStatus());
+        assertEquals(1.0, meterRegistry.get("ai.rate-limit.queue.in-use").gauge().value());
+    }
+
+    @Test
+    void fullQueueRefusesApiCallsAndRedirectsFormPosts() throws Exception {
+        GenerationRateLimitInterceptor interceptor = interceptor(RateLimitSettings.builder()
+                .maxConcurrent(1)
+                .maxQueueLength(0)
+                .build());
+
+        MockHttpServletRequest running = post("/api/v1/ai/workouts/stream", "alice");
+        MockHttpServletResponse runningResponse = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(running, runningResponse, null));
+
+        Handled refused = handle(interceptor, post("/api/v1/ai/exercises", "bob"));
+        assertEquals(503, refused.response.getStatus());
+        assertTrue(refused.response.getContentAsString().contains("\"type\":\"QUEUE_FULL\""));
+
+        MockHttpServletRequest form = post("/plans/generate", "bob");
+        form.setAttribute(DispatcherServlet.OUTPUT_FLASH_MAP_ATTRIBUTE, new FlashMap());
+        form.setAttribute(DispatcherServlet.FLASH_MAP_MANAGER_ATTRIBUTE, new SessionFlashMapManager());
+        Handled redirected = handle(interceptor, form);
+        assertEquals("/plans", redirected.response.getRedirectedUrl());
+
+        interceptor.afterCompletion(running, runningResponse, null, null);
+        assertTrue(handle(interceptor, post("/api/v1/ai/exercises", "bob")).admitted);
+        assertEquals(1.0, meterRegistry.get("ai.rate-limit.rejections").tag("kind", "exercise").tag("reason", "queue_full").counter().count());
+        assertEquals(0.0, meterRegistry.get("ai.rate-limit.queue.in-use").gauge().value());
+    }
+
+    @Test
+    void cheapRequestsOvertakeQueuedPlans() throws Exception {
+        FairGenerationQueue queue = new FairGenerationQueue(1, 10);
+        assertEquals(Admission.ADMITTED, queue.acquire("holder", GenerationKind.EXERCISE, Duration.ZERO));
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        List<Thread> threads = List.of(
+                waiter(queue, order, "alice", GenerationKind.PLAN, "alice plan 1"),
+                waiter(queue, order, "alice", GenerationKind.PLAN, "alice plan 2"),
+                waiter(queue, order, "bob", GenerationKind.EXERCISE, "bob exercise"),
+                waiter(queue, order, "carol", GenerationKind.WORKOUT, "carol workout"));
+        for (int i = 0; i < threads.size(); i++) {
+            threads.get(i).start();
+            while (queue.getWaiting() < i + 1) {
+                Thread.onSpinWait();
+            }
+        }
+
+        queue.release();
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+        assertEquals(List.of("bob exercise", "carol workout", "alice plan 1", "alice plan 2"), order);
+        assertEquals(0, queue.getInUse());
+    }
+
+    private GenerationRateLimitInterceptor interceptor(RateLimitSettings settings) {
+        return new GenerationRateLimitInterceptor(settings, meterRegistry, now::get);
+    }
+
+    private static Thread waiter(FairGenerationQueue queue, List<String> order, String client, GenerationKind kind, String name) {
+        return new Thread(() -> {
+            if (queue.acquire(client, kind, Duration.ofSeconds(5)) == Admission.ADMITTED) {
+                order.add(name);
+                queue.release();
+            }
+        });
+    }
+
+    private static MockHttpServletRequest post(String path, String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.addHeader("X-API-Key", apiKey);
+        return request;
+    }
+
+    private static Handled handle(GenerationRateLimitInterceptor interceptor, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean admitted = interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+        return new Handled(admitted, response);
+    }
+
+    private record Handled(boolean admitted, MockHttpServletResponse response) {
+    }
+}
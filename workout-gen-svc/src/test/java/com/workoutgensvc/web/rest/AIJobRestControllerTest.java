@@ -0,0 +1,143 @@
+package com.workoutgensvc.web.rest;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.workoutgensvc.support.Chat2ApiStubServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The background job API against a stub LLM, with one worker and room for one queued job.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "ai.jobs.workers=1",
+        "ai.jobs.queue-capacity=1",
+        "ai.rate-limit.enabled=false",
+        "ai.workout.local-fallback=false"
+})
+class AIJobRestControllerTest {
+    private static final String WORKOUT_JOB = "/api/v1/ai/jobs/workouts?type=STRENGTH&goals=Build+strength&noCache=true";
+
+    private static final Chat2ApiStubServer stub = startStub();
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void chat2api(DynamicPropertyRegistry registry) {
+        registry.add("chat2api.base-url", stub::getBaseUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void submittedJobCanBePolledUntilItSucceeds() throws Exception {
+        stub.withResponder(prompt -> "{\"name\": \"Queued Workout\", \"type\": \"STRENGTH\", \"workoutExercises\": []}");
+
+        HttpResponse<String> submitted = post(WORKOUT_JOB);
+        assertEquals(202, submitted.statusCode());
+        String location = submitted.headers().firstValue("Location").orElseThrow();
+        assertTrue(location.endsWith("/api/v1/ai/jobs/" + json(submitted).get("id").getAsString()));
+        assertEquals("WORKOUT", json(submitted).get("type").getAsString());
+
+        HttpResponse<String> polled = get(location + "?waitSeconds=10");
+        assertEquals(200, polled.statusCode());
+        JsonObject job = json(polled);
+        assertEquals("SUCCEEDED", job.get("status").getAsString());
+        assertEquals("Queued Workout", job.getAsJsonObject("result").get("name").getAsString());
+    }
+
+    @Test
+    void unknownJobIsNotFound() throws Exception {
+        assertEquals(404, get("http://localhost:" + port + "/api/v1/ai/jobs/" + UUID.randomUUID()).statusCode());
+        assertEquals(404, get("http://localhost:" + port + "/api/v1/ai/jobs/" + UUID.randomUUID() + "?waitSeconds=5").statusCode());
+    }
+
+    @Test
+    void failedGenerationIsReportedOnTheJob() throws Exception {
+        stub.withResponder(prompt -> "not a workout");
+
+        HttpResponse<String> polled = get(post(WORKOUT_JOB).headers().firstValue("Location").orElseThrow() + "?waitSeconds=10");
+
+        JsonObject job = json(polled);
+        assertEquals(200, polled.statusCode());
+        assertEquals("FAILED", job.get("status").getAsString());
+        assertTrue(job.get("error").getAsString().contains("Failed to generate workout"));
+    }
+
+    @Test
+    void fullQueueRejectsTheJob() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        stub.withResponder(prompt -> {
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "{\"name\": \"Slow Workout\", \"type\": \"STRENGTH\", \"workoutExercises\": []}";
+        });
+
+        String running;
+        String queued;
+        try {
+            running = post(WORKOUT_JOB).headers().firstValue("Location").orElseThrow();
+            queued = post(WORKOUT_JOB).headers().firstValue("Location").orElseThrow();
+
+            HttpResponse<String> rejected = post(WORKOUT_JOB);
+            assertEquals(503, rejected.statusCode());
+            assertEquals("QUEUE_FULL", json(rejected).get("type").getAsString());
+
+            // A long-poll that runs out returns the job as it stands
+            JsonObject waiting = json(get(queued + "?waitSeconds=1"));
+            assertEquals("QUEUED", waiting.get("status").getAsString());
+        } finally {
+            release.countDown();
+        }
+
+        assertEquals("SUCCEEDED", json(get(running + "?waitSeconds=10")).get("status").getAsString());
+        assertEquals("SUCCEEDED", json(get(queued + "?waitSeconds=10")).get("status").getAsString());
+    }
+
+    private HttpResponse<String> post(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                        .POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String url) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static JsonObject json(HttpResponse<String> response) {
+        return JsonParser.parseString(response.body()).getAsJsonObject();
+    }
+
+    private static Chat2ApiStubServer startStub() {
+        try {
+            return new Chat2ApiStubServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
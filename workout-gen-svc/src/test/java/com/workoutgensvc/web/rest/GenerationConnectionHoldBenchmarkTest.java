@@ -0,0 +1,120 @@
+package com.workoutgensvc.web.rest;
+
+import com.workoutgensvc.support.Chat2ApiStubServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent workout requests through the REST endpoint, with a connection pool far smaller than the
+ * number of requests and a stub LLM that sleeps. While the LLM call held a connection, requests past
+ * the pool size queued for one and timed out; with the call outside the transaction they all overlap.
+ * mvn -Pbenchmark test
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=2000",
+        "ai.rate-limit.enabled=false",
+        "ai.resilience.enabled=false",
+        "ai.response-cache.enabled=false",
+        "ai.workout.local-fallback=false"
+})
+class GenerationConnectionHoldBenchmarkTest {
+    private static final int CONCURRENT_REQUESTS = 32;
+    private static final int POOL_SIZE = 2;
+    private static final long UPSTREAM_LATENCY_MS = 1000;
+
+    private static final AtomicInteger workouts = new AtomicInteger();
+    private static final Chat2ApiStubServer stub = startStub().withLatency(UPSTREAM_LATENCY_MS)
+            .withResponder(prompt -> "{\"name\": \"Bench Workout " + workouts.incrementAndGet() + "\", \"type\": \"STRENGTH\", \"workoutExercises\": []}");
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void chat2api(DynamicPropertyRegistry registry) {
+        registry.add("chat2api.base-url", stub::getBaseUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void slowLlmCallsDoNotHoldConnections() throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+        List<Long> latencies = new ArrayList<>();
+        int failures = 0;
+        long start = System.nanoTime();
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                futures.add(executor.submit(() -> {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/ai/workouts?type=STRENGTH&goals=Build+strength&noCache=true"))
+                            .timeout(Duration.ofMinutes(1))
+                            .POST(HttpRequest.BodyPublishers.noBody())
+                            .build();
+                    long requestStart = System.nanoTime();
+                    int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    return status == 200 ? System.nanoTime() - requestStart : -1L;
+                }));
+            }
+            for (Future<Long> future : futures) {
+                long latency = future.get();
+                if (latency < 0) {
+                    failures++;
+                } else {
+                    latencies.add(latency);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Collections.sort(latencies);
+        System.out.printf("%10s %10s %10s %12s %10s %10s%n", "pool", "requests", "failed", "requests/s", "p50 ms", "max ms");
+        System.out.printf("%10d %10d %10d %12.1f %10.0f %10.0f%n", POOL_SIZE, CONCURRENT_REQUESTS, failures,
+                latencies.size() / seconds,
+                latencies.isEmpty() ? 0 : latencies.get(latencies.size() / 2) / 1e6,
+                latencies.isEmpty() ? 0 : latencies.get(latencies.size() - 1) / 1e6);
+
+        assertEquals(0, failures);
+        // Connection-bound, the requests would take CONCURRENT_REQUESTS / POOL_SIZE upstream round trips
+        assertTrue(seconds < (double) CONCURRENT_REQUESTS / POOL_SIZE * UPSTREAM_LATENCY_MS / 1000 / 4,
+                String.format("%d requests took %.1f s", CONCURRENT_REQUESTS, seconds));
+    }
+
+    private static Chat2ApiStubServer startStub() {
+        try {
+            return new Chat2ApiStubServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
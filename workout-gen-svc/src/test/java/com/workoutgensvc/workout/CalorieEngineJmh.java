@@ -0,0 +1,83 @@
+package com.workoutgensvc.workout;
+
+import com.workoutgensvc.exercise.Exercise;
+import com.workoutgensvc.exercise.MuscleTarget;
+import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.exercise.enums.Intensity;
+import com.workoutgensvc.exercise.enums.MuscleType;
+import com.workoutgensvc.workout.enums.WorkoutType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of computing burnedCalories locally: one workout exercise, and a whole 12-exercise workout.
+ * mvn -Pjmh test-compile exec:exec -Djmh.includes=CalorieEngineJmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalorieEngineJmh {
+    private static final int WORKOUT_SIZE = 12;
+
+    private final CalorieEngine engine = new CalorieEngine(70);
+    private List<WorkoutExercise> workoutExercises;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ExerciseType[] exerciseTypes = ExerciseType.values();
+        MuscleType[] muscles = MuscleType.values();
+        Intensity[] intensities = Intensity.values();
+
+        Workout workout = Workout.builder().name("HIIT").type(WorkoutType.HIIT).build();
+        workoutExercises = new ArrayList<>();
+        for (int i = 0; i < WORKOUT_SIZE; i++) {
+            List<MuscleTarget> targets = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                targets.add(new MuscleTarget(muscles[random.nextInt(muscles.length)], intensities[random.nextInt(intensities.length)]));
+            }
+            Exercise exercise = Exercise.builder()
+                    .name("Exercise " + i)
+                    .type(exerciseTypes[random.nextInt(exerciseTypes.length)])
+                    .muscleGroupTarget(targets)
+                    .build();
+            workoutExercises.add(WorkoutExercise.builder()
+                    .number(i + 1)
+                    .reps(i % 2 == 0 ? 12 : null)
+                    .duration(i % 2 == 0 ? null : 45)
+                    .workout(workout)
+                    .exercise(exercise)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public double singleExercise() {
+        return engine.burnedCalories(workoutExercises.get(0), 80.0);
+    }
+
+    @Benchmark
+    public double wholeWorkout() {
+        double total = 0;
+        for (WorkoutExercise workoutExercise : workoutExercises) {
+            total += engine.burnedCalories(workoutExercise, 80.0);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,45 @@
+package com.workoutgensvc.workout;
+
+import com.workoutgensvc.exercise.Exercise;
+import com.workoutgensvc.exercise.MuscleTarget;
+import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.exercise.enums.Intensity;
+import com.workoutgensvc.exercise.enums.MuscleType;
+import com.workoutgensvc.workout.enums.WorkoutType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CalorieEngineTest {
+    private final CalorieEngine engine = new CalorieEngine(70);
+
+    @Test
+    void blendsTypeAndIntensityMetsAndScalesByWorkoutType() {
+        Exercise burpee = Exercise.builder()
+                .name("Burpee")
+                .type(ExerciseType.CARDIO)
+                .muscleGroupTarget(List.of(
+                        new MuscleTarget(MuscleType.QUADRICEPS, Intensity.HIGH),
+                        new MuscleTarget(MuscleType.MIDDLE_CHEST, Intensity.EXTREME)))
+                .build();
+
+        // ((9.0 + (6.0 + 8.0) / 2) / 2) * 1.35 = 10.8 MET for 10 minutes at 80 kg
+        assertEquals(10.8, engine.met(WorkoutType.HIIT, burpee), 1e-9);
+        assertEquals(144.0, engine.burnedCalories(WorkoutType.HIIT, burpee, null, 600, 80.0));
+    }
+
+    @Test
+    void fallsBackToRepsAndDefaultBodyWeight() {
+        Exercise squat = Exercise.builder()
+                .name("Squat")
+                .type(ExerciseType.STRENGTH)
+                .build();
+
+        // 7.0 MET x 70 kg x 10 reps x 3 s
+        assertEquals(4.1, engine.burnedCalories(WorkoutType.STRENGTH, squat, 10, null, null));
+        assertEquals(4.1, engine.burnedCalories(WorkoutType.STRENGTH, squat, 10, 0, -1.0));
+        assertEquals(CalorieEngine.DEFAULT_ACTIVE_SECONDS, CalorieEngine.activeSeconds(null, null));
+    }
+}
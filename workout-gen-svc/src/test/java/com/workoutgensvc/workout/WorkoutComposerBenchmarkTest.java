@@ -0,0 +1,109 @@
+package com.workoutgensvc.workout;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.workoutgensvc.core.AIService;
+import com.workoutgensvc.core.client.Chat2ApiTransport;
+import com.workoutgensvc.core.client.Chat2ApiTransportSettings;
+import com.workoutgensvc.exercise.Exercise;
+import com.workoutgensvc.exercise.MuscleTarget;
+import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.exercise.enums.Intensity;
+import com.workoutgensvc.exercise.enums.MuscleType;
+import com.workoutgensvc.support.Chat2ApiStubServer;
+import com.workoutgensvc.support.TestAIServices;
+import com.workoutgensvc.workout.enums.WorkoutType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Latency of the local composer against the LLM path it replaces. The LLM side goes through AIService
+ * to a stub that sleeps for -Dbenchmark.llm-latency-ms (default 1500, a typical chat completion for a
+ * workout), or to a real chat2api when -Dbenchmark.chat2api-url is set. mvn -Pbenchmark test
+ */
+@Tag("benchmark")
+class WorkoutComposerBenchmarkTest {
+    private static final int CANDIDATES = 60;
+    private static final int LOCAL_CALLS = 2000;
+    private static final int LLM_CALLS = 10;
+
+    @Test
+    void compareWithLlm() throws Exception {
+        List<Exercise> candidates = candidates();
+        WorkoutComposer composer = new WorkoutComposer(null, new CalorieEngine(70), CANDIDATES);
+
+        for (int i = 0; i < LOCAL_CALLS; i++) {
+            composer.compose(WorkoutType.FULL_BODY, 45, "intermediate", candidates, null);
+        }
+        List<Long> local = new ArrayList<>();
+        for (int i = 0; i < LOCAL_CALLS; i++) {
+            long start = System.nanoTime();
+            composer.compose(WorkoutType.FULL_BODY, 45, "intermediate", candidates, null);
+            local.add(System.nanoTime() - start);
+        }
+
+        String availableExercises = "Available exercises: " + String.join(", ", candidates.stream().map(Exercise::getName).toList());
+        String workoutJson = workoutJson(candidates);
+        long latencyMs = Long.getLong("benchmark.llm-latency-ms", 1500);
+        String chat2apiUrl = System.getProperty("benchmark.chat2api-url");
+        Gson gson = new Gson();
+
+        List<Long> llm = new ArrayList<>();
+        try (Chat2ApiStubServer stub = new Chat2ApiStubServer().withLatency(latencyMs).withResponder(prompt -> workoutJson);
+             Chat2ApiTransport transport = Chat2ApiTransport.create(Chat2ApiTransportSettings.builder().build())) {
+            AIService aiService = TestAIServices.create(chat2apiUrl != null ? chat2apiUrl : stub.getBaseUrl(), transport.restTemplate());
+            for (int i = 0; i < LLM_CALLS; i++) {
+                long start = System.nanoTime();
+                String response = aiService.generateWorkout("FULL_BODY", "45", "intermediate", "general fitness", availableExercises, true);
+                gson.fromJson(response.replaceAll("```", "").replace("json\n", ""), JsonObject.class);
+                llm.add(System.nanoTime() - start);
+            }
+        }
+
+        Collections.sort(local);
+        Collections.sort(llm);
+        System.out.printf("%-12s %10s %12s %12s%n", "path", "calls", "p50 ms", "p99 ms");
+        System.out.printf("%-12s %10d %12.3f %12.3f%n", "local", LOCAL_CALLS, percentile(local, 0.50), percentile(local, 0.99));
+        System.out.printf("%-12s %10d %12.3f %12.3f%n", chat2apiUrl != null ? "chat2api" : "llm (stub)", LLM_CALLS, percentile(llm, 0.50), percentile(llm, 0.99));
+    }
+
+    private static List<Exercise> candidates() {
+        Random random = new Random(7);
+        MuscleType[] muscles = MuscleType.values();
+        Intensity[] intensities = Intensity.values();
+        ExerciseType[] types = {ExerciseType.STRENGTH, ExerciseType.PLYOMETRIC, ExerciseType.CARDIO};
+
+        List<Exercise> exercises = new ArrayList<>();
+        for (int i = 0; i < CANDIDATES; i++) {
+            List<MuscleTarget> targets = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                targets.add(new MuscleTarget(muscles[random.nextInt(muscles.length)], intensities[random.nextInt(intensities.length)]));
+            }
+            exercises.add(Exercise.builder()
+                    .name("Exercise " + i)
+                    .type(types[random.nextInt(types.length)])
+                    .muscleGroupTarget(targets)
+                    .build());
+        }
+        return exercises;
+    }
+
+    private static String workoutJson(List<Exercise> candidates) {
+        List<String> workoutExercises = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            workoutExercises.add(String.format("{\"exerciseName\": \"%s\", \"number\": %d, \"reps\": 10, \"weight\": 0, \"duration\": 300}",
+                    candidates.get(i).getName(), i + 1));
+        }
+        return "{\"name\": \"Full Body Blast\", \"type\": \"FULL_BODY\", \"workoutExercises\": [" + String.join(",", workoutExercises) + "]}";
+    }
+
+    private static double percentile(List<Long> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)) / 1e6;
+    }
+}
@@ -0,0 +1,77 @@
+package com.workoutgensvc.workout;
+
+import com.workoutgensvc.exercise.Exercise;
+import com.workoutgensvc.exercise.MuscleTarget;
+import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.exercise.enums.Intensity;
+import com.workoutgensvc.exercise.enums.MuscleType;
+import com.workoutgensvc.workout.enums.WorkoutType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkoutComposerTest {
+    private final WorkoutComposer composer = new WorkoutComposer(null, new CalorieEngine(70), 60);
+
+    @Test
+    void fillsTheTimeBudgetExactly() {
+        Workout workout = composer.compose(WorkoutType.STRENGTH, 47, "intermediate", candidates(), null);
+
+        // 47 minutes in 5-minute blocks rounds to 9 exercises; 2820 s does not divide evenly by 9
+        assertEquals(9, workout.getWorkoutExercises().size());
+        assertEquals(47 * 60, workout.getWorkoutExercises().stream().mapToInt(WorkoutExercise::getDuration).sum());
+        workout.getWorkoutExercises().forEach(workoutExercise -> {
+            assertEquals(10, workoutExercise.getReps());
+            assertTrue(workoutExercise.getBurnedCalories() > 0);
+        });
+    }
+
+    @Test
+    void spreadsLoadAcrossMusclesBeforeRepeatingOne() {
+        Workout workout = composer.compose(WorkoutType.STRENGTH, 15, "beginner", candidates(), null);
+
+        // The three chest presses rank first, but after one of them the other muscles are fresher
+        List<MuscleType> primaryMuscles = workout.getWorkoutExercises().stream()
+                .sorted(Comparator.comparing(WorkoutExercise::getNumber))
+                .map(workoutExercise -> workoutExercise.getExercise().getMuscleGroupTarget().get(0).getMuscle())
+                .toList();
+        assertEquals(3, primaryMuscles.size());
+        assertEquals(MuscleType.MIDDLE_CHEST, primaryMuscles.get(0));
+        assertNotEquals(MuscleType.MIDDLE_CHEST, primaryMuscles.get(1));
+        assertNotEquals(primaryMuscles.get(1), primaryMuscles.get(2));
+    }
+
+    private static List<Exercise> candidates() {
+        List<Exercise> exercises = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            exercises.add(exercise("Chest Press " + i, MuscleType.MIDDLE_CHEST, MuscleType.LONG_HEAD_TRICEPS));
+        }
+        exercises.add(exercise("Squat", MuscleType.QUADRICEPS, MuscleType.GLUTES));
+        exercises.add(exercise("Lunge", MuscleType.QUADRICEPS, MuscleType.HAMSTRINGS));
+        exercises.add(exercise("Row", MuscleType.LATS, MuscleType.RHOMBOIDS));
+        exercises.add(exercise("Pull Up", MuscleType.LATS, MuscleType.SHORT_HEAD_BICEPS));
+        exercises.add(exercise("Overhead Press", MuscleType.FRONT_DELTOID, MuscleType.LATERAL_DELTOID));
+        exercises.add(exercise("Deadlift", MuscleType.HAMSTRINGS, MuscleType.LOWER_BACK));
+        exercises.add(exercise("Calf Raise", MuscleType.CALVES));
+        return exercises;
+    }
+
+    private static Exercise exercise(String name, MuscleType primary, MuscleType... secondary) {
+        List<MuscleTarget> targets = new ArrayList<>();
+        targets.add(new MuscleTarget(primary, Intensity.HIGH));
+        for (MuscleType muscle : secondary) {
+            targets.add(new MuscleTarget(muscle, Intensity.MODERATE));
+        }
+        return Exercise.builder()
+                .name(name)
+                .type(ExerciseType.STRENGTH)
+                .muscleGroupTarget(targets)
+                .build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.workoutgensvc.workout;
+
+import com.workoutgensvc.exercise.Exercise;
+import com.workoutgensvc.exercise.ExerciseIndex;
+import com.workoutgensvc.exercise.ExerciseRepository;
+import com.workoutgensvc.exercise.MuscleTarget;
+import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.exercise.enums.Intensity;
+import com.workoutgensvc.exercise.enums.MuscleType;
+import com.workoutgensvc.support.Chat2ApiStubServer;
+import com.workoutgensvc.workout.enums.GenerationMode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Workouts are composed locally when asked to, and when the LLM does not answer.
+ */
+@SpringBootTest
+class WorkoutFallbackTest {
+    private static final Chat2ApiStubServer stub = startStub().withResponder(prompt -> {
+        throw new IllegalStateException("chat2api is down");
+    });
+
+    @Autowired
+    private ExerciseRepository exerciseRepository;
+    @Autowired
+    private ExerciseIndex exerciseIndex;
+    @Autowired
+    private WorkoutService workoutService;
+
+    @DynamicPropertySource
+    static void chat2api(DynamicPropertyRegistry registry) {
+        registry.add("chat2api.base-url", stub::getBaseUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @BeforeEach
+    void seed() {
+        if (exerciseRepository.count() > 0) {
+            return;
+        }
+        MuscleType[] muscles = {MuscleType.MIDDLE_CHEST, MuscleType.QUADRICEPS, MuscleType.LATS, MuscleType.FRONT_DELTOID, MuscleType.HAMSTRINGS, MuscleType.UPPER_ABS};
+        for (int i = 0; i < 12; i++) {
+            Exercise exercise = exerciseRepository.save(Exercise.builder()
+                    .name("Exercise " + i)
+                    .type(ExerciseType.STRENGTH)
+                    .muscleGroupTarget(new ArrayList<>(List.of(new MuscleTarget(muscles[i % muscles.length], Intensity.HIGH))))
+                    .build());
+            exerciseIndex.addAfterCommit(exercise);
+        }
+    }
+
+    @Test
+    void localModeNeverCallsTheLlm() {
+        int requests = stub.getRequestCount();
+
+        Workout workout = workoutService.generateWorkout("STRENGTH", "30", "intermediate", "build muscle", null, GenerationMode.LOCAL, false);
+
+        assertEquals(requests, stub.getRequestCount());
+        assertNotNull(workout.getId());
+        assertEquals(30 * 60, workout.getWorkoutExercises().stream().mapToInt(WorkoutExercise::getDuration).sum());
+    }
+
+    @Test
+    void fallsBackToTheComposerWhenTheLlmIsUnavailable() {
+        List<WorkoutExercise> streamed = new ArrayList<>();
+        Workout workout = workoutService.streamWorkout("HIIT", "20", "beginner", "lose weight", null, GenerationMode.AI, true, streamed::add);
+
+        assertEquals("Beginner HIIT 20-Minute Workout", workout.getName());
+        assertEquals(workout.getWorkoutExercises().size(), streamed.size());
+        assertEquals(20 * 60, streamed.stream().mapToInt(WorkoutExercise::getDuration).sum());
+    }
+
+    private static Chat2ApiStubServer startStub() {
+        try {
+            return new Chat2ApiStubServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.workoutgensvc.workout;
+
+import com.workoutgensvc.exercise.Exercise;
+import com.workoutgensvc.exercise.enums.ExerciseType;
+import com.workoutgensvc.workout.dto.WorkoutDto;
+import com.workoutgensvc.workout.enums.WorkoutType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of parsing a requested workout type, for a name and for an unknown type that ends in an
+ * exception, and of converting a 12-exercise workout to its DTO, which sorts the exercises.
+ * mvn -Pjmh test-compile exec:exec -Djmh.includes=WorkoutMappingJmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkoutMappingJmh {
+    private static final int WORKOUT_SIZE = 12;
+
+    private Workout workout;
+
+    @Setup
+    public void setUp() {
+        workout = Workout.builder().name("Upper Body Strength").type(WorkoutType.STRENGTH).build();
+        // Set order is not exercise order, so the DTO's sort has work to do
+        for (int i = WORKOUT_SIZE; i >= 1; i--) {
+            workout.getWorkoutExercises().add(WorkoutExercise.builder()
+                    .number(i)
+                    .reps(12)
+                    .weight(20.0)
+                    .duration(225)
+                    .burnedCalories(14.5)
+                    .workout(workout)
+                    .exercise(Exercise.builder().name("Exercise " + i).type(ExerciseType.STRENGTH).build())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public WorkoutType parseWorkoutType() {
+        return WorkoutService.parseWorkoutType("Full Body");
+    }
+
+    @Benchmark
+    public Object parseUnknownWorkoutType() {
+        try {
+            return WorkoutService.parseWorkoutType("Pilates");
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public WorkoutDto workoutDto() {
+        return WorkoutDto.from(workout);
+    }
+}